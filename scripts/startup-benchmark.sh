@@ -0,0 +1,136 @@
+#!/usr/bin/env bash
+# Time-to-ready of the service jar in several startup modes.
+#
+#   mvn -Pstartup package -DskipTests
+#   mvn -Pnative native:compile -DskipTests    (only for MODES=native)
+#   docker compose up -d postgres redis
+#   scripts/startup-benchmark.sh [runs]
+#
+# Every run starts a fresh process from the extracted jar or the native executable and polls
+# /actuator/health/readiness.
+# Time-to-ready is the wall-clock time from launch to the first 200; the process's resident set
+# size is taken at that moment, and Spring's own application.ready.time is read from
+# /actuator/prometheus. The median of each mode is printed, all runs are written to
+# target/startup-benchmark/results.csv.
+#
+# Modes (MODES="jvm cds aot aot+cds lazy" by default):
+#   jvm      plain JVM
+#   cds      with an AppCDS archive from a training run
+#   aot      with the Spring AOT output of the startup profile
+#   aot+cds  both, with an archive trained in AOT mode
+#   lazy     the lazy profile, see StartupConfig
+#   native   the native executable of the native profile, target/user-service
+#
+# The service connects with its usual settings, override them through the environment,
+# e.g. SPRING_DATASOURCE_URL=jdbc:postgresql://localhost:5432/user_db SPRING_DATA_REDIS_HOST=localhost.
+set -euo pipefail
+
+RUNS=${1:-5}
+MODES=${MODES:-"jvm cds aot aot+cds lazy"}
+PORT=${PORT:-18081}
+TIMEOUT_SECONDS=${TIMEOUT_SECONDS:-120}
+WORK=target/startup-benchmark
+
+export SPRING_DATASOURCE_URL=${SPRING_DATASOURCE_URL:-jdbc:postgresql://localhost:5432/user_db}
+export SPRING_DATA_REDIS_HOST=${SPRING_DATA_REDIS_HOST:-localhost}
+
+NATIVE=target/user-service
+
+rm -rf "$WORK"
+mkdir -p "$WORK"
+jvm_modes=${MODES//native/}
+if [[ -n "${jvm_modes// /}" ]]; then
+    JAR=$(ls target/user-service-*.jar 2>/dev/null | grep -v original | head -1 || true)
+    if [[ -z "$JAR" ]]; then
+        echo "No jar in target/, run: mvn -Pstartup package -DskipTests" >&2
+        exit 1
+    fi
+    java -Djarmode=tools -jar "$JAR" extract --destination "$WORK/app" > /dev/null
+    APP=$(ls "$WORK"/app/*.jar)
+fi
+if [[ " $MODES " == *" native "* && ! -x "$NATIVE" ]]; then
+    echo "No $NATIVE, run: mvn -Pnative native:compile -DskipTests" >&2
+    exit 1
+fi
+
+mode_command() {
+    case "$1" in
+        jvm) echo "java -jar $APP" ;;
+        cds) echo "java -XX:SharedArchiveFile=$WORK/app.jsa -jar $APP" ;;
+        aot) echo "java -Dspring.aot.enabled=true -jar $APP" ;;
+        aot+cds) echo "java -Dspring.aot.enabled=true -XX:SharedArchiveFile=$WORK/app-aot.jsa -jar $APP" ;;
+        lazy) echo "java -Dspring.profiles.active=lazy -jar $APP" ;;
+        native) echo "$NATIVE" ;;
+        *) echo "Unknown mode '$1'" >&2; exit 1 ;;
+    esac
+}
+
+# The training run loads the classes of a full startup and exits once the context is refreshed.
+train() {
+    local archive=$1
+    shift
+    java "$@" -XX:ArchiveClassesAtExit="$archive" -Dspring.context.exit=onRefresh \
+        -jar "$APP" --server.port="$PORT" > "$WORK/training.log" 2>&1
+}
+
+if [[ " $MODES " == *" cds "* ]]; then
+    train "$WORK/app.jsa"
+fi
+if [[ " $MODES " == *" aot+cds "* ]]; then
+    train "$WORK/app-aot.jsa" -Dspring.aot.enabled=true
+fi
+
+# one run: prints "<time-to-ready ms> <rss MB> <application.ready.time s>"
+run() {
+    local log=$1
+    shift
+    local start pid ready_ms=""
+    start=$(date +%s%N)
+    # shellcheck disable=SC2068
+    $@ --server.port="$PORT" > "$log" 2>&1 &
+    pid=$!
+    local deadline=$(( $(date +%s) + TIMEOUT_SECONDS ))
+    while (( $(date +%s) < deadline )); do
+        if curl -sf "http://localhost:$PORT/actuator/health/readiness" > /dev/null 2>&1; then
+            ready_ms=$(( ($(date +%s%N) - start) / 1000000 ))
+            break
+        fi
+        if ! kill -0 "$pid" 2> /dev/null; then
+            break
+        fi
+        sleep 0.05
+    done
+    if [[ -z "$ready_ms" ]]; then
+        kill "$pid" 2> /dev/null || true
+        wait "$pid" 2> /dev/null || true
+        echo "Not ready within ${TIMEOUT_SECONDS}s, see $log" >&2
+        exit 1
+    fi
+    local rss_mb spring_ready
+    rss_mb=$(( $(ps -o rss= -p "$pid") / 1024 ))
+    spring_ready=$(curl -sf "http://localhost:$PORT/actuator/prometheus" \
+        | awk '/^application_ready_time_seconds/ { print $2; exit }')
+    kill "$pid"
+    wait "$pid" 2> /dev/null || true
+    echo "$ready_ms $rss_mb ${spring_ready:-NaN}"
+}
+
+median() {
+    sort -g | awk '{ values[NR] = $1 } END { print (NR % 2) ? values[(NR + 1) / 2] : (values[NR / 2] + values[NR / 2 + 1]) / 2 }'
+}
+
+echo "mode,run,time_to_ready_ms,rss_mb,application_ready_time_s" > "$WORK/results.csv"
+printf '%-8s %18s %10s %22s\n' mode time-to-ready-ms rss-mb application.ready.time
+for mode in $MODES; do
+    command=$(mode_command "$mode")
+    for i in $(seq 1 "$RUNS"); do
+        # shellcheck disable=SC2086
+        result=$(run "$WORK/$mode-$i.log" $command)
+        read -r ready_ms rss_mb spring_ready <<< "$result"
+        echo "$mode,$i,$ready_ms,$rss_mb,$spring_ready" >> "$WORK/results.csv"
+    done
+    printf '%-8s %18s %10s %22s\n' "$mode" \
+        "$(awk -F, -v m="$mode" '$1 == m { print $3 }' "$WORK/results.csv" | median)" \
+        "$(awk -F, -v m="$mode" '$1 == m { print $4 }' "$WORK/results.csv" | median)" \
+        "$(awk -F, -v m="$mode" '$1 == m { print $5 }' "$WORK/results.csv" | median)"
+done
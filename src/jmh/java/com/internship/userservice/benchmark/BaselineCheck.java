@@ -0,0 +1,127 @@
+package com.internship.userservice.benchmark;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Compares a JMH JSON result file with the stored baseline and exits with a non-zero
+ * status when any benchmark got slower than the baseline by more than the tolerance.
+ * <p>
+ * Both sides are compared with their 99.9% confidence intervals ({@code scoreError})
+ * rather than their means: a benchmark only counts as regressed when even the best
+ * end of the current interval is worse than the worst end of the baseline interval by
+ * more than the tolerance, so noisy benchmarks don't fail the build on their own.
+ * <p>
+ * Usage: {@code BaselineCheck <result.json> <baseline.json> [tolerance]}, where the
+ * tolerance is a fraction, {@code 0.25} by default. Benchmarks missing from the baseline
+ * are reported but never fail the check.
+ */
+public final class BaselineCheck {
+
+    private static final double DEFAULT_TOLERANCE = 0.25;
+
+    private BaselineCheck() {
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 2) {
+            System.err.println("Usage: BaselineCheck <result.json> <baseline.json> [tolerance]");
+            System.exit(2);
+        }
+        File resultFile = new File(args[0]);
+        File baselineFile = new File(args[1]);
+        double tolerance = args.length > 2 ? Double.parseDouble(args[2]) : DEFAULT_TOLERANCE;
+
+        if (!baselineFile.exists()) {
+            System.out.println("No baseline at " + baselineFile + ", copy " + resultFile + " there to create one");
+            return;
+        }
+
+        Map<String, Score> results = read(resultFile);
+        Map<String, Score> baseline = read(baselineFile);
+
+        int regressions = 0;
+        for (Map.Entry<String, Score> entry : new TreeMap<>(results).entrySet()) {
+            Score current = entry.getValue();
+            Score expected = baseline.get(entry.getKey());
+            if (expected == null) {
+                System.out.printf("NEW        %-70s %12.3f +- %-10.3f %s%n",
+                        entry.getKey(), current.value(), current.error(), current.unit());
+                continue;
+            }
+            double change = current.relativeChange(expected);
+            boolean regressed = current.worseBeyondErrors(expected) > tolerance;
+            if (regressed) {
+                regressions++;
+            }
+            System.out.printf("%-10s %-70s %12.3f +- %-10.3f -> %12.3f +- %-10.3f %s (%+.1f%%)%n",
+                    regressed ? "REGRESSED" : "OK",
+                    entry.getKey(), expected.value(), expected.error(), current.value(), current.error(),
+                    current.unit(), change * 100);
+        }
+
+        if (regressions > 0) {
+            System.err.printf("%d benchmark(s) regressed by more than %.0f%%%n", regressions, tolerance * 100);
+            System.exit(1);
+        }
+    }
+
+    private static Map<String, Score> read(File file) throws IOException {
+        Map<String, Score> scores = new LinkedHashMap<>();
+        for (JsonNode run : new ObjectMapper().readTree(file)) {
+            StringBuilder key = new StringBuilder(run.path("benchmark").asText());
+            run.path("params").fields().forEachRemaining(param ->
+                    key.append(':').append(param.getKey()).append('=').append(param.getValue().asText()));
+            JsonNode metric = run.path("primaryMetric");
+            scores.put(key.toString(), new Score(
+                    run.path("mode").asText(),
+                    metric.path("score").asDouble(),
+                    error(metric.path("scoreError")),
+                    metric.path("scoreUnit").asText()));
+        }
+        return scores;
+    }
+
+    /**
+     * JMH writes {@code "NaN"} as the error of runs too short to estimate one.
+     */
+    private static double error(JsonNode node) {
+        double error = node.asDouble(0);
+        return Double.isNaN(error) ? 0 : Math.abs(error);
+    }
+
+    private record Score(String mode, double value, double error, String unit) {
+
+        /**
+         * Positive when {@code this} is worse than {@code baseline}: more time per
+         * operation for time modes, fewer operations for throughput.
+         */
+        double relativeChange(Score baseline) {
+            if (baseline.value() == 0) {
+                return 0;
+            }
+            double change = (value - baseline.value()) / baseline.value();
+            return "thrpt".equals(mode) ? -change : change;
+        }
+
+        /**
+         * Like {@link #relativeChange}, but between the nearest ends of the two error
+         * intervals, so it is zero or less when they overlap.
+         */
+        double worseBeyondErrors(Score baseline) {
+            if (baseline.value() == 0) {
+                return 0;
+            }
+            double gap = "thrpt".equals(mode)
+                    ? (baseline.value() - baseline.error()) - (value + error)
+                    : (value - error) - (baseline.value() + baseline.error());
+            return gap / baseline.value();
+        }
+    }
+}
@@ -0,0 +1,99 @@
+package com.internship.userservice.benchmark;
+
+import com.internship.userservice.dto.card.CardInfoResponse;
+import com.internship.userservice.dto.user.UserResponse;
+import com.internship.userservice.entity.CardInfo;
+import com.internship.userservice.entity.User;
+import com.internship.userservice.mapper.CardInfoMapper;
+import com.internship.userservice.mapper.CardInfoMapperImpl;
+import com.internship.userservice.mapper.UserMapper;
+import com.internship.userservice.mapper.UserMapperImpl;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Fixtures shared by the benchmarks. Data is deterministic so runs are comparable.
+ */
+final class BenchmarkData {
+
+    private BenchmarkData() {
+    }
+
+    static User user(long id, int cardCount) {
+        User user = User.builder()
+                .id(id)
+                .userCredentialsId(1000 + id)
+                .name("Name" + id)
+                .surname("Surname" + id)
+                .birthDate(LocalDate.of(1990, 1, 1).plusDays(id))
+                .email("user" + id + "@example.com")
+                .version(1L)
+                .build();
+        List<CardInfo> cards = new ArrayList<>(cardCount);
+        for (int i = 0; i < cardCount; i++) {
+            cards.add(card(id * 1000 + i, user));
+        }
+        user.setCards(cards);
+        return user;
+    }
+
+    static List<User> users(int count, int cardsPerUser) {
+        List<User> users = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            users.add(user(i + 1, cardsPerUser));
+        }
+        return users;
+    }
+
+    static CardInfo card(long id, User owner) {
+        return CardInfo.builder()
+                .id(id)
+                .number(String.format("4000%012d", id))
+                .holder("HOLDER " + id)
+                .expirationDate("12/30")
+                .version(1L)
+                .user(owner)
+                .build();
+    }
+
+    static UserResponse userResponse(long id, int cardCount) {
+        List<CardInfoResponse> cards = new ArrayList<>(cardCount);
+        for (int i = 0; i < cardCount; i++) {
+            long cardId = id * 1000 + i;
+            cards.add(new CardInfoResponse(cardId, id, String.format("4000%012d", cardId), "HOLDER " + cardId, "12/30", 1L));
+        }
+        return UserResponse.builder()
+                .id(id)
+                .name("Name" + id)
+                .surname("Surname" + id)
+                .birthDate(LocalDate.of(1990, 1, 1).plusDays(id))
+                .email("user" + id + "@example.com")
+                .cards(cards)
+                .version(1L)
+                .build();
+    }
+
+    static List<UserResponse> userResponses(int count, int cardsPerUser) {
+        List<UserResponse> users = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            users.add(userResponse(i + 1, cardsPerUser));
+        }
+        return users;
+    }
+
+    /**
+     * Generated mappers wired the way the application wires them.
+     */
+    static Mappers mappers() {
+        try (AnnotationConfigApplicationContext context =
+                     new AnnotationConfigApplicationContext(UserMapperImpl.class, CardInfoMapperImpl.class)) {
+            return new Mappers(context.getBean(UserMapper.class), context.getBean(CardInfoMapper.class));
+        }
+    }
+
+    record Mappers(UserMapper userMapper, CardInfoMapper cardInfoMapper) {
+    }
+}
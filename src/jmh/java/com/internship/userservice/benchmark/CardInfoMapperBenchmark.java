@@ -0,0 +1,54 @@
+package com.internship.userservice.benchmark;
+
+import com.internship.userservice.dto.card.CardInfoRequest;
+import com.internship.userservice.dto.card.CardInfoResponse;
+import com.internship.userservice.entity.CardInfo;
+import com.internship.userservice.mapper.CardInfoMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Single-card mapping in both directions, the per-request cost of the card endpoints.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CardInfoMapperBenchmark {
+
+    private CardInfoMapper cardInfoMapper;
+    private CardInfo card;
+    private CardInfoRequest request;
+
+    @Setup
+    public void setUp() {
+        cardInfoMapper = BenchmarkData.mappers().cardInfoMapper();
+        card = BenchmarkData.card(1, BenchmarkData.user(1, 0));
+        request = new CardInfoRequest();
+        request.setNumber("4000000000000001");
+        request.setHolder("HOLDER 1");
+        request.setExpirationDate("12/30");
+    }
+
+    @Benchmark
+    public CardInfoResponse toDto() {
+        return cardInfoMapper.toDto(card);
+    }
+
+    @Benchmark
+    public CardInfo toEntity() {
+        return cardInfoMapper.toEntity(request);
+    }
+}
@@ -0,0 +1,71 @@
+package com.internship.userservice.benchmark;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.internship.userservice.exception.ApiError;
+import com.internship.userservice.exception.GlobalExceptionHandler;
+import com.internship.userservice.exception.NotFoundException;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.mock.web.MockHttpServletRequest;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Error path of a missing resource: exception construction, {@link ApiError} building
+ * and its serialization. {@code createStackfulException} is the cost of an ordinary
+ * exception with an eagerly built message, for comparison.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ExceptionHandlerBenchmark {
+
+    private GlobalExceptionHandler handler;
+    private MockHttpServletRequest request;
+    private NotFoundException exception;
+    private ObjectMapper objectMapper;
+
+    @Setup
+    public void setUp() {
+        handler = new GlobalExceptionHandler();
+        request = new MockHttpServletRequest("GET", "/api/users/42");
+        exception = new NotFoundException("User id={} not found", 42L);
+        objectMapper = Jackson2ObjectMapperBuilder.json().build();
+    }
+
+    @Benchmark
+    public NotFoundException createException() {
+        return new NotFoundException("User id={} not found", 42L);
+    }
+
+    @Benchmark
+    public RuntimeException createStackfulException() {
+        return new RuntimeException("User id=" + 42L + " not found");
+    }
+
+    @Benchmark
+    public ResponseEntity<ApiError> buildError() {
+        return handler.handleNotFound(exception, request);
+    }
+
+    @Benchmark
+    public byte[] notFoundPath() throws JsonProcessingException {
+        ResponseEntity<ApiError> response = handler.handleNotFound(
+                new NotFoundException("User id={} not found", 42L), request);
+        return objectMapper.writeValueAsBytes(response.getBody());
+    }
+}
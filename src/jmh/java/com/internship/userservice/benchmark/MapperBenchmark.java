@@ -0,0 +1,70 @@
+package com.internship.userservice.benchmark;
+
+import com.internship.userservice.dto.card.CardInfoResponse;
+import com.internship.userservice.dto.user.UserResponse;
+import com.internship.userservice.entity.CardInfo;
+import com.internship.userservice.entity.User;
+import com.internship.userservice.mapper.CardInfoMapper;
+import com.internship.userservice.mapper.UserMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * MapStruct mappers: entity to DTO for a single user, a page of users and cards.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MapperBenchmark {
+
+    private static final int PAGE_SIZE = 100;
+
+    @Param({"0", "5", "50"})
+    public int cards;
+
+    private UserMapper userMapper;
+    private CardInfoMapper cardInfoMapper;
+    private User user;
+    private List<User> users;
+    private List<CardInfo> userCards;
+
+    @Setup
+    public void setUp() {
+        BenchmarkData.Mappers mappers = BenchmarkData.mappers();
+        userMapper = mappers.userMapper();
+        cardInfoMapper = mappers.cardInfoMapper();
+        user = BenchmarkData.user(1, cards);
+        users = BenchmarkData.users(PAGE_SIZE, cards);
+        userCards = user.getCards();
+    }
+
+    @Benchmark
+    public UserResponse userToDto() {
+        return userMapper.toDto(user);
+    }
+
+    @Benchmark
+    public List<UserResponse> userToDtoList() {
+        return userMapper.toDtoList(users);
+    }
+
+    @Benchmark
+    public List<CardInfoResponse> cardToDtoList() {
+        return cardInfoMapper.toDtoList(userCards);
+    }
+}
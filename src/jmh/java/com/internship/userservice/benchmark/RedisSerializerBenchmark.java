@@ -0,0 +1,54 @@
+package com.internship.userservice.benchmark;
+
+import com.internship.userservice.config.RedisConfig;
+import com.internship.userservice.dto.user.UserResponse;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.data.redis.serializer.RedisSerializer;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The cache value codec from {@link RedisConfig}, paid on every cache put and hit.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RedisSerializerBenchmark {
+
+    @Param({"0", "5", "50"})
+    public int cards;
+
+    private RedisSerializer<Object> serializer;
+    private UserResponse user;
+    private byte[] serialized;
+
+    @Setup
+    public void setUp() {
+        serializer = RedisConfig.cacheValueSerializer();
+        user = BenchmarkData.userResponse(1, cards);
+        serialized = serializer.serialize(user);
+    }
+
+    @Benchmark
+    public byte[] serialize() {
+        return serializer.serialize(user);
+    }
+
+    @Benchmark
+    public Object deserialize() {
+        return serializer.deserialize(serialized);
+    }
+}
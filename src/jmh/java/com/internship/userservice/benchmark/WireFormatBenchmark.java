@@ -0,0 +1,80 @@
+package com.internship.userservice.benchmark;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.type.CollectionType;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.internship.userservice.dto.user.UserResponse;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Writing and reading a 1000-user batch in each negotiable wire format. The payload size
+ * does not change between runs, so it is printed once per trial instead of measured.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class WireFormatBenchmark {
+
+    private static final int USERS = 1000;
+    private static final int CARDS_PER_USER = 3;
+
+    @Param({"json", "cbor", "smile"})
+    public String format;
+
+    private ObjectWriter writer;
+    private ObjectReader reader;
+    private List<UserResponse> body;
+    private byte[] payload;
+
+    @Setup
+    public void setUp() throws IOException {
+        JsonFactory factory = switch (format) {
+            case "cbor" -> new CBORFactory();
+            case "smile" -> new SmileFactory();
+            default -> new JsonFactory();
+        };
+        ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json()
+                .factory(factory)
+                .featuresToDisable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+                .build();
+        CollectionType type = objectMapper.getTypeFactory().constructCollectionType(List.class, UserResponse.class);
+        writer = objectMapper.writerFor(type);
+        reader = objectMapper.readerFor(type);
+        body = BenchmarkData.userResponses(USERS, CARDS_PER_USER);
+        payload = writer.writeValueAsBytes(body);
+        System.out.printf("%n%s: %d bytes for %d users%n", format, payload.length, USERS);
+    }
+
+    @Benchmark
+    public byte[] write() throws IOException {
+        return writer.writeValueAsBytes(body);
+    }
+
+    @Benchmark
+    public List<UserResponse> read() throws IOException {
+        return reader.readValue(payload);
+    }
+}
@@ -0,0 +1,128 @@
+package com.internship.userservice.loadtest;
+
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+import org.testcontainers.DockerClientFactory;
+import org.testcontainers.containers.GenericContainer;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.utility.DockerImageName;
+import redis.embedded.RedisServer;
+
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Postgres and Redis for the run: the same containers as {@code BaseIntegrationTest}
+ * when Docker is available, otherwise embedded binaries started in this process.
+ */
+final class Infrastructure implements AutoCloseable {
+
+    private static final String DATABASE = "user_db_test";
+    private static final String USERNAME = "postgres";
+    private static final String PASSWORD = "12345";
+
+    private final String jdbcUrl;
+    private final String redisHost;
+    private final int redisPort;
+    private final String description;
+    private final List<AutoCloseable> resources;
+
+    private Infrastructure(String jdbcUrl, String redisHost, int redisPort,
+                           String description, List<AutoCloseable> resources) {
+        this.jdbcUrl = jdbcUrl;
+        this.redisHost = redisHost;
+        this.redisPort = redisPort;
+        this.description = description;
+        this.resources = resources;
+    }
+
+    static Infrastructure start(String mode) throws Exception {
+        boolean containers = switch (mode) {
+            case "containers" -> true;
+            case "embedded" -> false;
+            case "auto" -> dockerAvailable();
+            default -> throw new IllegalArgumentException("Unknown infrastructure '" + mode + "'");
+        };
+        return containers ? startContainers() : startEmbedded();
+    }
+
+    private static boolean dockerAvailable() {
+        try {
+            return DockerClientFactory.instance().isDockerAvailable();
+        } catch (RuntimeException ex) {
+            return false;
+        }
+    }
+
+    private static Infrastructure startContainers() {
+        PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>("postgres:16")
+                .withDatabaseName(DATABASE)
+                .withUsername(USERNAME)
+                .withPassword(PASSWORD);
+        GenericContainer<?> redis = new GenericContainer<>(DockerImageName.parse("redis:7.2"))
+                .withExposedPorts(6379);
+        postgres.start();
+        redis.start();
+        return new Infrastructure(postgres.getJdbcUrl(), redis.getHost(), redis.getMappedPort(6379),
+                "Testcontainers (postgres:16, redis:7.2)", List.of(redis::stop, postgres::stop));
+    }
+
+    private static Infrastructure startEmbedded() throws Exception {
+        List<AutoCloseable> resources = new ArrayList<>();
+        EmbeddedPostgres postgres = EmbeddedPostgres.builder().start();
+        resources.add(postgres);
+        try (var connection = postgres.getPostgresDatabase().getConnection();
+             var statement = connection.createStatement()) {
+            statement.execute("CREATE DATABASE " + DATABASE);
+            statement.execute("ALTER USER " + USERNAME + " PASSWORD '" + PASSWORD + "'");
+        }
+        int redisPort = freePort();
+        RedisServer redis = new RedisServer(redisPort);
+        redis.start();
+        resources.add(0, redis::stop);
+        return new Infrastructure(postgres.getJdbcUrl(USERNAME, DATABASE), "localhost", redisPort,
+                "embedded (zonky postgres, embedded-redis)", resources);
+    }
+
+    private static int freePort() throws IOException {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        }
+    }
+
+    String jdbcUrl() {
+        return jdbcUrl;
+    }
+
+    String username() {
+        return USERNAME;
+    }
+
+    String password() {
+        return PASSWORD;
+    }
+
+    String redisHost() {
+        return redisHost;
+    }
+
+    int redisPort() {
+        return redisPort;
+    }
+
+    String description() {
+        return description;
+    }
+
+    @Override
+    public void close() {
+        for (AutoCloseable resource : resources) {
+            try {
+                resource.close();
+            } catch (Exception ignored) {
+                // best effort, the JVM is about to exit
+            }
+        }
+    }
+}
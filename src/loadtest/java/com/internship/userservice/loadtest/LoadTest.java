@@ -0,0 +1,190 @@
+package com.internship.userservice.loadtest;
+
+import com.internship.userservice.UserServiceApplication;
+import com.internship.userservice.cache.UserCacheInvalidator;
+import com.internship.userservice.cache.UserCardsCache;
+import com.internship.userservice.config.AppCacheProperties;
+import com.internship.userservice.dto.card.CardInfoResponse;
+import org.HdrHistogram.Histogram;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.support.NoOpCacheManager;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.PrintStream;
+import java.net.http.HttpClient;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
+import javax.sql.DataSource;
+
+/**
+ * End-to-end load test of the HTTP API.
+ * <p>
+ * Starts Postgres and Redis (see {@link Infrastructure}), boots the application on a
+ * random port, seeds data and drives a mixed workload with {@link OpenLoopGenerator}.
+ * Prints latency percentiles per endpoint and writes HdrHistogram percentile
+ * distributions ({@code .hgrm}) for plotting. With {@code --cache=db} the cache manager
+ * and the beans that call Redis directly are replaced by no-op ones, so the same workload
+ * measures the database path.
+ * <p>
+ * Run with {@code mvn -Ploadtest verify -Dloadtest.args="--rate=1000 --duration=120"}.
+ */
+public final class LoadTest {
+
+    private LoadTest() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        LoadTestSettings settings = LoadTestSettings.parse(args);
+        // devtools would relaunch main() in a restart class loader without the arguments
+        System.setProperty("spring.devtools.restart.enabled", "false");
+
+        try (Infrastructure infrastructure = Infrastructure.start(settings.infrastructure());
+             ConfigurableApplicationContext context = startApplication(infrastructure, settings)) {
+
+            System.out.printf("Infrastructure: %s%n", infrastructure.description());
+            long seedStart = System.nanoTime();
+            SeededData data = SeededData.seed(context.getBean(DataSource.class),
+                    settings.users(), settings.cardsPerUser());
+            System.out.printf("Seeded %d users and %d cards in %d ms%n", data.userCount(), data.cardCount(),
+                    Duration.ofNanos(System.nanoTime() - seedStart).toMillis());
+
+            int port = ((WebServerApplicationContext) context).getWebServer().getPort();
+            HttpClient client = HttpClient.newBuilder()
+                    .version(HttpClient.Version.HTTP_1_1)
+                    .build();
+            OpenLoopGenerator generator = new OpenLoopGenerator(client, "http://localhost:" + port, data,
+                    settings.mix(), settings.connections());
+
+            System.out.printf("Running %d req/s over %d connections, cache=%s, warmup %ds, measured %ds%n",
+                    settings.rate(), settings.connections(), settings.cacheMode(),
+                    settings.warmup().toSeconds(), settings.duration().toSeconds());
+            long unfinished = generator.run(settings.rate(), settings.warmup(), settings.duration());
+            if (unfinished > 0) {
+                System.out.printf("%d requests did not complete within the timeout%n", unfinished);
+            }
+
+            report(generator, settings);
+        }
+        // the application context is closed, leftover non-daemon threads must not keep the JVM alive
+        System.exit(0);
+    }
+
+    private static ConfigurableApplicationContext startApplication(Infrastructure infrastructure,
+                                                                   LoadTestSettings settings) {
+        Map<String, Object> properties = new HashMap<>();
+        properties.put("server.port", 0);
+        properties.put("spring.datasource.url", infrastructure.jdbcUrl());
+        properties.put("spring.datasource.username", infrastructure.username());
+        properties.put("spring.datasource.password", infrastructure.password());
+        properties.put("spring.data.redis.host", infrastructure.redisHost());
+        properties.put("spring.data.redis.port", infrastructure.redisPort());
+        properties.put("spring.jpa.show-sql", false);
+        properties.put("spring.jpa.properties.hibernate.format_sql", false);
+        properties.put("logging.level.root", "WARN");
+        properties.put("app.cache.invalidation.enabled", false);
+
+        SpringApplicationBuilder builder = new SpringApplicationBuilder(UserServiceApplication.class);
+        if ("db".equals(settings.cacheMode())) {
+            properties.put("app.cache.precompressed.enabled", false);
+            builder.initializers(context -> context.getBeanFactory().addBeanPostProcessor(new BypassRedis()));
+        } else if (!"redis".equals(settings.cacheMode())) {
+            throw new IllegalArgumentException("Unknown cache mode '" + settings.cacheMode() + "'");
+        }
+        // passed as arguments so they override application.yml
+        String[] arguments = properties.entrySet().stream()
+                .map(entry -> "--" + entry.getKey() + "=" + entry.getValue())
+                .toArray(String[]::new);
+        return builder.run(arguments);
+    }
+
+    /**
+     * Swaps the cache manager for a no-op one, and the invalidator and the card list cache,
+     * which write to Redis around the cache abstraction, for ones that do nothing.
+     */
+    private static final class BypassRedis implements BeanPostProcessor {
+
+        @Override
+        public Object postProcessAfterInitialization(Object bean, String beanName) {
+            if (bean instanceof CacheManager) {
+                return new NoOpCacheManager();
+            }
+            if (bean instanceof UserCacheInvalidator) {
+                return new UserCacheInvalidator(null, null, null, new AppCacheProperties()) {
+                    @Override
+                    public void evictSecondaryKeys(Long userId, Collection<String> emails, Collection<Long> cardIds) {
+                    }
+
+                    @Override
+                    public void evictAll(Collection<Long> userIds, Collection<String> emails, Collection<Long> cardIds) {
+                    }
+                };
+            }
+            if (bean instanceof UserCardsCache) {
+                return new UserCardsCache(null, null, new AppCacheProperties()) {
+                    @Override
+                    public List<CardInfoResponse> get(Long userId) {
+                        return null;
+                    }
+
+                    @Override
+                    public void fill(Long userId, long userVersion, List<CardInfoResponse> cards) {
+                    }
+
+                    @Override
+                    public void putCard(CardInfoResponse card, Supplier<Long> userVersion) {
+                    }
+
+                    @Override
+                    public void removeCard(Long userId, Long cardId, long deletedVersion, Supplier<Long> userVersion) {
+                    }
+                };
+            }
+            return bean;
+        }
+    }
+
+    private static void report(OpenLoopGenerator generator, LoadTestSettings settings) throws Exception {
+        Files.createDirectories(settings.reportDir());
+        double seconds = settings.duration().toMillis() / 1000.0;
+
+        System.out.println();
+        System.out.println("Response time, ms (from intended start, corrected for coordinated omission)");
+        System.out.printf("%-16s %9s %9s %8s %8s %8s %8s %8s %8s %8s%n",
+                "operation", "count", "req/s", "errors", "p50", "p90", "p99", "p99.9", "max", "svc p99");
+        for (Map.Entry<Operation, Histogram> entry : generator.responseTimes().entrySet()) {
+            Operation operation = entry.getKey();
+            Histogram histogram = entry.getValue();
+            Histogram service = generator.serviceTimes().get(operation);
+            System.out.printf("%-16s %9d %9.1f %8d %8.2f %8.2f %8.2f %8.2f %8.2f %8.2f%n",
+                    operation.displayName(),
+                    histogram.getTotalCount(),
+                    histogram.getTotalCount() / seconds,
+                    generator.errors(operation),
+                    millis(histogram.getValueAtPercentile(50)),
+                    millis(histogram.getValueAtPercentile(90)),
+                    millis(histogram.getValueAtPercentile(99)),
+                    millis(histogram.getValueAtPercentile(99.9)),
+                    millis(histogram.getMaxValue()),
+                    millis(service.getValueAtPercentile(99)));
+
+            Path file = settings.reportDir().resolve(settings.cacheMode() + "-" + operation.displayName() + ".hgrm");
+            try (PrintStream out = new PrintStream(Files.newOutputStream(file))) {
+                histogram.outputPercentileDistribution(out, 1_000_000.0);
+            }
+        }
+        System.out.printf("%nPercentile distributions written to %s%n", settings.reportDir().toAbsolutePath());
+    }
+
+    private static double millis(long nanos) {
+        return nanos / 1_000_000.0;
+    }
+}
@@ -0,0 +1,72 @@
+package com.internship.userservice.loadtest;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Load test parameters, read from {@code --name=value} arguments.
+ *
+ * @param users          users to seed
+ * @param cardsPerUser   cards seeded for every user
+ * @param rate           requests per second sent by the open-loop generator
+ * @param connections    requests in flight at most, like the connection count of wrk2
+ * @param warmup         time at full rate before recording starts
+ * @param duration       recorded time
+ * @param cacheMode      {@code redis} to use the application cache, {@code db} to bypass it
+ * @param mix            operation weights, see {@link Operation}
+ * @param reportDir      where per-operation percentile distributions are written
+ * @param infrastructure {@code auto}, {@code containers} or {@code embedded}
+ */
+record LoadTestSettings(int users,
+                        int cardsPerUser,
+                        int rate,
+                        int connections,
+                        Duration warmup,
+                        Duration duration,
+                        String cacheMode,
+                        Map<Operation, Integer> mix,
+                        Path reportDir,
+                        String infrastructure) {
+
+    private static final String DEFAULT_MIX =
+            "getUser=45,getUserByEmail=10,getCard=15,getCardsByUser=10,getUsersByIds=5,updateUser=10,createCard=5";
+
+    static LoadTestSettings parse(String[] args) {
+        Map<String, String> values = new LinkedHashMap<>();
+        for (String arg : args) {
+            if (!arg.startsWith("--") || !arg.contains("=")) {
+                throw new IllegalArgumentException("Expected --name=value, got '" + arg + "'");
+            }
+            int separator = arg.indexOf('=');
+            values.put(arg.substring(2, separator), arg.substring(separator + 1));
+        }
+        return new LoadTestSettings(
+                Integer.parseInt(values.getOrDefault("users", "10000")),
+                Integer.parseInt(values.getOrDefault("cards-per-user", "3")),
+                Integer.parseInt(values.getOrDefault("rate", "500")),
+                Integer.parseInt(values.getOrDefault("connections", "64")),
+                Duration.ofSeconds(Long.parseLong(values.getOrDefault("warmup", "15"))),
+                Duration.ofSeconds(Long.parseLong(values.getOrDefault("duration", "60"))),
+                values.getOrDefault("cache", "redis"),
+                parseMix(values.getOrDefault("mix", DEFAULT_MIX)),
+                Path.of(values.getOrDefault("report-dir", "target/loadtest")),
+                values.getOrDefault("infrastructure", "auto"));
+    }
+
+    private static Map<Operation, Integer> parseMix(String mix) {
+        Map<Operation, Integer> weights = new LinkedHashMap<>();
+        for (String entry : mix.split(",")) {
+            String[] parts = entry.trim().split("=");
+            int weight = Integer.parseInt(parts[1]);
+            if (weight > 0) {
+                weights.put(Operation.byName(parts[0]), weight);
+            }
+        }
+        if (weights.isEmpty()) {
+            throw new IllegalArgumentException("Workload mix is empty");
+        }
+        return weights;
+    }
+}
@@ -0,0 +1,147 @@
+package com.internship.userservice.loadtest;
+
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+
+import java.io.IOException;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+import java.util.stream.Stream;
+
+/**
+ * Sends requests at a fixed rate regardless of how fast responses come back.
+ * <p>
+ * Every request has an intended start time on a fixed schedule. If the server falls
+ * behind, requests queue for one of the {@code connections} slots, but their latency is
+ * still measured from the intended start, so a stalled server shows up as high latency
+ * for all requests it delayed instead of as a lower request rate (coordinated omission).
+ * The time from the actual send is recorded separately as service time.
+ */
+final class OpenLoopGenerator {
+
+    private static final long HIGHEST_TRACKABLE_NANOS = TimeUnit.MINUTES.toNanos(2);
+    private static final Duration REQUEST_TIMEOUT = Duration.ofSeconds(30);
+
+    private final HttpClient client;
+    private final String baseUrl;
+    private final SeededData data;
+    private final Operation[] schedule;
+    private final Semaphore connections;
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+
+    private final Map<Operation, Histogram> responseTimes = new EnumMap<>(Operation.class);
+    private final Map<Operation, Histogram> serviceTimes = new EnumMap<>(Operation.class);
+    private final Map<Operation, AtomicLong> errors = new EnumMap<>(Operation.class);
+    private final AtomicLong outstanding = new AtomicLong();
+
+    private volatile boolean recording;
+    private volatile boolean closed;
+
+    OpenLoopGenerator(HttpClient client, String baseUrl, SeededData data,
+                      Map<Operation, Integer> mix, int connections) {
+        this.client = client;
+        this.baseUrl = baseUrl;
+        this.data = data;
+        this.connections = new Semaphore(connections);
+        this.schedule = mix.entrySet().stream()
+                .flatMap(entry -> Stream.generate(entry::getKey).limit(entry.getValue()))
+                .toArray(Operation[]::new);
+        for (Operation operation : mix.keySet()) {
+            responseTimes.put(operation, new ConcurrentHistogram(HIGHEST_TRACKABLE_NANOS, 3));
+            serviceTimes.put(operation, new ConcurrentHistogram(HIGHEST_TRACKABLE_NANOS, 3));
+            errors.put(operation, new AtomicLong());
+        }
+    }
+
+    /**
+     * Runs the warmup and the measured phase back to back at {@code rate} requests per second,
+     * then waits up to the request timeout for outstanding responses.
+     *
+     * @return requests still outstanding when recording stopped
+     */
+    long run(int rate, Duration warmup, Duration duration) throws InterruptedException {
+        long intervalNanos = TimeUnit.SECONDS.toNanos(1) / rate;
+        long start = System.nanoTime();
+        long recordFrom = start + warmup.toNanos();
+        long end = recordFrom + duration.toNanos();
+
+        for (long i = 0; ; i++) {
+            long intendedStart = start + i * intervalNanos;
+            if (intendedStart >= end) {
+                break;
+            }
+            long wait;
+            while ((wait = intendedStart - System.nanoTime()) > 0) {
+                LockSupport.parkNanos(wait);
+            }
+            recording = intendedStart >= recordFrom;
+            send(schedule[ThreadLocalRandom.current().nextInt(schedule.length)], intendedStart);
+        }
+
+        long deadline = System.nanoTime() + REQUEST_TIMEOUT.toNanos();
+        while (outstanding.get() > 0 && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        closed = true;
+        executor.shutdownNow();
+        return outstanding.get();
+    }
+
+    private void send(Operation operation, long intendedStart) {
+        boolean record = recording;
+        HttpRequest request = operation.request(baseUrl, data, ThreadLocalRandom.current())
+                .timeout(REQUEST_TIMEOUT)
+                .build();
+        outstanding.incrementAndGet();
+        executor.execute(() -> {
+            boolean failed;
+            long sentAt;
+            try {
+                connections.acquire();
+            } catch (InterruptedException ex) {
+                return;
+            }
+            try {
+                sentAt = System.nanoTime();
+                failed = client.send(request, HttpResponse.BodyHandlers.discarding()).statusCode() >= 400;
+            } catch (IOException | InterruptedException ex) {
+                sentAt = intendedStart;
+                failed = true;
+            } finally {
+                connections.release();
+            }
+            long now = System.nanoTime();
+            if (record && !closed) {
+                responseTimes.get(operation).recordValue(Math.min(now - intendedStart, HIGHEST_TRACKABLE_NANOS));
+                serviceTimes.get(operation).recordValue(Math.min(now - sentAt, HIGHEST_TRACKABLE_NANOS));
+                if (failed) {
+                    errors.get(operation).incrementAndGet();
+                }
+            }
+            outstanding.decrementAndGet();
+        });
+    }
+
+    Map<Operation, Histogram> responseTimes() {
+        return responseTimes;
+    }
+
+    Map<Operation, Histogram> serviceTimes() {
+        return serviceTimes;
+    }
+
+    long errors(Operation operation) {
+        return errors.get(operation).get();
+    }
+}
@@ -0,0 +1,97 @@
+package com.internship.userservice.loadtest;
+
+import java.net.URI;
+import java.net.http.HttpRequest;
+import java.util.Arrays;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+
+/**
+ * Requests issued by the load test, one per endpoint.
+ */
+enum Operation {
+
+    GET_USER("getUser") {
+        @Override
+        HttpRequest.Builder request(String baseUrl, SeededData data, ThreadLocalRandom random) {
+            return HttpRequest.newBuilder(URI.create(baseUrl + "/api/users/" + data.randomUser(random).id())).GET();
+        }
+    },
+    GET_USER_BY_EMAIL("getUserByEmail") {
+        @Override
+        HttpRequest.Builder request(String baseUrl, SeededData data, ThreadLocalRandom random) {
+            return HttpRequest.newBuilder(URI.create(baseUrl + "/api/users/by-email?email="
+                    + data.randomUser(random).email())).GET();
+        }
+    },
+    GET_USERS_BY_IDS("getUsersByIds") {
+        @Override
+        HttpRequest.Builder request(String baseUrl, SeededData data, ThreadLocalRandom random) {
+            String ids = random.longs(20, 0, data.userCount())
+                    .mapToObj(i -> String.valueOf(data.user((int) i).id()))
+                    .collect(Collectors.joining(","));
+            return HttpRequest.newBuilder(URI.create(baseUrl + "/api/users?ids=" + ids)).GET();
+        }
+    },
+    GET_CARD("getCard") {
+        @Override
+        HttpRequest.Builder request(String baseUrl, SeededData data, ThreadLocalRandom random) {
+            return HttpRequest.newBuilder(URI.create(baseUrl + "/api/cards/" + data.randomCardId(random))).GET();
+        }
+    },
+    GET_CARDS_BY_USER("getCardsByUser") {
+        @Override
+        HttpRequest.Builder request(String baseUrl, SeededData data, ThreadLocalRandom random) {
+            return HttpRequest.newBuilder(URI.create(baseUrl + "/api/cards/by-user/" + data.randomUser(random).id())).GET();
+        }
+    },
+    UPDATE_USER("updateUser") {
+        @Override
+        HttpRequest.Builder request(String baseUrl, SeededData data, ThreadLocalRandom random) {
+            SeededData.SeededUser user = data.randomUser(random);
+            String body = """
+                    {"name":"Load%d","surname":"Test","birthDate":"1990-01-01","email":"%s"}"""
+                    .formatted(random.nextInt(1000), user.email());
+            return HttpRequest.newBuilder(URI.create(baseUrl + "/api/users/" + user.id()))
+                    .header("Content-Type", "application/json")
+                    .header("X-User-Id", String.valueOf(user.credentialsId()))
+                    .PUT(HttpRequest.BodyPublishers.ofString(body));
+        }
+    },
+    CREATE_CARD("createCard") {
+        @Override
+        HttpRequest.Builder request(String baseUrl, SeededData data, ThreadLocalRandom random) {
+            SeededData.SeededUser user = data.randomUser(random);
+            String body = """
+                    {"number":"%016d","holder":"LOAD TEST","expirationDate":"12/30"}"""
+                    .formatted(NEW_CARD_NUMBERS.incrementAndGet());
+            return HttpRequest.newBuilder(URI.create(baseUrl + "/api/cards"))
+                    .header("Content-Type", "application/json")
+                    .header("X-User-Id", String.valueOf(user.credentialsId()))
+                    .POST(HttpRequest.BodyPublishers.ofString(body));
+        }
+    };
+
+    /** Seeded cards start with 4, cards created during the run with 5. */
+    private static final AtomicLong NEW_CARD_NUMBERS = new AtomicLong(5_000_000_000_000_000L);
+
+    private final String name;
+
+    Operation(String name) {
+        this.name = name;
+    }
+
+    String displayName() {
+        return name;
+    }
+
+    abstract HttpRequest.Builder request(String baseUrl, SeededData data, ThreadLocalRandom random);
+
+    static Operation byName(String name) {
+        return Arrays.stream(values())
+                .filter(op -> op.name.equals(name))
+                .findFirst()
+                .orElseThrow(() -> new IllegalArgumentException("Unknown operation '" + name + "'"));
+    }
+}
@@ -0,0 +1,132 @@
+package com.internship.userservice.loadtest;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import javax.sql.DataSource;
+
+/**
+ * Users and cards inserted before the run, and the ids the workload picks from.
+ */
+final class SeededData {
+
+    private static final int BATCH_SIZE = 1000;
+
+    private final List<SeededUser> users;
+    private final long[] cardIds;
+
+    private SeededData(List<SeededUser> users, long[] cardIds) {
+        this.users = users;
+        this.cardIds = cardIds;
+    }
+
+    /**
+     * Inserts the data with plain JDBC batches. Triggers are disabled for the session,
+     * so seeding doesn't fill the cache outbox.
+     */
+    static SeededData seed(DataSource dataSource, int userCount, int cardsPerUser) throws SQLException {
+        try (Connection connection = dataSource.getConnection()) {
+            connection.setAutoCommit(false);
+            try (Statement statement = connection.createStatement()) {
+                statement.execute("SET session_replication_role = replica");
+            }
+
+            try (PreparedStatement insertUser = connection.prepareStatement(
+                    "INSERT INTO users (name, surname, birth_date, email, user_credentials_id) VALUES (?, ?, ?, ?, ?)")) {
+                for (int i = 1; i <= userCount; i++) {
+                    insertUser.setString(1, "User" + i);
+                    insertUser.setString(2, "Load");
+                    insertUser.setObject(3, LocalDate.of(1990, 1, 1).plusDays(i % 10_000));
+                    insertUser.setString(4, "load-user-" + i + "@example.com");
+                    insertUser.setLong(5, 1_000_000L + i);
+                    insertUser.addBatch();
+                    if (i % BATCH_SIZE == 0) {
+                        insertUser.executeBatch();
+                    }
+                }
+                insertUser.executeBatch();
+            }
+
+            List<Long> userIds = new ArrayList<>(userCount);
+            try (Statement statement = connection.createStatement();
+                 ResultSet rs = statement.executeQuery("SELECT id FROM users ORDER BY id")) {
+                while (rs.next()) {
+                    userIds.add(rs.getLong(1));
+                }
+            }
+
+            try (PreparedStatement insertCard = connection.prepareStatement(
+                    "INSERT INTO card_info (user_id, number, holder, expiration_date) VALUES (?, ?, 'LOAD TEST', '12/30')")) {
+                long number = 4_000_000_000_000_000L;
+                int pending = 0;
+                for (Long userId : userIds) {
+                    for (int c = 0; c < cardsPerUser; c++) {
+                        insertCard.setLong(1, userId);
+                        insertCard.setString(2, String.valueOf(++number));
+                        insertCard.addBatch();
+                        if (++pending % BATCH_SIZE == 0) {
+                            insertCard.executeBatch();
+                        }
+                    }
+                }
+                insertCard.executeBatch();
+            }
+            connection.commit();
+
+            try (Statement statement = connection.createStatement()) {
+                statement.execute("SET session_replication_role = DEFAULT");
+                statement.execute("ANALYZE users");
+                statement.execute("ANALYZE card_info");
+            }
+            connection.commit();
+            return load(connection);
+        }
+    }
+
+    private static SeededData load(Connection connection) throws SQLException {
+        List<SeededUser> users = new ArrayList<>();
+        try (Statement statement = connection.createStatement();
+             ResultSet rs = statement.executeQuery("SELECT id, email, user_credentials_id FROM users ORDER BY id")) {
+            while (rs.next()) {
+                users.add(new SeededUser(rs.getLong(1), rs.getString(2), rs.getLong(3)));
+            }
+        }
+        List<Long> cards = new ArrayList<>();
+        try (Statement statement = connection.createStatement();
+             ResultSet rs = statement.executeQuery("SELECT id FROM card_info ORDER BY id")) {
+            while (rs.next()) {
+                cards.add(rs.getLong(1));
+            }
+        }
+        return new SeededData(users, cards.stream().mapToLong(Long::longValue).toArray());
+    }
+
+    int userCount() {
+        return users.size();
+    }
+
+    int cardCount() {
+        return cardIds.length;
+    }
+
+    SeededUser user(int index) {
+        return users.get(index);
+    }
+
+    SeededUser randomUser(ThreadLocalRandom random) {
+        return users.get(random.nextInt(users.size()));
+    }
+
+    long randomCardId(ThreadLocalRandom random) {
+        return cardIds[random.nextInt(cardIds.length)];
+    }
+
+    record SeededUser(long id, String email, long credentialsId) {
+    }
+}
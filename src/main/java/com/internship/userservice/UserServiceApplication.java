@@ -1,11 +1,14 @@
 package com.internship.userservice;
 
+import com.internship.userservice.config.UserServiceRuntimeHints;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.context.annotation.ImportRuntimeHints;
 
 @SpringBootApplication
 @EnableCaching
+@ImportRuntimeHints(UserServiceRuntimeHints.class)
 public class UserServiceApplication {
 
     public static void main(String[] args) {
@@ -0,0 +1,72 @@
+package com.internship.userservice.cache;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.redis.serializer.SerializationException;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Reads many entries of a cache by id in one round trip, for batch lookups that go around
+ * the cache abstraction. Only caches stored by {@link VersionedRedisCache} can be read
+ * this way, the others find nothing, and the near cache is not consulted.
+ * <p>
+ * Calls go through the {@link RedisCircuitBreaker}. A failed or rejected read, or one
+ * with an unreadable entry, finds nothing, so the caller loads every id from the database.
+ */
+@Slf4j
+@Component
+public class CacheBatchReader {
+
+    private final CacheManager cacheManager;
+    private final RedisCircuitBreaker circuitBreaker;
+
+    public CacheBatchReader(CacheManager cacheManager, RedisCircuitBreaker circuitBreaker) {
+        this.cacheManager = cacheManager;
+        this.circuitBreaker = circuitBreaker;
+    }
+
+    /**
+     * The cached values of the ids, by id.
+     */
+    public <T> Map<Long, T> getAll(String cacheName, long[] ids, Class<T> type) {
+        Cache cache = cacheManager.getCache(cacheName);
+        if (ids.length == 0 || cache == null || !(DelegatingCache.unwrap(cache) instanceof VersionedRedisCache redisCache)) {
+            return Map.of();
+        }
+        if (!circuitBreaker.tryAcquire()) {
+            return Map.of();
+        }
+        List<Long> keys = new ArrayList<>(ids.length);
+        for (long id : ids) {
+            keys.add(id);
+        }
+        Map<Object, Object> found;
+        try {
+            found = redisCache.getAll(keys);
+            circuitBreaker.onSuccess();
+        } catch (DataAccessException e) {
+            circuitBreaker.onFailure();
+            log.debug("Batch read of cache '{}' failed: {}", cacheName, e.toString());
+            return Map.of();
+        } catch (SerializationException e) {
+            circuitBreaker.onSuccess();
+            log.warn("Batch read of cache '{}' found an unreadable entry: {}", cacheName, e.toString());
+            return Map.of();
+        }
+
+        Map<Long, T> values = new HashMap<>(found.size() * 2);
+        found.forEach((key, value) -> {
+            if (type.isInstance(value)) {
+                values.put((Long) key, type.cast(value));
+            }
+        });
+        return values;
+    }
+}
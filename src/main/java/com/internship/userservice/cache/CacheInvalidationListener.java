@@ -0,0 +1,179 @@
+package com.internship.userservice.cache;
+
+import com.internship.userservice.config.AppCacheProperties;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.postgresql.PGConnection;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Component;
+
+import java.sql.Array;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Evicts cache entries for rows changed outside the service (admin SQL, migrations, bulk tools).
+ * <p>
+ * Triggers on {@code users} and {@code card_info} append to {@code cache_outbox} and send
+ * {@code NOTIFY cache_invalidation}. This listener keeps its own connection, wakes up on
+ * a notification or every {@code poll-interval}, and drains pending outbox rows in batches.
+ * Rows are claimed with {@code SKIP LOCKED}, so several replicas share the work, and the
+ * outbox is drained again after every reconnect, so nothing is lost while disconnected.
+ * Card writes of the service skip the outbox, because they patch the cache themselves.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(prefix = "app.cache.invalidation", name = "enabled", havingValue = "true", matchIfMissing = true)
+public class CacheInvalidationListener implements SmartLifecycle {
+
+    private static final String CHANNEL = "cache_invalidation";
+
+    private static final String SELECT_PENDING = """
+            SELECT id, table_name, user_id, card_id, email
+            FROM cache_outbox
+            WHERE processed_at IS NULL
+            ORDER BY id
+            LIMIT ?
+            FOR UPDATE SKIP LOCKED
+            """;
+
+    private static final String MARK_PROCESSED =
+            "UPDATE cache_outbox SET processed_at = now() WHERE id = ANY(?)";
+
+    private static final String DELETE_PROCESSED =
+            "DELETE FROM cache_outbox WHERE processed_at < now() - make_interval(secs => ?)";
+
+    private final DataSourceProperties dataSourceProperties;
+    private final UserCacheInvalidator cacheInvalidator;
+    private final AppCacheProperties cacheProperties;
+
+    private volatile boolean running;
+    private Thread worker;
+    private long lastCleanup;
+
+    @Override
+    public void start() {
+        running = true;
+        worker = new Thread(this::run, "cache-invalidation-listener");
+        worker.setDaemon(true);
+        worker.start();
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+        if (worker != null) {
+            worker.interrupt();
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    private void run() {
+        AppCacheProperties.Invalidation config = cacheProperties.getInvalidation();
+        while (running) {
+            try (Connection connection = DriverManager.getConnection(
+                    dataSourceProperties.determineUrl(),
+                    dataSourceProperties.determineUsername(),
+                    dataSourceProperties.determinePassword())) {
+
+                try (Statement statement = connection.createStatement()) {
+                    statement.execute("LISTEN " + CHANNEL);
+                }
+                connection.setAutoCommit(false);
+                PGConnection pgConnection = connection.unwrap(PGConnection.class);
+                log.info("Listening for cache invalidations on channel '{}'", CHANNEL);
+
+                drain(connection, config.getBatchSize());
+                while (running) {
+                    // returns on the first notification or after the poll interval, either way drain
+                    pgConnection.getNotifications((int) config.getPollInterval().toMillis());
+                    drain(connection, config.getBatchSize());
+                    cleanup(connection);
+                }
+            } catch (SQLException ex) {
+                if (!running) {
+                    return;
+                }
+                log.warn("Cache invalidation listener disconnected, retrying in {}", config.getReconnectDelay(), ex);
+                sleep(config.getReconnectDelay().toMillis());
+            }
+        }
+    }
+
+    private void drain(Connection connection, int batchSize) throws SQLException {
+        int claimed;
+        do {
+            List<Long> ids = new ArrayList<>(batchSize);
+            Set<Long> userIds = new LinkedHashSet<>();
+            Set<String> emails = new LinkedHashSet<>();
+            Set<Long> cardIds = new LinkedHashSet<>();
+
+            try (PreparedStatement select = connection.prepareStatement(SELECT_PENDING)) {
+                select.setInt(1, batchSize);
+                try (ResultSet rs = select.executeQuery()) {
+                    while (rs.next()) {
+                        ids.add(rs.getLong("id"));
+                        long userId = rs.getLong("user_id");
+                        if (!rs.wasNull()) userIds.add(userId);
+                        long cardId = rs.getLong("card_id");
+                        if (!rs.wasNull()) cardIds.add(cardId);
+                        String email = rs.getString("email");
+                        if (email != null) emails.add(email);
+                    }
+                }
+            }
+            claimed = ids.size();
+            if (claimed == 0) {
+                connection.commit();
+                return;
+            }
+
+            cacheInvalidator.evictAll(userIds, emails, cardIds);
+
+            try (PreparedStatement update = connection.prepareStatement(MARK_PROCESSED)) {
+                Array idArray = connection.createArrayOf("bigint", ids.toArray());
+                update.setArray(1, idArray);
+                update.executeUpdate();
+            }
+            connection.commit();
+            log.debug("Evicted caches for {} outbox rows", claimed);
+        } while (claimed == batchSize && running);
+    }
+
+    private void cleanup(Connection connection) throws SQLException {
+        long now = System.currentTimeMillis();
+        long retentionMillis = cacheProperties.getInvalidation().getRetention().toMillis();
+        if (now - lastCleanup < Math.min(retentionMillis, 600_000L)) {
+            return;
+        }
+        try (PreparedStatement delete = connection.prepareStatement(DELETE_PROCESSED)) {
+            delete.setLong(1, retentionMillis / 1000);
+            delete.executeUpdate();
+        }
+        connection.commit();
+        lastCleanup = now;
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,72 @@
+package com.internship.userservice.cache;
+
+/**
+ * Redis key layout shared by the cache manager and the code that touches Redis directly.
+ * <p>
+ * Keys owned by one user carry the user id as a Redis Cluster hash tag, {@code {<id>}},
+ * so they land in the same slot and can be changed together by one multi-key command or
+ * Lua script. Entries cached under other lookup values, like an email, cannot carry the
+ * tag, because the user id is not known when they are looked up.
+ */
+public final class CacheKeys {
+
+    public static final String USERS = "users";
+    public static final String USERS_BY_EMAIL = "usersByEmail";
+    public static final String USERS_BY_CREDENTIALS_ID = "usersByCredentialsId";
+    public static final String CARDS = "cards";
+
+    private static final String SEPARATOR = "::";
+    private static final String USER_INDEX = "users:idx";
+    private static final String ENCODED_BODY = "body:";
+    private static final String USER_CARDS = "byUser:";
+
+    private CacheKeys() {
+    }
+
+    public static String prefix(String cacheName) {
+        return cacheName + SEPARATOR;
+    }
+
+    public static String of(String cacheName, Object key) {
+        return prefix(cacheName) + key;
+    }
+
+    /**
+     * Only the part in braces is hashed to pick the cluster slot.
+     */
+    public static String hashTag(Object id) {
+        return "{" + id + "}";
+    }
+
+    /**
+     * Entry of the {@link #USERS} cache, whose keys are hash-tagged.
+     */
+    public static String user(Object userId) {
+        return of(USERS, hashTag(userId));
+    }
+
+    /**
+     * Set of all secondary cache keys (by email, by credentials id) that hold a copy of the user.
+     */
+    public static String userIndex(Object userId) {
+        return of(USER_INDEX, hashTag(userId));
+    }
+
+    /**
+     * Hash with the card list of a user, see {@link UserCardsCache}. It lives under the
+     * prefix of the {@link #CARDS} cache, so clearing that cache removes it too.
+     */
+    public static String userCards(Object userId) {
+        return of(CARDS, USER_CARDS + hashTag(userId));
+    }
+
+    /**
+     * Encoded response body of an entity at the given version. The version makes the key
+     * change with every update. The key is recorded in the index of the owning user, so
+     * evicting the user drops it as well. It lives under the prefix of the entity cache,
+     * so clearing that cache removes it too.
+     */
+    public static String encodedBody(String cacheName, Object id, Long version) {
+        return of(cacheName, ENCODED_BODY + id + ":" + version);
+    }
+}
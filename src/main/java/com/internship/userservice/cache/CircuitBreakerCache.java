@@ -0,0 +1,203 @@
+package com.internship.userservice.cache;
+
+import org.springframework.cache.Cache;
+import org.springframework.dao.DataAccessException;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Guards a Redis cache with the {@link RedisCircuitBreaker}. Connection failures and
+ * timeouts never reach the caller: a failed or rejected lookup is a miss, and a failed
+ * or rejected put or eviction is dropped and marks the cache for clearing once Redis is
+ * back. Other errors, such as unreadable entries, are left to the cache error handler.
+ */
+public class CircuitBreakerCache implements DelegatingCache {
+
+    private final Cache delegate;
+    private final RedisCircuitBreaker breaker;
+
+    public CircuitBreakerCache(Cache delegate, RedisCircuitBreaker breaker) {
+        this.delegate = delegate;
+        this.breaker = breaker;
+        breaker.register(delegate);
+    }
+
+    @Override
+    public Cache getTargetCache() {
+        return delegate;
+    }
+
+    @Override
+    public String getName() {
+        return delegate.getName();
+    }
+
+    @Override
+    public Object getNativeCache() {
+        return delegate.getNativeCache();
+    }
+
+    @Override
+    public ValueWrapper get(Object key) {
+        return call(() -> delegate.get(key), null);
+    }
+
+    @Override
+    public <T> T get(Object key, Class<T> type) {
+        return call(() -> delegate.get(key, type), null);
+    }
+
+    @Override
+    public <T> T get(Object key, Callable<T> valueLoader) {
+        if (!breaker.tryAcquire()) {
+            return load(valueLoader);
+        }
+        try {
+            T value = delegate.get(key, valueLoader);
+            breaker.onSuccess();
+            return value;
+        } catch (DataAccessException e) {
+            breaker.onFailure();
+            return load(valueLoader);
+        }
+    }
+
+    @Override
+    public CompletableFuture<?> retrieve(Object key) {
+        if (!breaker.tryAcquire()) {
+            return CompletableFuture.completedFuture(null);
+        }
+        return delegate.retrieve(key).handle((value, error) -> {
+            if (error == null) {
+                breaker.onSuccess();
+                return value;
+            }
+            if (unwrap(error) instanceof DataAccessException) {
+                breaker.onFailure();
+                return null;
+            }
+            throw new CompletionException(unwrap(error));
+        });
+    }
+
+    /**
+     * A failure after the value was loaded keeps that value, the put of which is lost.
+     */
+    @Override
+    public <T> CompletableFuture<T> retrieve(Object key, Supplier<CompletableFuture<T>> valueLoader) {
+        if (!breaker.tryAcquire()) {
+            return valueLoader.get();
+        }
+        AtomicReference<CompletableFuture<T>> loaded = new AtomicReference<>();
+        return delegate.retrieve(key, () -> {
+                    CompletableFuture<T> value = valueLoader.get();
+                    loaded.set(value);
+                    return value;
+                })
+                .handle((value, error) -> {
+                    if (error == null) {
+                        breaker.onSuccess();
+                        return CompletableFuture.completedFuture(value);
+                    }
+                    if (!(unwrap(error) instanceof DataAccessException)) {
+                        return CompletableFuture.<T>failedFuture(unwrap(error));
+                    }
+                    breaker.onFailure();
+                    if (loaded.get() == null) {
+                        return valueLoader.get();
+                    }
+                    breaker.markStale(getName());
+                    return loaded.get();
+                })
+                .thenCompose(Function.identity());
+    }
+
+    /**
+     * A lost put may leave the previous value of the key behind.
+     */
+    @Override
+    public void put(Object key, Object value) {
+        if (call(() -> {
+            delegate.put(key, value);
+            return Boolean.TRUE;
+        }, null) == null) {
+            breaker.markStale(getName());
+        }
+    }
+
+    @Override
+    public ValueWrapper putIfAbsent(Object key, Object value) {
+        return call(() -> delegate.putIfAbsent(key, value), null);
+    }
+
+    @Override
+    public void evict(Object key) {
+        if (call(() -> {
+            delegate.evict(key);
+            return Boolean.TRUE;
+        }, null) == null) {
+            breaker.markStale(getName());
+        }
+    }
+
+    @Override
+    public boolean evictIfPresent(Object key) {
+        Boolean present = call(() -> delegate.evictIfPresent(key), null);
+        if (present == null) {
+            breaker.markStale(getName());
+            return false;
+        }
+        return present;
+    }
+
+    @Override
+    public void clear() {
+        if (call(() -> {
+            delegate.clear();
+            return Boolean.TRUE;
+        }, null) == null) {
+            breaker.markStale(getName());
+        }
+    }
+
+    @Override
+    public boolean invalidate() {
+        Boolean invalidated = call(delegate::invalidate, null);
+        if (invalidated == null) {
+            breaker.markStale(getName());
+            return false;
+        }
+        return invalidated;
+    }
+
+    private <T> T call(Supplier<T> operation, T fallback) {
+        if (!breaker.tryAcquire()) {
+            return fallback;
+        }
+        try {
+            T result = operation.get();
+            breaker.onSuccess();
+            return result;
+        } catch (DataAccessException e) {
+            breaker.onFailure();
+            return fallback;
+        }
+    }
+
+    private static Throwable unwrap(Throwable error) {
+        return error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+    }
+
+    private static <T> T load(Callable<T> valueLoader) {
+        try {
+            return valueLoader.call();
+        } catch (Exception e) {
+            throw new ValueRetrievalException(null, valueLoader, e);
+        }
+    }
+}
@@ -0,0 +1,61 @@
+package com.internship.userservice.cache;
+
+import org.springframework.data.redis.cache.BatchStrategies;
+import org.springframework.data.redis.cache.BatchStrategy;
+import org.springframework.data.redis.connection.RedisClusterConnection;
+import org.springframework.data.redis.connection.RedisClusterNode;
+import org.springframework.data.redis.connection.RedisConnection;
+import org.springframework.data.redis.core.Cursor;
+import org.springframework.data.redis.core.ScanOptions;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Clears a cache with {@code SCAN} and batched deletes, also on Redis Cluster, where a
+ * scan only sees the keys of one node: every master is scanned in turn.
+ */
+public class ClusterScanBatchStrategy implements BatchStrategy {
+
+    private final int batchSize;
+    private final BatchStrategy standalone;
+
+    public ClusterScanBatchStrategy(int batchSize) {
+        this.batchSize = batchSize;
+        this.standalone = BatchStrategies.scan(batchSize);
+    }
+
+    @Override
+    public long cleanCache(RedisConnection connection, String name, byte[] pattern) {
+        if (!(connection instanceof RedisClusterConnection cluster)) {
+            return standalone.cleanCache(connection, name, pattern);
+        }
+        ScanOptions options = ScanOptions.scanOptions().count(batchSize).match(pattern).build();
+        long deleted = 0;
+        for (RedisClusterNode node : cluster.clusterGetNodes()) {
+            if (!node.isMaster()) {
+                continue;
+            }
+            try (Cursor<byte[]> cursor = cluster.scan(node, options)) {
+                List<byte[]> keys = new ArrayList<>(batchSize);
+                while (cursor.hasNext()) {
+                    keys.add(cursor.next());
+                    if (keys.size() == batchSize) {
+                        deleted += delete(cluster, keys);
+                    }
+                }
+                deleted += delete(cluster, keys);
+            }
+        }
+        return deleted;
+    }
+
+    private static long delete(RedisConnection connection, List<byte[]> keys) {
+        if (keys.isEmpty()) {
+            return 0;
+        }
+        Long deleted = connection.keyCommands().del(keys.toArray(new byte[0][]));
+        keys.clear();
+        return deleted != null ? deleted : 0;
+    }
+}
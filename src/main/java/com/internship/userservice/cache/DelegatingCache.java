@@ -0,0 +1,40 @@
+package com.internship.userservice.cache;
+
+import org.springframework.cache.Cache;
+import org.springframework.cache.transaction.TransactionAwareCacheDecorator;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Supplier;
+
+/**
+ * A {@link Cache} that adds behaviour around another cache. Asynchronous retrieval is
+ * passed on to the target unless the decorator overrides it.
+ */
+public interface DelegatingCache extends Cache {
+
+    Cache getTargetCache();
+
+    @Override
+    default CompletableFuture<?> retrieve(Object key) {
+        return getTargetCache().retrieve(key);
+    }
+
+    @Override
+    default <T> CompletableFuture<T> retrieve(Object key, Supplier<CompletableFuture<T>> valueLoader) {
+        return getTargetCache().retrieve(key, valueLoader);
+    }
+
+    /**
+     * Unwraps nested delegating caches, and the transaction-aware decorator the cache
+     * manager puts around them, down to the cache that stores the data.
+     */
+    static Cache unwrap(Cache cache) {
+        Cache target = cache instanceof TransactionAwareCacheDecorator transactionAware
+                ? transactionAware.getTargetCache()
+                : cache;
+        while (target instanceof DelegatingCache delegating) {
+            target = delegating.getTargetCache();
+        }
+        return target;
+    }
+}
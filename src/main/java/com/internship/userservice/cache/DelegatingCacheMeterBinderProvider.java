@@ -0,0 +1,21 @@
+package com.internship.userservice.cache;
+
+import io.micrometer.core.instrument.Tag;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.boot.actuate.metrics.cache.CacheMeterBinderProvider;
+import org.springframework.boot.actuate.metrics.cache.RedisCacheMetrics;
+import org.springframework.cache.Cache;
+import org.springframework.data.redis.cache.RedisCache;
+
+/**
+ * Lets actuator bind its Redis cache statistics (hits, misses, evictions) to caches
+ * wrapped in {@link DelegatingCache} decorators, which it can't unwrap by itself.
+ */
+public class DelegatingCacheMeterBinderProvider implements CacheMeterBinderProvider<DelegatingCache> {
+
+    @Override
+    public MeterBinder getMeterBinder(DelegatingCache cache, Iterable<Tag> tags) {
+        Cache target = DelegatingCache.unwrap(cache);
+        return target instanceof RedisCache redisCache ? new RedisCacheMetrics(redisCache, tags) : null;
+    }
+}
@@ -0,0 +1,89 @@
+package com.internship.userservice.cache;
+
+import org.springframework.cache.Cache;
+
+import java.time.Duration;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Repeats every eviction after a delay. A request that read the row before the
+ * writer committed may put the old value back right after the first eviction;
+ * the second one removes it.
+ */
+public class DoubleDeleteCache implements DelegatingCache {
+
+    private final Cache delegate;
+    private final ScheduledExecutorService scheduler;
+    private final long delayMillis;
+
+    public DoubleDeleteCache(Cache delegate, ScheduledExecutorService scheduler, Duration delay) {
+        this.delegate = delegate;
+        this.scheduler = scheduler;
+        this.delayMillis = delay.toMillis();
+    }
+
+    @Override
+    public Cache getTargetCache() {
+        return delegate;
+    }
+
+    @Override
+    public String getName() {
+        return delegate.getName();
+    }
+
+    @Override
+    public Object getNativeCache() {
+        return delegate.getNativeCache();
+    }
+
+    @Override
+    public ValueWrapper get(Object key) {
+        return delegate.get(key);
+    }
+
+    @Override
+    public <T> T get(Object key, Class<T> type) {
+        return delegate.get(key, type);
+    }
+
+    @Override
+    public <T> T get(Object key, Callable<T> valueLoader) {
+        return delegate.get(key, valueLoader);
+    }
+
+    @Override
+    public void put(Object key, Object value) {
+        delegate.put(key, value);
+    }
+
+    @Override
+    public ValueWrapper putIfAbsent(Object key, Object value) {
+        return delegate.putIfAbsent(key, value);
+    }
+
+    @Override
+    public void evict(Object key) {
+        delegate.evict(key);
+        scheduler.schedule(() -> delegate.evict(key), delayMillis, TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public boolean evictIfPresent(Object key) {
+        boolean present = delegate.evictIfPresent(key);
+        scheduler.schedule(() -> delegate.evict(key), delayMillis, TimeUnit.MILLISECONDS);
+        return present;
+    }
+
+    @Override
+    public void clear() {
+        delegate.clear();
+    }
+
+    @Override
+    public boolean invalidate() {
+        return delegate.invalidate();
+    }
+}
@@ -0,0 +1,81 @@
+package com.internship.userservice.cache;
+
+import com.internship.userservice.config.AppCacheProperties;
+import io.lettuce.core.RedisFuture;
+import io.lettuce.core.SetArgs;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataAccessException;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Supplier;
+
+/**
+ * Serialized, optionally gzip-compressed, response bodies stored in Redis as raw bytes,
+ * keyed by entity version (see {@link CacheKeys#encodedBody}). Each key is added to the
+ * index of the user it belongs to, like the secondary keys of {@link VersionedRedisCache},
+ * so {@link UserCacheInvalidator} evicts it with the user.
+ * <p>
+ * Calls go through the {@link RedisCircuitBreaker}: a failed or rejected read finds
+ * nothing and a failed or rejected write is dropped, so an outage costs the regular
+ * serialization, not a timeout per request.
+ */
+@Slf4j
+@Component
+public class EncodedBodyCache {
+
+    private final RedisPipeline pipeline;
+    private final RedisCircuitBreaker circuitBreaker;
+    private final Duration ttl;
+
+    public EncodedBodyCache(RedisPipeline redisPipeline, RedisCircuitBreaker circuitBreaker,
+                            AppCacheProperties cacheProperties) {
+        this.pipeline = redisPipeline;
+        this.circuitBreaker = circuitBreaker;
+        this.ttl = cacheProperties.getTtl();
+    }
+
+    public byte[] get(String key) {
+        byte[] rawKey = key.getBytes(StandardCharsets.UTF_8);
+        return (byte[]) call(key, () -> pipeline.execute(commands -> List.of(commands.get(rawKey))).get(0));
+    }
+
+    /**
+     * Stores the body and records its key in the index of {@code indexOwner}, unless that
+     * is {@code null}.
+     */
+    public void put(String key, byte[] body, Object indexOwner) {
+        byte[] rawKey = key.getBytes(StandardCharsets.UTF_8);
+        long ttlMillis = ttl == null || ttl.isNegative() ? 0 : ttl.toMillis();
+        call(key, () -> pipeline.execute(commands -> {
+            List<RedisFuture<?>> futures = new ArrayList<>(3);
+            if (indexOwner != null) {
+                byte[] indexKey = CacheKeys.userIndex(indexOwner).getBytes(StandardCharsets.UTF_8);
+                futures.add(commands.sadd(indexKey, rawKey));
+                if (ttlMillis > 0) {
+                    futures.add(commands.pexpire(indexKey, ttlMillis));
+                }
+            }
+            futures.add(ttlMillis > 0 ? commands.set(rawKey, body, SetArgs.Builder.px(ttlMillis)) : commands.set(rawKey, body));
+            return futures;
+        }));
+    }
+
+    private <T> T call(String key, Supplier<T> operation) {
+        if (!circuitBreaker.tryAcquire()) {
+            return null;
+        }
+        try {
+            T result = operation.get();
+            circuitBreaker.onSuccess();
+            return result;
+        } catch (DataAccessException e) {
+            circuitBreaker.onFailure();
+            log.debug("Encoded body cache call for {} failed: {}", key, e.toString());
+            return null;
+        }
+    }
+}
@@ -0,0 +1,126 @@
+package com.internship.userservice.cache;
+
+import com.internship.userservice.jfr.CacheOperationEvent;
+import org.springframework.cache.Cache;
+
+import java.util.Objects;
+import java.util.concurrent.Callable;
+
+/**
+ * Emits a {@link CacheOperationEvent} for every cache operation.
+ */
+public class JfrCache implements DelegatingCache {
+
+    private final Cache delegate;
+
+    public JfrCache(Cache delegate) {
+        this.delegate = delegate;
+    }
+
+    @Override
+    public Cache getTargetCache() {
+        return delegate;
+    }
+
+    @Override
+    public String getName() {
+        return delegate.getName();
+    }
+
+    @Override
+    public Object getNativeCache() {
+        return delegate.getNativeCache();
+    }
+
+    @Override
+    public ValueWrapper get(Object key) {
+        CacheOperationEvent event = begin("get", key);
+        ValueWrapper value = delegate.get(key);
+        commit(event, value != null);
+        return value;
+    }
+
+    @Override
+    public <T> T get(Object key, Class<T> type) {
+        CacheOperationEvent event = begin("get", key);
+        T value = delegate.get(key, type);
+        commit(event, value != null);
+        return value;
+    }
+
+    @Override
+    public <T> T get(Object key, Callable<T> valueLoader) {
+        CacheOperationEvent event = begin("load", key);
+        try {
+            return delegate.get(key, valueLoader);
+        } finally {
+            commit(event, false);
+        }
+    }
+
+    @Override
+    public void put(Object key, Object value) {
+        CacheOperationEvent event = begin("put", key);
+        delegate.put(key, value);
+        commit(event, false);
+    }
+
+    @Override
+    public ValueWrapper putIfAbsent(Object key, Object value) {
+        CacheOperationEvent event = begin("put", key);
+        ValueWrapper existing = delegate.putIfAbsent(key, value);
+        commit(event, existing != null);
+        return existing;
+    }
+
+    @Override
+    public void evict(Object key) {
+        CacheOperationEvent event = begin("evict", key);
+        delegate.evict(key);
+        commit(event, false);
+    }
+
+    @Override
+    public boolean evictIfPresent(Object key) {
+        CacheOperationEvent event = begin("evict", key);
+        boolean present = delegate.evictIfPresent(key);
+        commit(event, present);
+        return present;
+    }
+
+    @Override
+    public void clear() {
+        CacheOperationEvent event = begin("clear", null);
+        delegate.clear();
+        commit(event, false);
+    }
+
+    @Override
+    public boolean invalidate() {
+        CacheOperationEvent event = begin("clear", null);
+        boolean invalidated = delegate.invalidate();
+        commit(event, invalidated);
+        return invalidated;
+    }
+
+    private CacheOperationEvent begin(String operation, Object key) {
+        CacheOperationEvent event = new CacheOperationEvent();
+        if (event.isEnabled()) {
+            event.cacheName = delegate.getName();
+            event.operation = operation;
+            event.keyHash = Objects.hashCode(key);
+            event.begin();
+        }
+        return event;
+    }
+
+    private static void commit(CacheOperationEvent event, boolean hit) {
+        if (event.isEnabled()) {
+            event.end();
+            if (event.shouldCommit()) {
+                event.hit = hit;
+                event.commit();
+            }
+        }
+    }
+}
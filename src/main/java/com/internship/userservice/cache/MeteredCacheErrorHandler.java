@@ -0,0 +1,55 @@
+package com.internship.userservice.cache;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.cache.Cache;
+import org.springframework.cache.interceptor.CacheErrorHandler;
+
+/**
+ * Cache errors never fail a request: a failed lookup is a miss, a failed write or
+ * eviction is logged and counted as {@code cache.errors}. Redis outages are already
+ * absorbed by {@link CircuitBreakerCache}; what reaches this handler are errors like
+ * entries that no longer deserialize.
+ */
+@Slf4j
+public class MeteredCacheErrorHandler implements CacheErrorHandler {
+
+    private final ObjectProvider<MeterRegistry> meterRegistry;
+
+    public MeteredCacheErrorHandler(ObjectProvider<MeterRegistry> meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    public void handleCacheGetError(RuntimeException exception, Cache cache, Object key) {
+        handle(exception, cache, "get");
+    }
+
+    @Override
+    public void handleCachePutError(RuntimeException exception, Cache cache, Object key, Object value) {
+        handle(exception, cache, "put");
+    }
+
+    @Override
+    public void handleCacheEvictError(RuntimeException exception, Cache cache, Object key) {
+        handle(exception, cache, "evict");
+    }
+
+    @Override
+    public void handleCacheClearError(RuntimeException exception, Cache cache) {
+        handle(exception, cache, "clear");
+    }
+
+    private void handle(RuntimeException exception, Cache cache, String operation) {
+        log.warn("Cache {} on '{}' failed: {}", operation, cache.getName(), exception.toString());
+        meterRegistry.ifAvailable(registry -> Counter.builder("cache.errors")
+                .description("Cache operations that failed and were skipped")
+                .tag("cache", cache.getName())
+                .tag("operation", operation)
+                .tag("exception", exception.getClass().getSimpleName())
+                .register(registry)
+                .increment());
+    }
+}
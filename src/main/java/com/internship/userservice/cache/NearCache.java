@@ -0,0 +1,129 @@
+package com.internship.userservice.cache;
+
+import org.springframework.cache.Cache;
+import org.springframework.cache.support.SimpleValueWrapper;
+import org.springframework.data.redis.serializer.RedisSerializationContext.SerializationPair;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.Callable;
+import java.util.function.Function;
+
+/**
+ * Serves lookups from the {@link NearCacheStore} and reads through to Redis on a miss.
+ * Writes and evictions drop the local copy and go to Redis, whose invalidation then
+ * reaches the other replicas.
+ */
+public class NearCache implements DelegatingCache {
+
+    private final Cache delegate;
+    private final NearCacheStore store;
+    private final SerializationPair<Object> serializer;
+    private final Function<Object, String> redisKey;
+    private final String prefix;
+
+    public NearCache(Cache delegate,
+                     NearCacheStore store,
+                     SerializationPair<Object> serializer,
+                     Function<Object, String> redisKey) {
+        this.delegate = delegate;
+        this.store = store;
+        this.serializer = serializer;
+        this.redisKey = redisKey;
+        this.prefix = CacheKeys.prefix(delegate.getName());
+    }
+
+    @Override
+    public Cache getTargetCache() {
+        return delegate;
+    }
+
+    @Override
+    public String getName() {
+        return delegate.getName();
+    }
+
+    @Override
+    public Object getNativeCache() {
+        return delegate.getNativeCache();
+    }
+
+    @Override
+    public ValueWrapper get(Object key) {
+        String redisKey = this.redisKey.apply(key);
+        byte[] local = store.get(redisKey);
+        if (local != null) {
+            return new SimpleValueWrapper(serializer.read(ByteBuffer.wrap(local)));
+        }
+        Object token = store.reserve(redisKey);
+        ValueWrapper wrapper = delegate.get(key);
+        if (wrapper != null && wrapper.get() != null) {
+            store.fill(redisKey, token, toBytes(serializer.write(wrapper.get())));
+        } else {
+            store.invalidate(redisKey);
+        }
+        return wrapper;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T get(Object key, Class<T> type) {
+        ValueWrapper wrapper = get(key);
+        Object value = wrapper != null ? wrapper.get() : null;
+        if (value != null && type != null && !type.isInstance(value)) {
+            throw new IllegalStateException("Cached value is not of required type [" + type.getName() + "]: " + value);
+        }
+        return (T) value;
+    }
+
+    @Override
+    public <T> T get(Object key, Callable<T> valueLoader) {
+        evictLocal(key);
+        return delegate.get(key, valueLoader);
+    }
+
+    @Override
+    public void put(Object key, Object value) {
+        evictLocal(key);
+        delegate.put(key, value);
+    }
+
+    @Override
+    public ValueWrapper putIfAbsent(Object key, Object value) {
+        evictLocal(key);
+        return delegate.putIfAbsent(key, value);
+    }
+
+    @Override
+    public void evict(Object key) {
+        evictLocal(key);
+        delegate.evict(key);
+    }
+
+    @Override
+    public boolean evictIfPresent(Object key) {
+        evictLocal(key);
+        return delegate.evictIfPresent(key);
+    }
+
+    @Override
+    public void clear() {
+        store.invalidatePrefix(prefix);
+        delegate.clear();
+    }
+
+    @Override
+    public boolean invalidate() {
+        store.invalidatePrefix(prefix);
+        return delegate.invalidate();
+    }
+
+    private void evictLocal(Object key) {
+        store.invalidate(redisKey.apply(key));
+    }
+
+    private static byte[] toBytes(ByteBuffer buffer) {
+        byte[] bytes = new byte[buffer.remaining()];
+        buffer.get(bytes);
+        return bytes;
+    }
+}
@@ -0,0 +1,290 @@
+package com.internship.userservice.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.internship.userservice.config.AppCacheProperties;
+import io.lettuce.core.ClientOptions;
+import io.lettuce.core.RedisChannelHandler;
+import io.lettuce.core.RedisClient;
+import io.lettuce.core.RedisConnectionStateListener;
+import io.lettuce.core.RedisException;
+import io.lettuce.core.RedisURI;
+import io.lettuce.core.TrackingArgs;
+import io.lettuce.core.api.StatefulRedisConnection;
+import io.lettuce.core.api.push.PushMessage;
+import io.lettuce.core.codec.StringCodec;
+import io.lettuce.core.protocol.ProtocolVersion;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.extern.slf4j.Slf4j;
+
+import java.net.SocketAddress;
+import java.time.Duration;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Process-local copies of Redis cache entries, kept valid by Redis server-assisted
+ * client-side caching.
+ * <p>
+ * A dedicated RESP3 connection turns on broadcast key tracking for the prefixes of the
+ * near-cached caches, so Redis pushes an invalidation for every change of such a key,
+ * whichever client or replica made it, and the local copy is dropped. Entries are kept
+ * serialized and bounded by their size in bytes, with a TTL as a safety net.
+ * <p>
+ * Local entries are only used while tracking is on. If it cannot be enabled (Redis
+ * before 6, no RESP3) lookups always go to Redis. If the tracking connection drops, the
+ * local entries are discarded, because invalidations may have been missed, and lookups
+ * go to Redis until tracking is enabled again on reconnect. A connection that cannot be
+ * opened at all, e.g. because Redis is not up yet at startup, is retried on the cache
+ * scheduler with exponential backoff. On Redis Cluster, where
+ * tracking would need a connection to every node, no URI is given and the store stays
+ * bypassed.
+ */
+@Slf4j
+public class NearCacheStore implements MeterBinder, AutoCloseable {
+
+    private static final String METRIC_PREFIX = "cache.near";
+    private static final Duration MIN_CONNECT_BACKOFF = Duration.ofSeconds(1);
+    private static final Duration MAX_CONNECT_BACKOFF = Duration.ofMinutes(1);
+
+    private final RedisURI redisUri;
+    private final TrackingArgs trackingArgs;
+    private final Cache<String, Object> entries;
+    private final ScheduledExecutorService scheduler;
+
+    private RedisClient client;
+    private volatile StatefulRedisConnection<String, String> connection;
+    private volatile boolean tracking;
+    private volatile boolean closed;
+
+    private Counter hitCounter;
+    private Counter missCounter;
+    private Counter invalidationCounter;
+
+    public NearCacheStore(RedisURI redisUri, Collection<String> cacheNames, AppCacheProperties.Near properties,
+                          ScheduledExecutorService scheduler) {
+        this.redisUri = redisUri;
+        this.scheduler = scheduler;
+        this.trackingArgs = TrackingArgs.Builder.enabled()
+                .bcast()
+                .prefixes(cacheNames.stream().map(CacheKeys::prefix).toArray(String[]::new));
+        this.entries = Caffeine.newBuilder()
+                .maximumWeight(properties.getMaximumSize().toBytes())
+                .weigher(NearCacheStore::weigh)
+                .expireAfterWrite(properties.getTtl())
+                .build();
+    }
+
+    /**
+     * Connects and enables tracking. A failure is logged and leaves the store bypassed
+     * until a retry succeeds.
+     */
+    public void start() {
+        if (redisUri == null) {
+            log.warn("Redis client-side caching is not supported on Redis Cluster and stays off");
+            return;
+        }
+        client = RedisClient.create(redisUri);
+        client.setOptions(ClientOptions.builder().protocolVersion(ProtocolVersion.RESP3).build());
+        client.addListener(new RedisConnectionStateListener() {
+            @Override
+            public void onRedisConnected(RedisChannelHandler<?, ?> channel, SocketAddress socketAddress) {
+                if (connection != null) {
+                    enableTrackingAsync();
+                }
+            }
+
+            @Override
+            public void onRedisDisconnected(RedisChannelHandler<?, ?> channel) {
+                stopTracking();
+            }
+        });
+        connect(MIN_CONNECT_BACKOFF);
+    }
+
+    /**
+     * Once connected, Lettuce reconnects by itself and the listener re-enables tracking,
+     * but a connection that was never opened has to be retried here.
+     */
+    private void connect(Duration backoff) {
+        if (closed) {
+            return;
+        }
+        StatefulRedisConnection<String, String> trackingConnection = null;
+        try {
+            trackingConnection = client.connect();
+            trackingConnection.addListener(this::onPush);
+            trackingConnection.sync().clientTracking(trackingArgs);
+            connection = trackingConnection;
+            tracking = true;
+            log.info("Redis client-side caching enabled");
+        } catch (RedisException e) {
+            if (trackingConnection != null) {
+                trackingConnection.closeAsync();
+            }
+            log.warn("Redis client-side caching is off, key tracking could not be enabled, retrying in {}: {}",
+                    backoff, e.toString());
+            Duration next = backoff.multipliedBy(2).compareTo(MAX_CONNECT_BACKOFF) < 0
+                    ? backoff.multipliedBy(2)
+                    : MAX_CONNECT_BACKOFF;
+            try {
+                scheduler.schedule(() -> connect(next), backoff.toMillis(), TimeUnit.MILLISECONDS);
+            } catch (RejectedExecutionException shutdown) {
+                log.debug("Cache scheduler is shut down, key tracking is not retried");
+            }
+        }
+    }
+
+    public boolean isTracking() {
+        return tracking;
+    }
+
+    /**
+     * The serialized value of the Redis key, or {@code null} when it is not held locally.
+     */
+    public byte[] get(String redisKey) {
+        if (!tracking) {
+            return null;
+        }
+        if (entries.getIfPresent(redisKey) instanceof byte[] value) {
+            increment(hitCounter);
+            return value;
+        }
+        increment(missCounter);
+        return null;
+    }
+
+    /**
+     * Reserves the key before it is read from Redis. Returns the token to pass to
+     * {@link #fill}, or {@code null} when nothing may be kept now.
+     * <p>
+     * An invalidation that arrives between the reservation and the fill removes the
+     * token, so a value read just before a concurrent write is never kept.
+     */
+    public Object reserve(String redisKey) {
+        if (!tracking) {
+            return null;
+        }
+        Object token = new Object();
+        entries.put(redisKey, token);
+        return token;
+    }
+
+    public void fill(String redisKey, Object token, byte[] value) {
+        if (token != null) {
+            entries.asMap().replace(redisKey, token, value);
+        }
+    }
+
+    public void invalidate(String redisKey) {
+        entries.invalidate(redisKey);
+    }
+
+    public void invalidatePrefix(String prefix) {
+        entries.asMap().keySet().removeIf(key -> key.startsWith(prefix));
+    }
+
+    public long size() {
+        return entries.estimatedSize();
+    }
+
+    /**
+     * Redis sends the changed keys, or {@code null} for a flush of the whole database.
+     */
+    private void onPush(PushMessage message) {
+        if (!"invalidate".equals(message.getType())) {
+            return;
+        }
+        List<Object> content = message.getContent(StringCodec.UTF8::decodeKey);
+        if (content.size() > 1 && content.get(1) instanceof List<?> keys) {
+            for (Object key : keys) {
+                entries.invalidate(key.toString());
+            }
+            increment(invalidationCounter, keys.size());
+        } else {
+            entries.invalidateAll();
+            increment(invalidationCounter, 1);
+        }
+    }
+
+    /**
+     * Tracking is a property of the connection, so it is lost on reconnect. Runs on the
+     * event loop and therefore must not block.
+     */
+    private void enableTrackingAsync() {
+        connection.async().clientTracking(trackingArgs).whenComplete((result, error) -> {
+            if (error != null) {
+                log.warn("Could not re-enable Redis key tracking, client-side caching stays off: {}", error.toString());
+                return;
+            }
+            entries.invalidateAll();
+            tracking = true;
+            log.info("Redis key tracking re-enabled");
+        });
+    }
+
+    private void stopTracking() {
+        if (tracking) {
+            log.warn("Redis tracking connection lost, client-side caching is off until it reconnects");
+        }
+        tracking = false;
+        entries.invalidateAll();
+    }
+
+    private static int weigh(String key, Object value) {
+        return key.length() + (value instanceof byte[] bytes ? bytes.length : 0);
+    }
+
+    private static void increment(Counter counter) {
+        increment(counter, 1);
+    }
+
+    private static void increment(Counter counter, int amount) {
+        if (counter != null) {
+            counter.increment(amount);
+        }
+    }
+
+    @Override
+    public void close() {
+        closed = true;
+        tracking = false;
+        if (client != null) {
+            client.shutdown();
+        }
+        entries.invalidateAll();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder(METRIC_PREFIX + ".tracking", this, store -> store.tracking ? 1 : 0)
+                .description("1 while Redis key tracking is on and local entries are used")
+                .register(registry);
+        Gauge.builder(METRIC_PREFIX + ".size", entries, Cache::estimatedSize)
+                .description("Entries held in process memory")
+                .register(registry);
+        Gauge.builder(METRIC_PREFIX + ".weight", entries,
+                        cache -> cache.policy().eviction().map(eviction -> eviction.weightedSize().orElse(0)).orElse(0L))
+                .description("Bytes of keys and values held in process memory")
+                .baseUnit("bytes")
+                .register(registry);
+        hitCounter = gets(registry, "hit");
+        missCounter = gets(registry, "miss");
+        invalidationCounter = Counter.builder(METRIC_PREFIX + ".invalidations")
+                .description("Keys invalidated by Redis")
+                .register(registry);
+    }
+
+    private static Counter gets(MeterRegistry registry, String result) {
+        return Counter.builder(METRIC_PREFIX + ".gets")
+                .description("Lookups in process memory while tracking is on")
+                .tag("result", result)
+                .register(registry);
+    }
+}
@@ -0,0 +1,300 @@
+package com.internship.userservice.cache;
+
+import com.internship.userservice.config.AppCacheProperties;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.cache.Cache;
+
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Stops calling Redis while it fails, so requests go straight to the database instead
+ * of waiting for timeouts.
+ * <p>
+ * Closed, the breaker keeps the outcome of the last {@code slidingWindowSize} calls and
+ * opens once at least {@code minimumCalls} were made and the failure rate reaches the
+ * threshold. Open, every call is rejected until {@code waitDuration} has passed; then it
+ * lets {@code permittedCallsInHalfOpenState} trial calls through. If they all succeed it
+ * closes again, a single failure opens it for another wait.
+ * <p>
+ * Writes and evictions that were rejected or failed leave possibly stale entries behind.
+ * The names of the affected caches are remembered, and those caches are cleared before
+ * the first trial call is let through, and again before closing if more writes were
+ * lost in between. Clearing scans Redis, so it runs on the given executor; calls are
+ * rejected until it is done.
+ */
+@Slf4j
+public class RedisCircuitBreaker implements MeterBinder {
+
+    public enum State {
+        CLOSED,
+        OPEN,
+        HALF_OPEN
+    }
+
+    private static final String METRIC_PREFIX = "cache.circuit";
+
+    private final double failureRateThreshold;
+    private final int minimumCalls;
+    private final long waitNanos;
+    private final int permittedHalfOpenCalls;
+
+    // guarded by this
+    private final boolean[] window;
+    private int windowNext;
+    private int windowCalls;
+    private int windowFailures;
+
+    private volatile State state = State.CLOSED;
+    private volatile long openedAt;
+    private final AtomicInteger halfOpenPermits = new AtomicInteger();
+    private final AtomicInteger halfOpenSuccesses = new AtomicInteger();
+
+    private final Map<String, Cache> caches = new ConcurrentHashMap<>();
+    private final Set<String> staleCaches = ConcurrentHashMap.newKeySet();
+    private final Executor clearExecutor;
+    private final AtomicBoolean clearing = new AtomicBoolean();
+
+    private Counter successCounter;
+    private Counter failureCounter;
+    private Counter rejectionCounter;
+    private final Map<State, Counter> transitionCounters = new EnumMap<>(State.class);
+
+    public RedisCircuitBreaker(AppCacheProperties.CircuitBreaker properties, Executor clearExecutor) {
+        this.clearExecutor = clearExecutor;
+        this.failureRateThreshold = properties.getFailureRateThreshold();
+        this.minimumCalls = properties.getMinimumCalls();
+        this.waitNanos = properties.getWaitDuration().toNanos();
+        this.permittedHalfOpenCalls = properties.getPermittedCallsInHalfOpenState();
+        this.window = new boolean[properties.getSlidingWindowSize()];
+    }
+
+    /**
+     * Registers the cache that is cleared when evictions from it were lost. It must call
+     * Redis directly, not through this breaker.
+     */
+    public void register(Cache cache) {
+        caches.put(cache.getName(), cache);
+    }
+
+    public State getState() {
+        return state;
+    }
+
+    /**
+     * Whether a call to Redis may be made now. Every permitted call must be followed by
+     * {@link #onSuccess()} or {@link #onFailure()}; a rejected one by nothing.
+     */
+    public boolean tryAcquire() {
+        State current = state;
+        if (current == State.CLOSED) {
+            return true;
+        }
+        if (current == State.OPEN) {
+            if (clearing.get() || System.nanoTime() - openedAt < waitNanos) {
+                increment(rejectionCounter);
+                return false;
+            }
+            if (staleCaches.isEmpty()) {
+                toHalfOpen();
+            } else {
+                clearStaleCachesThen(this::toHalfOpen, this::restartWait);
+            }
+        }
+        if (state == State.HALF_OPEN && halfOpenPermits.getAndUpdate(permits -> Math.max(permits - 1, 0)) > 0) {
+            return true;
+        }
+        increment(rejectionCounter);
+        return false;
+    }
+
+    public void onSuccess() {
+        increment(successCounter);
+        if (state == State.HALF_OPEN) {
+            if (halfOpenSuccesses.incrementAndGet() >= permittedHalfOpenCalls) {
+                if (staleCaches.isEmpty()) {
+                    toClosed();
+                } else {
+                    clearStaleCachesThen(this::toClosed, this::toOpen);
+                }
+            }
+            return;
+        }
+        record(false);
+    }
+
+    public void onFailure() {
+        increment(failureCounter);
+        if (state == State.HALF_OPEN) {
+            toOpen();
+            return;
+        }
+        if (record(true)) {
+            toOpen();
+        }
+    }
+
+    /**
+     * Remembers that a write to or an eviction from the given cache was lost.
+     */
+    public void markStale(String cacheName) {
+        staleCaches.add(cacheName);
+    }
+
+    public void markStale(List<String> cacheNames) {
+        staleCaches.addAll(cacheNames);
+    }
+
+    /**
+     * Records an outcome in the window, returns whether the breaker should open.
+     */
+    private synchronized boolean record(boolean failure) {
+        if (state != State.CLOSED) {
+            return false;
+        }
+        if (windowCalls == window.length) {
+            if (window[windowNext]) {
+                windowFailures--;
+            }
+        } else {
+            windowCalls++;
+        }
+        window[windowNext] = failure;
+        if (failure) {
+            windowFailures++;
+        }
+        windowNext = (windowNext + 1) % window.length;
+        return windowCalls >= minimumCalls && windowFailures >= failureRateThreshold * windowCalls;
+    }
+
+    private synchronized void toOpen() {
+        if (state == State.OPEN) {
+            return;
+        }
+        log.warn("Redis circuit breaker opened, cache calls bypass Redis for {} ms", waitNanos / 1_000_000);
+        openedAt = System.nanoTime();
+        halfOpenPermits.set(0);
+        transition(State.OPEN);
+    }
+
+    private synchronized void restartWait() {
+        if (state == State.OPEN) {
+            openedAt = System.nanoTime();
+        }
+    }
+
+    private synchronized void toHalfOpen() {
+        if (state != State.OPEN) {
+            return;
+        }
+        halfOpenPermits.set(permittedHalfOpenCalls);
+        halfOpenSuccesses.set(0);
+        transition(State.HALF_OPEN);
+    }
+
+    private synchronized void toClosed() {
+        if (state != State.HALF_OPEN) {
+            return;
+        }
+        windowNext = 0;
+        windowCalls = 0;
+        windowFailures = 0;
+        log.info("Redis circuit breaker closed");
+        transition(State.CLOSED);
+    }
+
+    /**
+     * Clears the stale caches on the executor unless that is already under way, then
+     * moves on with {@code next}, or with {@code onFailure} if a cache could not be
+     * cleared. No lock is held meanwhile; the caller's state rejects calls until then.
+     */
+    private void clearStaleCachesThen(Runnable next, Runnable onFailure) {
+        if (!clearing.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            clearExecutor.execute(() -> {
+                try {
+                    if (clearStaleCaches()) {
+                        next.run();
+                    } else {
+                        onFailure.run();
+                    }
+                } finally {
+                    clearing.set(false);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            clearing.set(false);
+            log.warn("Could not schedule clearing of stale caches: {}", e.toString());
+            onFailure.run();
+        }
+    }
+
+    /**
+     * Clears the caches that lost writes, calling Redis directly. This is the first call
+     * after an outage, so a failure counts as a failed trial.
+     */
+    private boolean clearStaleCaches() {
+        for (String name : Set.copyOf(staleCaches)) {
+            Cache cache = caches.get(name);
+            try {
+                if (cache != null) {
+                    cache.clear();
+                }
+                staleCaches.remove(name);
+            } catch (RuntimeException e) {
+                log.warn("Could not clear cache '{}' after Redis outage: {}", name, e.toString());
+                increment(failureCounter);
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private void transition(State to) {
+        state = to;
+        increment(transitionCounters.get(to));
+    }
+
+    private static void increment(Counter counter) {
+        if (counter != null) {
+            counter.increment();
+        }
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        for (State value : State.values()) {
+            Gauge.builder(METRIC_PREFIX + ".state", this, breaker -> breaker.state == value ? 1 : 0)
+                    .description("1 for the current state of the Redis circuit breaker")
+                    .tag("state", value.name().toLowerCase())
+                    .register(registry);
+            transitionCounters.put(value, Counter.builder(METRIC_PREFIX + ".transitions")
+                    .description("Redis circuit breaker state changes")
+                    .tag("state", value.name().toLowerCase())
+                    .register(registry));
+        }
+        successCounter = calls(registry, "success");
+        failureCounter = calls(registry, "failure");
+        rejectionCounter = calls(registry, "rejected");
+    }
+
+    private static Counter calls(MeterRegistry registry, String result) {
+        return Counter.builder(METRIC_PREFIX + ".calls")
+                .description("Redis calls seen by the circuit breaker")
+                .tag("result", result)
+                .register(registry);
+    }
+}
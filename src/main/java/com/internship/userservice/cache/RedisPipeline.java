@@ -0,0 +1,114 @@
+package com.internship.userservice.cache;
+
+import io.lettuce.core.LettuceFutures;
+import io.lettuce.core.RedisFuture;
+import io.lettuce.core.cluster.api.async.RedisClusterAsyncCommands;
+import org.springframework.dao.DataAccessException;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.data.redis.RedisSystemException;
+import org.springframework.data.redis.connection.RedisConnection;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+import org.springframework.data.redis.connection.lettuce.LettuceExceptionConverter;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Function;
+
+/**
+ * Sends several commands on the native Lettuce connection without waiting for each reply,
+ * then waits for all of them.
+ * <p>
+ * On Redis Cluster, Lettuce routes every command to the node that owns its slot and splits
+ * multi-key {@code MGET} and {@code DEL} by slot, so each node gets one pipelined batch.
+ * Keys of a Lua script must share a slot, see {@link CacheKeys#hashTag}. Errors are
+ * translated to {@link DataAccessException}, as for calls made through Spring Data Redis.
+ */
+public class RedisPipeline {
+
+    private static final Duration DEFAULT_TIMEOUT = Duration.ofSeconds(60);
+    private static final LettuceExceptionConverter EXCEPTION_CONVERTER = new LettuceExceptionConverter();
+
+    private final RedisConnectionFactory connectionFactory;
+    private final Duration timeout;
+
+    public RedisPipeline(RedisConnectionFactory connectionFactory) {
+        this.connectionFactory = connectionFactory;
+        this.timeout = connectionFactory instanceof LettuceConnectionFactory lettuce
+                ? lettuce.getClientConfiguration().getCommandTimeout()
+                : DEFAULT_TIMEOUT;
+    }
+
+    /**
+     * Issues the commands returned by {@code commands} and returns their results in order.
+     */
+    @SuppressWarnings("unchecked")
+    public List<Object> execute(Function<RedisClusterAsyncCommands<byte[], byte[]>, List<RedisFuture<?>>> commands) {
+        try (RedisConnection connection = connectionFactory.getConnection()) {
+            List<RedisFuture<?>> futures = commands.apply(
+                    (RedisClusterAsyncCommands<byte[], byte[]>) connection.getNativeConnection());
+            if (!LettuceFutures.awaitAll(timeout, futures.toArray(new RedisFuture[0]))) {
+                throw new QueryTimeoutException("Redis did not answer within " + timeout);
+            }
+            List<Object> results = new ArrayList<>(futures.size());
+            for (RedisFuture<?> future : futures) {
+                results.add(future.get());
+            }
+            return results;
+        } catch (ExecutionException e) {
+            throw translate(e.getCause() instanceof Exception cause ? cause : e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RedisSystemException("Interrupted while waiting for Redis", e);
+        } catch (DataAccessException e) {
+            throw e;
+        } catch (RuntimeException e) {
+            throw translate(e);
+        }
+    }
+
+    /**
+     * Issues one command without waiting for it. The future completes with its result, or
+     * with a {@link DataAccessException}, once the reply is in or the timeout has passed.
+     */
+    @SuppressWarnings("unchecked")
+    public <T> CompletableFuture<T> executeAsync(Function<RedisClusterAsyncCommands<byte[], byte[]>, RedisFuture<T>> command) {
+        RedisConnection connection;
+        RedisFuture<T> future;
+        try {
+            connection = connectionFactory.getConnection();
+        } catch (RuntimeException e) {
+            return CompletableFuture.failedFuture(e instanceof DataAccessException ? e : translate(e));
+        }
+        try {
+            future = command.apply((RedisClusterAsyncCommands<byte[], byte[]>) connection.getNativeConnection());
+        } catch (RuntimeException e) {
+            connection.close();
+            return CompletableFuture.failedFuture(translate(e));
+        }
+        CompletableFuture<T> result = new CompletableFuture<>();
+        future.toCompletableFuture()
+                .orTimeout(timeout.toMillis(), TimeUnit.MILLISECONDS)
+                .whenComplete((value, error) -> {
+                    connection.close();
+                    if (error == null) {
+                        result.complete(value);
+                    } else if (error instanceof TimeoutException) {
+                        result.completeExceptionally(new QueryTimeoutException("Redis did not answer within " + timeout));
+                    } else {
+                        result.completeExceptionally(translate(error instanceof Exception e ? e : new RuntimeException(error)));
+                    }
+                });
+        return result;
+    }
+
+    private static DataAccessException translate(Exception e) {
+        DataAccessException translated = EXCEPTION_CONVERTER.convert(e);
+        return translated != null ? translated : new RedisSystemException(e.getMessage(), e);
+    }
+}
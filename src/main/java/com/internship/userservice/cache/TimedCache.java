@@ -0,0 +1,135 @@
+package com.internship.userservice.cache;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.cache.Cache;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Records the latency of cache operations as {@code cache.latency}, tagged with the
+ * cache name, the operation and, for lookups, whether it was a hit.
+ */
+public class TimedCache implements DelegatingCache {
+
+    private static final String METRIC = "cache.latency";
+
+    private final Cache delegate;
+    private final Timer hits;
+    private final Timer misses;
+    private final Timer loads;
+    private final Timer puts;
+    private final Timer evictions;
+    private final Timer clears;
+
+    public TimedCache(Cache delegate, MeterRegistry registry) {
+        this.delegate = delegate;
+        this.hits = timer(registry, "get", "hit");
+        this.misses = timer(registry, "get", "miss");
+        this.loads = timer(registry, "get", "load");
+        this.puts = timer(registry, "put", "none");
+        this.evictions = timer(registry, "evict", "none");
+        this.clears = timer(registry, "clear", "none");
+    }
+
+    private Timer timer(MeterRegistry registry, String operation, String result) {
+        return Timer.builder(METRIC)
+                .description("Latency of cache operations")
+                .tag("cache", delegate.getName())
+                .tag("operation", operation)
+                .tag("result", result)
+                .publishPercentileHistogram()
+                .register(registry);
+    }
+
+    @Override
+    public Cache getTargetCache() {
+        return delegate;
+    }
+
+    @Override
+    public String getName() {
+        return delegate.getName();
+    }
+
+    @Override
+    public Object getNativeCache() {
+        return delegate.getNativeCache();
+    }
+
+    @Override
+    public ValueWrapper get(Object key) {
+        long start = System.nanoTime();
+        ValueWrapper value = delegate.get(key);
+        record(value != null ? hits : misses, start);
+        return value;
+    }
+
+    @Override
+    public <T> T get(Object key, Class<T> type) {
+        long start = System.nanoTime();
+        T value = delegate.get(key, type);
+        record(value != null ? hits : misses, start);
+        return value;
+    }
+
+    @Override
+    public <T> T get(Object key, Callable<T> valueLoader) {
+        long start = System.nanoTime();
+        try {
+            return delegate.get(key, valueLoader);
+        } finally {
+            record(loads, start);
+        }
+    }
+
+    @Override
+    public void put(Object key, Object value) {
+        long start = System.nanoTime();
+        delegate.put(key, value);
+        record(puts, start);
+    }
+
+    @Override
+    public ValueWrapper putIfAbsent(Object key, Object value) {
+        long start = System.nanoTime();
+        ValueWrapper existing = delegate.putIfAbsent(key, value);
+        record(puts, start);
+        return existing;
+    }
+
+    @Override
+    public void evict(Object key) {
+        long start = System.nanoTime();
+        delegate.evict(key);
+        record(evictions, start);
+    }
+
+    @Override
+    public boolean evictIfPresent(Object key) {
+        long start = System.nanoTime();
+        boolean present = delegate.evictIfPresent(key);
+        record(evictions, start);
+        return present;
+    }
+
+    @Override
+    public void clear() {
+        long start = System.nanoTime();
+        delegate.clear();
+        record(clears, start);
+    }
+
+    @Override
+    public boolean invalidate() {
+        long start = System.nanoTime();
+        boolean invalidated = delegate.invalidate();
+        record(clears, start);
+        return invalidated;
+    }
+
+    private static void record(Timer timer, long start) {
+        timer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+    }
+}
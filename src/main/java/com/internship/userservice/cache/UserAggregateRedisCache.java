@@ -0,0 +1,225 @@
+package com.internship.userservice.cache;
+
+import com.internship.userservice.dto.card.CardInfoResponse;
+import com.internship.userservice.dto.user.UserResponse;
+import io.lettuce.core.RedisFuture;
+import io.lettuce.core.ScriptOutputType;
+import io.lettuce.core.cluster.api.async.RedisClusterAsyncCommands;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.data.redis.cache.CacheStatisticsCollector;
+import org.springframework.data.redis.cache.RedisCache;
+import org.springframework.data.redis.cache.RedisCacheConfiguration;
+import org.springframework.data.redis.cache.RedisCacheWriter;
+import org.springframework.data.redis.core.script.RedisScript;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Supplier;
+
+/**
+ * Cache of {@link UserResponse}s by user id, stored as an aggregate of two hashes in the
+ * slot of the user: {@code users::{<id>}} with the user without cards and the aggregate
+ * version, and the card list of {@link UserCardsCache}, one field per card.
+ * <p>
+ * Card changes patch their field and raise the version in one script instead of evicting
+ * the user, so the entry stays warm. Both keys are read and written by one script each, so
+ * an entry is never assembled from a user and a card list of different writes. Each key is
+ * only replaced by a write that is not older, as in {@link VersionedRedisCache}.
+ * <p>
+ * Lookups bypass the cache writer, so they record hits and misses themselves.
+ */
+public class UserAggregateRedisCache extends VersionedRedisCache {
+
+    private static final byte[] GET = script("redis/user-aggregate-get.lua");
+    private static final byte[] PUT = script("redis/user-aggregate-put.lua");
+
+    private final RedisPipeline pipeline;
+    private final CacheStatisticsCollector statistics;
+
+    public UserAggregateRedisCache(String name,
+                                   RedisCacheWriter cacheWriter,
+                                   RedisCacheConfiguration cacheConfiguration,
+                                   RedisPipeline pipeline,
+                                   CacheStatisticsCollector statistics) {
+        super(name, cacheWriter, cacheConfiguration, pipeline, null, null, true);
+        this.pipeline = pipeline;
+        this.statistics = statistics;
+    }
+
+    @Override
+    protected Object lookup(Object key) {
+        List<Object> reply = pipeline.execute(commands -> List.of(getAggregate(commands, key)));
+        return assemble(reply.get(0));
+    }
+
+    /**
+     * Reads all users with one script call per user in a single pipeline, which is split
+     * by node on a cluster.
+     */
+    @Override
+    public Map<Object, Object> getAll(Collection<?> keys) {
+        List<Object> distinctKeys = new ArrayList<>(new LinkedHashSet<>(keys));
+        if (distinctKeys.isEmpty()) {
+            return Map.of();
+        }
+        List<Object> replies = pipeline.execute(commands -> {
+            List<RedisFuture<?>> futures = new ArrayList<>(distinctKeys.size());
+            for (Object key : distinctKeys) {
+                futures.add(getAggregate(commands, key));
+            }
+            return futures;
+        });
+
+        Map<Object, Object> found = new LinkedHashMap<>();
+        for (int i = 0; i < replies.size(); i++) {
+            Object cached = assemble(replies.get(i));
+            if (cached != null) {
+                found.put(distinctKeys.get(i), fromStoreValue(cached));
+            }
+        }
+        return found;
+    }
+
+    /**
+     * Only versioned {@link UserResponse}s can be stored, the key holds a hash that a plain
+     * {@code SET} of {@link RedisCache} would fail on.
+     *
+     * @throws IllegalArgumentException for any other value
+     */
+    @Override
+    public void put(Object key, Object value) {
+        byte[][] args = putArgs(key, value);
+        byte[][] keys = keys(key);
+        pipeline.execute(commands -> List.of(commands.eval(PUT, ScriptOutputType.INTEGER, keys, args)));
+        statistics.incPuts(getName());
+    }
+
+    /**
+     * Not atomic: a concurrent put between the lookup and the write may be replaced, unless
+     * it is newer.
+     */
+    @Override
+    public ValueWrapper putIfAbsent(Object key, Object value) {
+        Object existing = lookup(key);
+        if (existing == null) {
+            put(key, value);
+        }
+        return toValueWrapper(existing);
+    }
+
+    @Override
+    public CompletableFuture<ValueWrapper> retrieve(Object key) {
+        return pipeline.executeAsync(commands -> getAggregate(commands, key))
+                .thenApply(reply -> toValueWrapper(assemble(reply)));
+    }
+
+    /**
+     * A loaded value is stored like {@link #put} before the future completes.
+     */
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> CompletableFuture<T> retrieve(Object key, Supplier<CompletableFuture<T>> valueLoader) {
+        return retrieve(key).thenCompose(cached -> cached != null
+                ? CompletableFuture.completedFuture((T) cached.get())
+                : valueLoader.get().thenCompose(value -> putAsync(key, value).thenApply(stored -> value)));
+    }
+
+    private CompletableFuture<Long> putAsync(Object key, Object value) {
+        byte[][] args;
+        try {
+            args = putArgs(key, value);
+        } catch (IllegalArgumentException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+        byte[][] keys = keys(key);
+        return pipeline.<Long>executeAsync(commands -> commands.eval(PUT, ScriptOutputType.INTEGER, keys, args))
+                .whenComplete((stored, error) -> {
+                    if (error == null) {
+                        statistics.incPuts(getName());
+                    }
+                });
+    }
+
+    /**
+     * The arguments of the put script: the user without cards, the version, the TTL in
+     * milliseconds and the id and value of each card.
+     */
+    private byte[][] putArgs(Object key, Object value) {
+        if (!(value instanceof UserResponse user) || user.getVersion() == null) {
+            throw new IllegalArgumentException("Cache '" + getName() + "' only stores versioned users, not "
+                    + (value != null ? value.getClass().getSimpleName() : "null"));
+        }
+        List<CardInfoResponse> cards = user.getCards() != null ? user.getCards() : List.of();
+        UserResponse profile = UserResponse.builder()
+                .id(user.getId())
+                .name(user.getName())
+                .surname(user.getSurname())
+                .birthDate(user.getBirthDate())
+                .email(user.getEmail())
+                .version(user.getVersion())
+                .build();
+        Duration ttl = getCacheConfiguration().getTtlFunction().getTimeToLive(key, value);
+
+        byte[][] args = new byte[3 + cards.size() * 2][];
+        args[0] = serializeCacheValue(profile);
+        args[1] = toBytes(user.getVersion());
+        args[2] = toBytes(ttl == null || ttl.isNegative() ? 0 : ttl.toMillis());
+        for (int i = 0; i < cards.size(); i++) {
+            args[3 + i * 2] = toBytes(cards.get(i).getId());
+            args[4 + i * 2] = serializeCacheValue(cards.get(i));
+        }
+        return args;
+    }
+
+    private RedisFuture<List<Object>> getAggregate(RedisClusterAsyncCommands<byte[], byte[]> commands, Object key) {
+        return commands.eval(GET, ScriptOutputType.MULTI, keys(key));
+    }
+
+    private byte[][] keys(Object key) {
+        return new byte[][]{
+                serializeCacheKey(createCacheKey(key)),
+                CacheKeys.userCards(key).getBytes(StandardCharsets.UTF_8)
+        };
+    }
+
+    /**
+     * The user with its cards ordered by id and the version of the aggregate, or
+     * {@code null} when the script found no complete entry.
+     */
+    @SuppressWarnings("unchecked")
+    private Object assemble(Object reply) {
+        statistics.incGets(getName());
+        List<Object> parts = (List<Object>) reply;
+        if (parts == null || parts.isEmpty()) {
+            statistics.incMisses(getName());
+            return null;
+        }
+        statistics.incHits(getName());
+        UserResponse user = (UserResponse) deserializeCacheValue((byte[]) parts.get(0));
+        user.setVersion(Long.valueOf(new String((byte[]) parts.get(1), StandardCharsets.UTF_8)));
+
+        List<byte[]> fields = (List<byte[]>) parts.get(2);
+        List<CardInfoResponse> cards = new ArrayList<>(fields.size() / 2);
+        for (int i = 0; i < fields.size(); i += 2) {
+            String field = new String(fields.get(i), StandardCharsets.UTF_8);
+            if (UserCardsCache.isCard(field, fields.get(i + 1))) {
+                cards.add((CardInfoResponse) deserializeCacheValue(fields.get(i + 1)));
+            }
+        }
+        cards.sort(Comparator.comparing(CardInfoResponse::getId));
+        user.setCards(cards);
+        return user;
+    }
+
+    private static byte[] script(String path) {
+        return RedisScript.of(new ClassPathResource(path)).getScriptAsString().getBytes(StandardCharsets.UTF_8);
+    }
+}
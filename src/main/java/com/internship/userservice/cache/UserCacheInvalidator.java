@@ -0,0 +1,171 @@
+package com.internship.userservice.cache;
+
+import com.internship.userservice.config.AppCacheProperties;
+import org.springframework.core.io.ClassPathResource;
+import io.lettuce.core.RedisFuture;
+import io.lettuce.core.ScriptOutputType;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Removes every cached copy of a user in two pipelined round trips.
+ * <p>
+ * Besides {@code users::{<id>}} a user may be cached under its email and credentials id,
+ * and the encoded response bodies of the user and its cards are stored too. Those
+ * secondary keys are recorded in a per-user index when they are written (see
+ * {@link VersionedRedisCache} and {@link EncodedBodyCache}), so they are found here without knowing the values they
+ * were cached under. The first round trip deletes the user's hash-tagged keys and reads
+ * the index with one script per user, the second deletes the indexed keys, which may
+ * live on other cluster nodes. Inside a transaction the eviction runs after commit, and
+ * it is repeated after the double-delete delay when that is enabled.
+ */
+@Component
+public class UserCacheInvalidator {
+
+    private static final byte[] EVICT_USER = RedisScript
+            .of(new ClassPathResource("redis/evict-user.lua"))
+            .getScriptAsString()
+            .getBytes(StandardCharsets.UTF_8);
+
+    private static final List<String> CACHES = List.of(
+            CacheKeys.USERS, CacheKeys.USERS_BY_EMAIL, CacheKeys.USERS_BY_CREDENTIALS_ID, CacheKeys.CARDS);
+
+    private final RedisPipeline pipeline;
+    private final ScheduledExecutorService scheduler;
+    private final RedisCircuitBreaker circuitBreaker;
+    private final Duration doubleDeleteDelay;
+
+    public UserCacheInvalidator(RedisPipeline redisPipeline,
+                                ScheduledExecutorService cacheScheduler,
+                                RedisCircuitBreaker circuitBreaker,
+                                AppCacheProperties cacheProperties) {
+        this.pipeline = redisPipeline;
+        this.scheduler = cacheScheduler;
+        this.circuitBreaker = circuitBreaker;
+        this.doubleDeleteDelay = cacheProperties.getDoubleDelete().isEnabled()
+                ? cacheProperties.getDoubleDelete().getDelay()
+                : null;
+    }
+
+    /**
+     * Evicts indexed secondary entries and the given emails, keeping {@code users::<id>},
+     * which the caller is about to replace.
+     */
+    public void evictSecondaryKeys(Long userId, String... emails) {
+        evictSecondaryKeys(userId, Arrays.asList(emails), List.of());
+    }
+
+    /**
+     * Evicts indexed secondary entries, the given emails and cards, keeping
+     * {@code users::<id>} and the card list, which card changes patch in place
+     * (see {@link UserCardsCache}).
+     */
+    public void evictSecondaryKeys(Long userId, Collection<String> emails, Collection<Long> cardIds) {
+        submit(List.of(List.of(CacheKeys.userIndex(userId))), plainKeys(emails, cardIds));
+    }
+
+    /**
+     * Evicts everything cached for the given users, including their card lists, plus the
+     * given emails and cards.
+     */
+    public void evictAll(Collection<Long> userIds, Collection<String> emails, Collection<Long> cardIds) {
+        List<List<String>> userKeys = new ArrayList<>(userIds.size());
+        for (Long userId : userIds) {
+            userKeys.add(List.of(CacheKeys.userIndex(userId), CacheKeys.user(userId), CacheKeys.userCards(userId)));
+        }
+        submit(userKeys, plainKeys(emails, cardIds));
+    }
+
+    private static List<String> plainKeys(Collection<String> emails, Collection<Long> cardIds) {
+        List<String> keys = new ArrayList<>(emails.size() + cardIds.size());
+        emails.stream()
+                .filter(Objects::nonNull)
+                .forEach(email -> keys.add(CacheKeys.of(CacheKeys.USERS_BY_EMAIL, email)));
+        cardIds.forEach(cardId -> keys.add(CacheKeys.of(CacheKeys.CARDS, cardId)));
+        return keys;
+    }
+
+    private void submit(List<List<String>> userKeys, List<String> plainKeys) {
+        if (userKeys.isEmpty() && plainKeys.isEmpty()) {
+            return;
+        }
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    evictAndRepeat(userKeys, plainKeys);
+                }
+            });
+        } else {
+            evictAndRepeat(userKeys, plainKeys);
+        }
+    }
+
+    private void evictAndRepeat(List<List<String>> userKeys, List<String> plainKeys) {
+        evict(userKeys, plainKeys);
+        if (doubleDeleteDelay != null) {
+            scheduler.schedule(() -> evict(userKeys, plainKeys), doubleDeleteDelay.toMillis(), TimeUnit.MILLISECONDS);
+        }
+    }
+
+    /**
+     * An eviction that is rejected by the circuit breaker or fails is not retried; the
+     * caches are cleared instead once Redis is back, see {@link RedisCircuitBreaker}.
+     */
+    private void evict(List<List<String>> userKeys, List<String> plainKeys) {
+        if (!circuitBreaker.tryAcquire()) {
+            circuitBreaker.markStale(CACHES);
+            return;
+        }
+        try {
+            evictPipelined(userKeys, plainKeys);
+            circuitBreaker.onSuccess();
+        } catch (DataAccessException e) {
+            circuitBreaker.onFailure();
+            circuitBreaker.markStale(CACHES);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private void evictPipelined(List<List<String>> userKeys, List<String> plainKeys) {
+        List<Object> results = pipeline.execute(commands -> {
+            List<RedisFuture<?>> futures = new ArrayList<>(userKeys.size() + 1);
+            for (List<String> keys : userKeys) {
+                futures.add(commands.eval(EVICT_USER, ScriptOutputType.MULTI, toBytes(keys)));
+            }
+            if (!plainKeys.isEmpty()) {
+                futures.add(commands.del(toBytes(plainKeys)));
+            }
+            return futures;
+        });
+
+        List<byte[]> indexedKeys = new ArrayList<>();
+        for (int i = 0; i < userKeys.size(); i++) {
+            indexedKeys.addAll((List<byte[]>) results.get(i));
+        }
+        if (!indexedKeys.isEmpty()) {
+            pipeline.execute(commands -> List.of(commands.del(indexedKeys.toArray(new byte[0][]))));
+        }
+    }
+
+    private static byte[][] toBytes(List<String> keys) {
+        byte[][] bytes = new byte[keys.size()][];
+        for (int i = 0; i < keys.size(); i++) {
+            bytes[i] = keys.get(i).getBytes(StandardCharsets.UTF_8);
+        }
+        return bytes;
+    }
+}
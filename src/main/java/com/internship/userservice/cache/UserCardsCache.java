@@ -0,0 +1,189 @@
+package com.internship.userservice.cache;
+
+import com.internship.userservice.config.AppCacheProperties;
+import com.internship.userservice.config.RedisConfig;
+import com.internship.userservice.dto.card.CardInfoResponse;
+import io.lettuce.core.ScriptOutputType;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * The card list of a user, kept as a Redis hash under {@link CacheKeys#userCards}: one
+ * field per card with the serialized card, {@code v} with the user version the list is
+ * valid for, and {@code complete} once the whole list has been loaded.
+ * <p>
+ * Card changes patch a single field after commit instead of dropping the list. A field is
+ * only replaced by a newer card version, and a deleted card leaves a versioned tombstone,
+ * so patches may arrive in any order. A patch that finds no complete list only raises
+ * {@code v}; a list loaded from an older snapshot is then not stored. Every card change
+ * bumps the user version, which is why it orders the snapshots.
+ * <p>
+ * Redis failures are misses. A patch that is lost to an outage marks the {@code cards}
+ * cache, which these hashes belong to, and the {@code users} cache, whose aggregates
+ * include them, for clearing (see {@link RedisCircuitBreaker}).
+ */
+@Slf4j
+@Component
+public class UserCardsCache {
+
+    private static final byte[] FILL = script("redis/user-cards-fill.lua");
+    private static final byte[] PATCH = script("redis/user-cards-patch.lua");
+
+    private static final String VERSION_FIELD = "v";
+    private static final String COMPLETE_FIELD = "complete";
+    private static final String TOMBSTONE_PREFIX = "deleted:";
+
+    private static final List<String> STALE_ON_FAILURE = List.of(CacheKeys.CARDS, CacheKeys.USERS);
+
+    private final RedisPipeline pipeline;
+    private final RedisCircuitBreaker circuitBreaker;
+    private final RedisSerializer<Object> serializer = RedisConfig.cacheValueSerializer();
+    private final byte[] ttlArg;
+
+    public UserCardsCache(RedisPipeline redisPipeline,
+                          RedisCircuitBreaker circuitBreaker,
+                          AppCacheProperties cacheProperties) {
+        this.pipeline = redisPipeline;
+        this.circuitBreaker = circuitBreaker;
+        this.ttlArg = toBytes(cacheProperties.getTtl().toMillis());
+    }
+
+    /**
+     * The cards of the user ordered by id, or {@code null} when the list is not cached.
+     */
+    @SuppressWarnings("unchecked")
+    public List<CardInfoResponse> get(Long userId) {
+        byte[] key = CacheKeys.userCards(userId).getBytes(StandardCharsets.UTF_8);
+        Map<byte[], byte[]> fields = call(() -> (Map<byte[], byte[]>) pipeline
+                .execute(commands -> List.of(commands.hgetall(key)))
+                .get(0));
+        if (fields == null) {
+            return null;
+        }
+        boolean complete = false;
+        List<CardInfoResponse> cards = new ArrayList<>(fields.size());
+        for (Map.Entry<byte[], byte[]> field : fields.entrySet()) {
+            String name = new String(field.getKey(), StandardCharsets.UTF_8);
+            if (COMPLETE_FIELD.equals(name)) {
+                complete = true;
+            } else if (isCard(name, field.getValue())) {
+                cards.add((CardInfoResponse) serializer.deserialize(field.getValue()));
+            }
+        }
+        if (!complete) {
+            return null;
+        }
+        cards.sort(Comparator.comparing(CardInfoResponse::getId));
+        return cards;
+    }
+
+    /**
+     * Stores the whole list, read from the database at the given user version.
+     */
+    public void fill(Long userId, long userVersion, List<CardInfoResponse> cards) {
+        byte[][] args = new byte[2 + cards.size() * 2][];
+        args[0] = toBytes(userVersion);
+        args[1] = ttlArg;
+        for (int i = 0; i < cards.size(); i++) {
+            CardInfoResponse card = cards.get(i);
+            args[2 + i * 2] = toBytes(card.getId());
+            args[3 + i * 2] = serializer.serialize(card);
+        }
+        byte[][] keys = {CacheKeys.userCards(userId).getBytes(StandardCharsets.UTF_8)};
+        call(() -> pipeline.execute(commands -> List.of(commands.eval(FILL, ScriptOutputType.INTEGER, keys, args))));
+    }
+
+    /**
+     * Adds or replaces the card after commit. {@code userVersion} is read then, when the
+     * bumped version of the owner is known.
+     */
+    public void putCard(CardInfoResponse card, Supplier<Long> userVersion) {
+        afterCommit(() -> patch(card.getUserId(), userVersion.get(), card.getId(), card.getVersion(),
+                serializer.serialize(card)));
+    }
+
+    /**
+     * Replaces the card by a tombstone after commit.
+     *
+     * @param deletedVersion a version above the last version of the card
+     */
+    public void removeCard(Long userId, Long cardId, long deletedVersion, Supplier<Long> userVersion) {
+        afterCommit(() -> patch(userId, userVersion.get(), cardId, deletedVersion, new byte[0]));
+    }
+
+    /**
+     * Also raises the version of the cached user aggregate, which includes the list (see
+     * {@link UserAggregateRedisCache}), so its copies in other processes are invalidated.
+     */
+    private void patch(Long userId, long userVersion, Long cardId, long cardVersion, byte[] card) {
+        byte[][] keys = {
+                CacheKeys.userCards(userId).getBytes(StandardCharsets.UTF_8),
+                CacheKeys.user(userId).getBytes(StandardCharsets.UTF_8)
+        };
+        byte[][] args = {toBytes(userVersion), ttlArg, toBytes(cardId), toBytes(cardVersion), card};
+        if (call(() -> pipeline.execute(commands -> List.of(commands.eval(PATCH, ScriptOutputType.INTEGER, keys, args)))) == null) {
+            circuitBreaker.markStale(STALE_ON_FAILURE);
+        }
+    }
+
+    private static void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+
+    private <T> T call(Supplier<T> operation) {
+        if (!circuitBreaker.tryAcquire()) {
+            return null;
+        }
+        try {
+            T result = operation.get();
+            circuitBreaker.onSuccess();
+            return result;
+        } catch (DataAccessException e) {
+            circuitBreaker.onFailure();
+            log.debug("Card list cache call failed: {}", e.toString());
+            return null;
+        }
+    }
+
+    /**
+     * Whether the field of a card list hash holds a card, rather than bookkeeping or a tombstone.
+     */
+    static boolean isCard(String field, byte[] value) {
+        return !VERSION_FIELD.equals(field) && !COMPLETE_FIELD.equals(field) && !isTombstone(value);
+    }
+
+    private static boolean isTombstone(byte[] value) {
+        return new String(value, 0, Math.min(value.length, TOMBSTONE_PREFIX.length()), StandardCharsets.UTF_8)
+                .equals(TOMBSTONE_PREFIX);
+    }
+
+    private static byte[] toBytes(long value) {
+        return Long.toString(value).getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static byte[] script(String path) {
+        return RedisScript.of(new ClassPathResource(path)).getScriptAsString().getBytes(StandardCharsets.UTF_8);
+    }
+}
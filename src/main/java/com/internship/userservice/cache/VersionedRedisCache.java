@@ -0,0 +1,153 @@
+package com.internship.userservice.cache;
+
+import io.lettuce.core.KeyValue;
+import io.lettuce.core.RedisFuture;
+import io.lettuce.core.ScriptOutputType;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.data.redis.cache.RedisCache;
+import org.springframework.data.redis.cache.RedisCacheConfiguration;
+import org.springframework.data.redis.cache.RedisCacheWriter;
+import org.springframework.data.redis.core.script.RedisScript;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Redis cache that never replaces an entry with an older version of the same row.
+ * When a version function is set, writes of values it returns a version for go through
+ * a Lua compare-and-set, so a slow transaction can't overwrite data that a faster one
+ * has already cached.
+ * <p>
+ * When an index owner function is set, every written key is also added to the owner's
+ * reverse index ({@link CacheKeys#userIndex}), so {@link UserCacheInvalidator} can drop
+ * entries cached under values it no longer knows, like a previous email. The index is
+ * usually in another cluster slot than the entry, so it is updated by a separate command
+ * in the same pipeline, before the entry. An eviction that runs between the two may miss
+ * the new entry; the delayed second eviction of {@link DoubleDeleteCache} removes it.
+ * <p>
+ * Keys of a hash-tagged cache are wrapped in a {@link CacheKeys#hashTag}.
+ */
+public class VersionedRedisCache extends RedisCache {
+
+    private static final byte[] PUT_IF_NEWER = RedisScript
+            .of(new ClassPathResource("redis/put-if-newer.lua"))
+            .getScriptAsString()
+            .getBytes(StandardCharsets.UTF_8);
+
+    private final RedisPipeline pipeline;
+    private final Function<Object, Long> versionOf;
+    private final Function<Object, Object> indexOwner;
+    private final boolean hashTagged;
+
+    public VersionedRedisCache(String name,
+                               RedisCacheWriter cacheWriter,
+                               RedisCacheConfiguration cacheConfiguration,
+                               RedisPipeline pipeline) {
+        this(name, cacheWriter, cacheConfiguration, pipeline, null, null, false);
+    }
+
+    public VersionedRedisCache(String name,
+                               RedisCacheWriter cacheWriter,
+                               RedisCacheConfiguration cacheConfiguration,
+                               RedisPipeline pipeline,
+                               Function<Object, Long> versionOf,
+                               Function<Object, Object> indexOwner,
+                               boolean hashTagged) {
+        super(name, cacheWriter, cacheConfiguration);
+        this.pipeline = pipeline;
+        this.versionOf = versionOf;
+        this.indexOwner = indexOwner;
+        this.hashTagged = hashTagged;
+    }
+
+    /**
+     * The Redis key the entry for {@code key} is stored under.
+     */
+    public String redisKey(Object key) {
+        return createCacheKey(key);
+    }
+
+    @Override
+    protected String createCacheKey(Object key) {
+        return super.createCacheKey(hashTagged ? CacheKeys.hashTag(key) : key);
+    }
+
+    /**
+     * The pattern is matched against whole keys, so it is not wrapped in a hash tag.
+     */
+    @Override
+    public void clear(String keyPattern) {
+        getCacheWriter().clean(getName(), serializeCacheKey(super.createCacheKey(keyPattern)));
+    }
+
+    @Override
+    public void put(Object key, Object value) {
+        Long rowVersion = versionOf != null && value != null ? versionOf.apply(value) : null;
+        if (rowVersion == null) {
+            super.put(key, value);
+            return;
+        }
+
+        byte[] cacheKey = serializeCacheKey(createCacheKey(key));
+        byte[] cacheValue = serializeCacheValue(toStoreValue(value));
+        Duration ttl = getCacheConfiguration().getTtlFunction().getTimeToLive(key, value);
+        long ttlMillis = ttl == null || ttl.isNegative() ? 0 : ttl.toMillis();
+        byte[] version = toBytes(rowVersion);
+        byte[] ttlArg = toBytes(ttlMillis);
+
+        Object owner = indexOwner != null ? indexOwner.apply(value) : null;
+        pipeline.execute(commands -> {
+            List<RedisFuture<?>> futures = new ArrayList<>(3);
+            if (owner != null) {
+                byte[] indexKey = CacheKeys.userIndex(owner).getBytes(StandardCharsets.UTF_8);
+                futures.add(commands.sadd(indexKey, cacheKey));
+                if (ttlMillis > 0) {
+                    futures.add(commands.pexpire(indexKey, ttlMillis));
+                }
+            }
+            futures.add(commands.eval(PUT_IF_NEWER, ScriptOutputType.INTEGER,
+                    new byte[][]{cacheKey}, cacheValue, version, ttlArg));
+            return futures;
+        });
+    }
+
+    /**
+     * Looks up several keys with one {@code MGET}, which is split by slot on a cluster.
+     * Returns the values found, by key, in the order of {@code keys}.
+     */
+    @SuppressWarnings("unchecked")
+    public Map<Object, Object> getAll(Collection<?> keys) {
+        List<Object> distinctKeys = new ArrayList<>(new LinkedHashSet<>(keys));
+        if (distinctKeys.isEmpty()) {
+            return Map.of();
+        }
+        byte[][] rawKeys = new byte[distinctKeys.size()][];
+        for (int i = 0; i < rawKeys.length; i++) {
+            rawKeys[i] = serializeCacheKey(createCacheKey(distinctKeys.get(i)));
+        }
+        List<KeyValue<byte[], byte[]>> values = (List<KeyValue<byte[], byte[]>>) pipeline
+                .execute(commands -> List.of(commands.mget(rawKeys)))
+                .get(0);
+
+        Map<Object, Object> found = new LinkedHashMap<>();
+        for (int i = 0; i < values.size(); i++) {
+            KeyValue<byte[], byte[]> value = values.get(i);
+            Object cached = value.hasValue() ? fromStoreValue(deserializeCacheValue(value.getValue())) : null;
+            if (cached != null) {
+                found.put(distinctKeys.get(i), cached);
+            }
+        }
+        return found;
+    }
+
+    static byte[] toBytes(long value) {
+        return Long.toString(value).getBytes(StandardCharsets.UTF_8);
+    }
+}
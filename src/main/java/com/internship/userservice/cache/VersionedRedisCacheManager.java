@@ -0,0 +1,153 @@
+package com.internship.userservice.cache;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.cache.Cache;
+import org.springframework.data.redis.cache.CacheStatisticsCollector;
+import org.springframework.data.redis.cache.RedisCache;
+import org.springframework.data.redis.cache.RedisCacheConfiguration;
+import org.springframework.data.redis.cache.RedisCacheManager;
+import org.springframework.data.redis.cache.RedisCacheWriter;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.function.Function;
+
+/**
+ * {@link RedisCacheManager} that creates {@link VersionedRedisCache} instances.
+ * Caches are transaction-aware: puts and evictions issued inside a transaction
+ * reach Redis only after commit and are dropped on rollback.
+ */
+public class VersionedRedisCacheManager extends RedisCacheManager {
+
+    private final RedisPipeline pipeline;
+    private Duration doubleDeleteDelay;
+    private ScheduledExecutorService doubleDeleteScheduler;
+    private final Map<String, Function<Object, Long>> versions = new HashMap<>();
+    private final Map<String, Function<Object, Object>> indexOwners = new HashMap<>();
+    private final Set<String> hashTaggedCaches = new HashSet<>();
+    private String userAggregateCache;
+    private CacheStatisticsCollector userAggregateStatistics;
+    private MeterRegistry meterRegistry;
+    private boolean flightRecorderEvents;
+    private RedisCircuitBreaker circuitBreaker;
+    private NearCacheStore nearCacheStore;
+    private Set<String> nearCacheNames = Set.of();
+
+    public VersionedRedisCacheManager(RedisPipeline pipeline,
+                                      RedisCacheWriter cacheWriter,
+                                      RedisCacheConfiguration defaultCacheConfiguration,
+                                      String... initialCacheNames) {
+        super(cacheWriter, defaultCacheConfiguration, initialCacheNames);
+        this.pipeline = pipeline;
+        setTransactionAware(true);
+    }
+
+    /**
+     * Repeats every eviction after the given delay, see {@link DoubleDeleteCache}.
+     */
+    public void setDoubleDelete(ScheduledExecutorService scheduler, Duration delay) {
+        this.doubleDeleteScheduler = scheduler;
+        this.doubleDeleteDelay = delay;
+    }
+
+    /**
+     * Writes entries of the given cache only when the row version returned by
+     * {@code version} for the cached value is not older than the stored one. Values
+     * it returns {@code null} for are written unconditionally.
+     */
+    public void versionEntries(String cacheName, Function<Object, Long> version) {
+        versions.put(cacheName, version);
+    }
+
+    /**
+     * Records keys written to the given cache in the reverse index of the owner
+     * returned by {@code owner} for the cached value.
+     */
+    public void indexEntries(String cacheName, Function<Object, Object> owner) {
+        indexOwners.put(cacheName, owner);
+    }
+
+    /**
+     * Wraps the keys of the given cache in a {@link CacheKeys#hashTag}, so on Redis Cluster
+     * each entry shares its slot with the other keys tagged with the same id.
+     */
+    public void hashTagKeys(String cacheName) {
+        hashTaggedCaches.add(cacheName);
+    }
+
+    /**
+     * Stores the given cache of users by id as user aggregates, whose cards are patched in
+     * place, see {@link UserAggregateRedisCache}. Its lookups record to {@code statistics},
+     * which should be the collector of the cache writer.
+     */
+    public void storeUserAggregates(String cacheName, CacheStatisticsCollector statistics) {
+        this.userAggregateCache = cacheName;
+        this.userAggregateStatistics = statistics;
+    }
+
+    /**
+     * Times every cache operation, see {@link TimedCache}.
+     */
+    public void setMeterRegistry(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    /**
+     * Emits a JFR event for every cache operation, see {@link JfrCache}.
+     */
+    public void setFlightRecorderEvents(boolean flightRecorderEvents) {
+        this.flightRecorderEvents = flightRecorderEvents;
+    }
+
+    /**
+     * Bypasses Redis while it fails, see {@link CircuitBreakerCache}.
+     */
+    public void setCircuitBreaker(RedisCircuitBreaker circuitBreaker) {
+        this.circuitBreaker = circuitBreaker;
+    }
+
+    /**
+     * Keeps entries of the given caches in process memory as well, see {@link NearCache}.
+     */
+    public void setNearCache(NearCacheStore store, Collection<String> cacheNames) {
+        this.nearCacheStore = store;
+        this.nearCacheNames = Set.copyOf(cacheNames);
+    }
+
+    @Override
+    protected RedisCache createRedisCache(String name, RedisCacheConfiguration cacheConfiguration) {
+        RedisCacheConfiguration config = cacheConfiguration != null
+                ? cacheConfiguration
+                : getDefaultCacheConfiguration();
+        if (name.equals(userAggregateCache)) {
+            return new UserAggregateRedisCache(name, getCacheWriter(), config, pipeline, userAggregateStatistics);
+        }
+        return new VersionedRedisCache(name, getCacheWriter(), config, pipeline,
+                versions.get(name), indexOwners.get(name), hashTaggedCaches.contains(name));
+    }
+
+    @Override
+    protected Cache decorateCache(Cache cache) {
+        Cache decorated = meterRegistry != null ? new TimedCache(cache, meterRegistry) : cache;
+        if (flightRecorderEvents) {
+            decorated = new JfrCache(decorated);
+        }
+        if (circuitBreaker != null) {
+            decorated = new CircuitBreakerCache(decorated, circuitBreaker);
+        }
+        if (nearCacheStore != null && nearCacheNames.contains(cache.getName())
+                && cache instanceof VersionedRedisCache redisCache) {
+            decorated = new NearCache(decorated, nearCacheStore,
+                    redisCache.getCacheConfiguration().getValueSerializationPair(), redisCache::redisKey);
+        }
+        if (doubleDeleteDelay != null) {
+            decorated = new DoubleDeleteCache(decorated, doubleDeleteScheduler, doubleDeleteDelay);
+        }
+        return super.decorateCache(decorated);
+    }
+}
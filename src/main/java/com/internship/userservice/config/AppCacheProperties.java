@@ -0,0 +1,104 @@
+package com.internship.userservice.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import com.internship.userservice.cache.CacheKeys;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+import java.util.List;
+
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "app.cache")
+public class AppCacheProperties {
+
+    private Duration ttl = Duration.ofHours(24);
+
+    private DoubleDelete doubleDelete = new DoubleDelete();
+
+    private Invalidation invalidation = new Invalidation();
+
+    private Precompressed precompressed = new Precompressed();
+
+    private CircuitBreaker circuitBreaker = new CircuitBreaker();
+
+    private Near near = new Near();
+
+    @Getter
+    @Setter
+    public static class DoubleDelete {
+
+        /** Repeat every eviction once more after {@link #delay}. */
+        private boolean enabled = true;
+
+        /** Should exceed the longest read-then-cache window of a concurrent request. */
+        private Duration delay = Duration.ofMillis(500);
+    }
+
+    @Getter
+    @Setter
+    public static class Invalidation {
+
+        /** Listen for database-side changes recorded in the cache_outbox table. */
+        private boolean enabled = true;
+
+        private int batchSize = 500;
+
+        /** Outbox is polled at least this often, even without notifications. */
+        private Duration pollInterval = Duration.ofSeconds(5);
+
+        private Duration reconnectDelay = Duration.ofSeconds(5);
+
+        /** Processed outbox rows older than this are deleted. */
+        private Duration retention = Duration.ofDays(1);
+    }
+
+    @Getter
+    @Setter
+    public static class Precompressed {
+
+        /** Keep the encoded JSON of single-entity GET responses in Redis, see PrecompressedBodyAdvice. */
+        private boolean enabled = false;
+
+        /** Smaller bodies are kept uncompressed. */
+        private int minSize = 2048;
+    }
+
+    @Getter
+    @Setter
+    public static class CircuitBreaker {
+
+        /** Share of failed calls in the window that opens the breaker. */
+        private double failureRateThreshold = 0.5;
+
+        /** Number of most recent calls the failure rate is computed over. */
+        private int slidingWindowSize = 50;
+
+        /** No decision is made on fewer calls. */
+        private int minimumCalls = 10;
+
+        /** Time Redis is bypassed before trial calls are let through. */
+        private Duration waitDuration = Duration.ofSeconds(10);
+
+        private int permittedCallsInHalfOpenState = 3;
+    }
+
+    @Getter
+    @Setter
+    public static class Near {
+
+        /** Keep entries in process memory, invalidated through Redis key tracking (RESP3). */
+        private boolean enabled = false;
+
+        private List<String> caches = List.of(CacheKeys.USERS, CacheKeys.USERS_BY_EMAIL, CacheKeys.CARDS);
+
+        /** Bound on the serialized keys and values held locally, across all caches. */
+        private DataSize maximumSize = DataSize.ofMegabytes(64);
+
+        /** Local copies are dropped after this even without an invalidation. */
+        private Duration ttl = Duration.ofMinutes(10);
+    }
+}
@@ -0,0 +1,59 @@
+package com.internship.userservice.config;
+
+import com.internship.userservice.cache.VersionedRedisCacheManager;
+import com.internship.userservice.jfr.JfrAspect;
+import com.internship.userservice.jfr.JfrMappingJackson2HttpMessageConverter;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import java.util.List;
+
+/**
+ * Custom JDK Flight Recorder events for cache operations, repository calls, DTO mapping
+ * and response serialization. Events are only recorded while a recording with them
+ * enabled is running, see {@code jfr/user-service.jfc}.
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "app.jfr", name = "enabled", havingValue = "true")
+public class JfrConfig {
+
+    /**
+     * Runs before {@code afterPropertiesSet}, where the initial caches are created.
+     */
+    @Bean
+    public static BeanPostProcessor jfrCacheEvents() {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessBeforeInitialization(Object bean, String beanName) {
+                if (bean instanceof VersionedRedisCacheManager cacheManager) {
+                    cacheManager.setFlightRecorderEvents(true);
+                }
+                return bean;
+            }
+        };
+    }
+
+    @Bean
+    public JfrAspect jfrAspect() {
+        return new JfrAspect();
+    }
+
+    @Bean
+    public WebMvcConfigurer jfrMessageConverter() {
+        return new WebMvcConfigurer() {
+            @Override
+            public void extendMessageConverters(List<HttpMessageConverter<?>> converters) {
+                converters.replaceAll(converter ->
+                        converter instanceof MappingJackson2HttpMessageConverter jackson
+                                && !(converter instanceof JfrMappingJackson2HttpMessageConverter)
+                                ? new JfrMappingJackson2HttpMessageConverter(jackson.getObjectMapper())
+                                : converter);
+            }
+        };
+    }
+}
@@ -0,0 +1,24 @@
+package com.internship.userservice.config;
+
+import com.internship.userservice.cache.DelegatingCacheMeterBinderProvider;
+import io.micrometer.core.aop.TimedAspect;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+public class MetricsConfig {
+
+    /**
+     * Enables {@code @Timed} on service classes.
+     */
+    @Bean
+    public TimedAspect timedAspect(MeterRegistry meterRegistry) {
+        return new TimedAspect(meterRegistry);
+    }
+
+    @Bean
+    public DelegatingCacheMeterBinderProvider delegatingCacheMeterBinderProvider() {
+        return new DelegatingCacheMeterBinderProvider();
+    }
+}
@@ -6,26 +6,155 @@ import com.fasterxml.jackson.annotation.PropertyAccessor;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.SerializationFeature;
 import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.internship.userservice.cache.CacheKeys;
+import com.internship.userservice.cache.ClusterScanBatchStrategy;
+import com.internship.userservice.cache.MeteredCacheErrorHandler;
+import com.internship.userservice.cache.NearCacheStore;
+import com.internship.userservice.cache.RedisCircuitBreaker;
+import com.internship.userservice.cache.RedisPipeline;
+import com.internship.userservice.cache.VersionedRedisCacheManager;
+import com.internship.userservice.dto.card.CardInfoResponse;
+import com.internship.userservice.dto.user.UserResponse;
+import io.lettuce.core.RedisURI;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.data.redis.RedisConnectionDetails;
+import org.springframework.boot.autoconfigure.data.redis.RedisProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.CachingConfigurer;
 import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.cache.interceptor.CacheErrorHandler;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.context.annotation.Primary;
+import org.springframework.data.redis.cache.CacheStatisticsCollector;
 import org.springframework.data.redis.cache.RedisCacheConfiguration;
-import org.springframework.data.redis.cache.RedisCacheManager;
+import org.springframework.data.redis.cache.RedisCacheWriter;
 import org.springframework.data.redis.connection.RedisConnectionFactory;
 import org.springframework.data.redis.serializer.GenericJackson2JsonRedisSerializer;
 import org.springframework.data.redis.serializer.RedisSerializationContext;
+import org.springframework.data.redis.serializer.RedisSerializer;
 
-import java.time.Duration;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
 
 @Configuration
 @EnableCaching
-public class RedisConfig {
+@EnableConfigurationProperties(AppCacheProperties.class)
+public class RedisConfig implements CachingConfigurer {
+
+    private final ObjectProvider<MeterRegistry> meterRegistry;
+
+    public RedisConfig(ObjectProvider<MeterRegistry> meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    /**
+     * Cache failures are logged and skipped instead of failing the request.
+     */
+    @Override
+    public CacheErrorHandler errorHandler() {
+        return new MeteredCacheErrorHandler(meterRegistry);
+    }
+
+    @Bean(destroyMethod = "shutdownNow")
+    public ScheduledExecutorService cacheScheduler() {
+        return Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "cache-scheduler");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @Bean
+    public RedisPipeline redisPipeline(RedisConnectionFactory redisConnectionFactory) {
+        return new RedisPipeline(redisConnectionFactory);
+    }
+
+    @Bean
+    public RedisCircuitBreaker redisCircuitBreaker(AppCacheProperties cacheProperties,
+                                                   ScheduledExecutorService cacheScheduler) {
+        return new RedisCircuitBreaker(cacheProperties.getCircuitBreaker(), cacheScheduler);
+    }
+
+    /**
+     * Client-side caching needs its own RESP3 connection, which receives the invalidations.
+     */
+    @Bean(initMethod = "start")
+    @ConditionalOnProperty(prefix = "app.cache.near", name = "enabled", havingValue = "true")
+    public NearCacheStore nearCacheStore(RedisConnectionDetails connectionDetails,
+                                         RedisProperties redisProperties,
+                                         AppCacheProperties cacheProperties,
+                                         ScheduledExecutorService cacheScheduler) {
+        AppCacheProperties.Near near = cacheProperties.getNear();
+        if (connectionDetails.getCluster() != null) {
+            return new NearCacheStore(null, near.getCaches(), near, cacheScheduler);
+        }
+        RedisConnectionDetails.Standalone standalone = connectionDetails.getStandalone();
+        RedisURI.Builder uri = RedisURI.builder()
+                .withHost(standalone.getHost())
+                .withPort(standalone.getPort())
+                .withDatabase(standalone.getDatabase());
+        if (connectionDetails.getPassword() != null) {
+            uri.withAuthentication(connectionDetails.getUsername(), connectionDetails.getPassword().toCharArray());
+        }
+        if (redisProperties.getTimeout() != null) {
+            uri.withTimeout(redisProperties.getTimeout());
+        }
+        return new NearCacheStore(uri.build(), near.getCaches(), near, cacheScheduler);
+    }
 
     @Bean
     @Primary
-    public CacheManager cacheManager(RedisConnectionFactory redisConnectionFactory) {
+    public CacheManager cacheManager(RedisConnectionFactory redisConnectionFactory,
+                                     RedisPipeline redisPipeline,
+                                     AppCacheProperties cacheProperties,
+                                     ScheduledExecutorService cacheScheduler,
+                                     RedisCircuitBreaker redisCircuitBreaker,
+                                     ObjectProvider<NearCacheStore> nearCacheStore) {
+        RedisCacheConfiguration cacheConfig = RedisCacheConfiguration.defaultCacheConfig()
+                .serializeValuesWith(RedisSerializationContext.SerializationPair.fromSerializer(cacheValueSerializer()))
+                .entryTtl(cacheProperties.getTtl());
+
+        CacheStatisticsCollector cacheStatistics = CacheStatisticsCollector.create();
+        VersionedRedisCacheManager cacheManager = new VersionedRedisCacheManager(
+                redisPipeline,
+                RedisCacheWriter.nonLockingRedisCacheWriter(redisConnectionFactory, new ClusterScanBatchStrategy(1000))
+                        .withStatisticsCollector(cacheStatistics),
+                cacheConfig,
+                CacheKeys.USERS, CacheKeys.USERS_BY_EMAIL, CacheKeys.USERS_BY_CREDENTIALS_ID, CacheKeys.CARDS
+        );
+        cacheManager.hashTagKeys(CacheKeys.USERS);
+        cacheManager.storeUserAggregates(CacheKeys.USERS, cacheStatistics);
+        cacheManager.versionEntries(CacheKeys.USERS_BY_EMAIL, RedisConfig::userVersion);
+        cacheManager.versionEntries(CacheKeys.USERS_BY_CREDENTIALS_ID, RedisConfig::userVersion);
+        cacheManager.versionEntries(CacheKeys.CARDS, RedisConfig::cardVersion);
+        cacheManager.indexEntries(CacheKeys.USERS_BY_EMAIL, value -> ((UserResponse) value).getId());
+        cacheManager.indexEntries(CacheKeys.USERS_BY_CREDENTIALS_ID, value -> ((UserResponse) value).getId());
+        meterRegistry.ifAvailable(cacheManager::setMeterRegistry);
+        cacheManager.setCircuitBreaker(redisCircuitBreaker);
+        nearCacheStore.ifAvailable(store -> cacheManager.setNearCache(store, cacheProperties.getNear().getCaches()));
+        if (cacheProperties.getDoubleDelete().isEnabled()) {
+            cacheManager.setDoubleDelete(cacheScheduler, cacheProperties.getDoubleDelete().getDelay());
+        }
+        return cacheManager;
+    }
+
+    private static Long userVersion(Object value) {
+        return value instanceof UserResponse user ? user.getVersion() : null;
+    }
+
+    private static Long cardVersion(Object value) {
+        return value instanceof CardInfoResponse card ? card.getVersion() : null;
+    }
+
+    /**
+     * Serializer for cached values. Keeps type information in the payload so entries
+     * read back as the DTO that was cached.
+     */
+    public static RedisSerializer<Object> cacheValueSerializer() {
         ObjectMapper objectMapper = new ObjectMapper();
         objectMapper.registerModule(new JavaTimeModule());
         objectMapper.disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
@@ -36,15 +165,6 @@ public class RedisConfig {
                 JsonTypeInfo.As.PROPERTY
         );
 
-        GenericJackson2JsonRedisSerializer serializer =
-                new GenericJackson2JsonRedisSerializer(objectMapper);
-
-        RedisCacheConfiguration cacheConfig = RedisCacheConfiguration.defaultCacheConfig()
-                .serializeValuesWith(RedisSerializationContext.SerializationPair.fromSerializer(serializer))
-                .entryTtl(Duration.ofHours(24));
-
-        return RedisCacheManager.builder(redisConnectionFactory)
-                .cacheDefaults(cacheConfig)
-                .build();
+        return new GenericJackson2JsonRedisSerializer(objectMapper);
     }
 }
@@ -0,0 +1,46 @@
+package com.internship.userservice.config;
+
+import com.internship.userservice.sql.SqlBudget;
+import com.internship.userservice.sql.SqlBudgetAspect;
+import com.internship.userservice.sql.SqlBudgetFilter;
+import com.internship.userservice.sql.SqlBudgetListener;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+
+/**
+ * Development and CI check of SQL statements per request, see {@link SqlBudget}.
+ */
+@Configuration
+@EnableConfigurationProperties(SqlBudgetProperties.class)
+@ConditionalOnProperty(prefix = "app.sql-budget", name = "enabled", havingValue = "true")
+public class SqlBudgetConfig {
+
+    /**
+     * Picked up by {@link DataSourceProxyConfig}.
+     */
+    @Bean
+    public SqlBudgetListener sqlBudgetListener(SqlBudget sqlBudget) {
+        return new SqlBudgetListener(sqlBudget);
+    }
+
+    @Bean
+    public SqlBudget sqlBudget(SqlBudgetProperties properties) {
+        return new SqlBudget(properties);
+    }
+
+    @Bean
+    public FilterRegistrationBean<SqlBudgetFilter> sqlBudgetFilter(SqlBudget sqlBudget) {
+        FilterRegistrationBean<SqlBudgetFilter> registration = new FilterRegistrationBean<>(new SqlBudgetFilter(sqlBudget));
+        registration.setOrder(Ordered.HIGHEST_PRECEDENCE);
+        return registration;
+    }
+
+    @Bean
+    public SqlBudgetAspect sqlBudgetAspect(SqlBudget sqlBudget) {
+        return new SqlBudgetAspect(sqlBudget);
+    }
+}
@@ -0,0 +1,35 @@
+package com.internship.userservice.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "app.sql-budget")
+public class SqlBudgetProperties {
+
+    /** Count SQL statements per HTTP request and per outermost service call. */
+    private boolean enabled = false;
+
+    /**
+     * LOG reports violations when the scope ends. FAIL throws from the statement that
+     * exceeds the budget, so tests catch it and the request fails before its response.
+     */
+    private Mode mode = Mode.LOG;
+
+    private int maxStatements = 20;
+
+    /** Total time spent in the database. */
+    private Duration maxDuration = Duration.ofMillis(500);
+
+    /** The same statement this many times in one scope is reported as N+1. */
+    private int repeatedStatementThreshold = 5;
+
+    public enum Mode {
+        LOG,
+        FAIL
+    }
+}
@@ -0,0 +1,27 @@
+package com.internship.userservice.config;
+
+import com.internship.userservice.sql.SqlLogEndpoint;
+import com.internship.userservice.sql.SqlLogListener;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Sampled, structured SQL logging, see {@link SqlLogListener}.
+ */
+@Configuration
+@EnableConfigurationProperties(SqlLogProperties.class)
+@ConditionalOnProperty(prefix = "app.sql-log", name = "enabled", havingValue = "true")
+public class SqlLogConfig {
+
+    @Bean
+    public SqlLogListener sqlLogListener(SqlLogProperties properties) {
+        return new SqlLogListener(properties);
+    }
+
+    @Bean
+    public SqlLogEndpoint sqlLogEndpoint(SqlLogListener sqlLogListener) {
+        return new SqlLogEndpoint(sqlLogListener);
+    }
+}
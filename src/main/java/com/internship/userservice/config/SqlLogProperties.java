@@ -0,0 +1,28 @@
+package com.internship.userservice.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "app.sql-log")
+public class SqlLogProperties {
+
+    /** Install the statement listener and the {@code sqllog} actuator endpoint. */
+    private boolean enabled = false;
+
+    /** Log statements from startup, otherwise only after switching it on at runtime. */
+    private boolean active = false;
+
+    /** Fraction of statements that are logged, between 0 and 1. */
+    private double sampleRate = 0.01;
+
+    /** Statements at least this slow are logged regardless of sampling. */
+    private Duration slowThreshold = Duration.ofMillis(200);
+
+    /** Longer SQL strings are truncated. */
+    private int maxSqlLength = 2000;
+}
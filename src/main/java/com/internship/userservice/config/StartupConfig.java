@@ -0,0 +1,26 @@
+package com.internship.userservice.config;
+
+import jakarta.persistence.EntityManagerFactory;
+import liquibase.integration.spring.SpringLiquibase;
+import org.springframework.boot.LazyInitializationExcludeFilter;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.sql.DataSource;
+
+/**
+ * Beans that stay eager when {@code spring.main.lazy-initialization} is on, as in the
+ * {@code lazy} profile: the schema is migrated and Hibernate validates its mappings before
+ * the instance reports ready, so a broken deployment still fails at start. Everything else,
+ * such as controllers, mappers and the cache manager, is created on first use, which moves
+ * that cost to the first requests. Lifecycle beans are started either way.
+ */
+@Configuration
+public class StartupConfig {
+
+    @Bean
+    static LazyInitializationExcludeFilter eagerStartupBeans() {
+        return LazyInitializationExcludeFilter.forBeanTypes(DataSource.class, SpringLiquibase.class,
+                EntityManagerFactory.class);
+    }
+}
@@ -0,0 +1,25 @@
+package com.internship.userservice.config;
+
+import com.internship.userservice.uniqueness.UniquenessFilter;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+
+/**
+ * Fast path of email and card number uniqueness checks, see {@link UniquenessFilter}.
+ * The filter always exists; while disabled it is never built and every check asks the
+ * database.
+ */
+@Configuration
+@EnableConfigurationProperties(UniquenessFilterProperties.class)
+public class UniquenessFilterConfig {
+
+    @Bean
+    public UniquenessFilter uniquenessFilter(JdbcTemplate jdbcTemplate,
+                                             PlatformTransactionManager transactionManager,
+                                             UniquenessFilterProperties properties) {
+        return new UniquenessFilter(jdbcTemplate, transactionManager, properties);
+    }
+}
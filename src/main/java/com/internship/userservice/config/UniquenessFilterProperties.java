@@ -0,0 +1,25 @@
+package com.internship.userservice.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "app.uniqueness-filter")
+public class UniquenessFilterProperties {
+
+    /** Skip the database lookup of email and card number checks for values never seen. */
+    private boolean enabled = true;
+
+    /** Minimum capacity of each filter; it grows to twice the row count on rebuild. */
+    private long expectedInsertions = 1_000_000;
+
+    /** Share of new values that still go to the database at full capacity. */
+    private double falsePositiveRate = 0.01;
+
+    /** Picks up values written by other replicas and drops deleted ones. */
+    private Duration rebuildInterval = Duration.ofMinutes(30);
+}
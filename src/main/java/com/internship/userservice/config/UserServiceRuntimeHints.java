@@ -0,0 +1,43 @@
+package com.internship.userservice.config;
+
+import com.internship.userservice.dto.card.CardInfoResponse;
+import com.internship.userservice.dto.user.UserFields;
+import com.internship.userservice.dto.user.UserResponse;
+import com.internship.userservice.entity.CardInfo;
+import com.internship.userservice.entity.User;
+import org.springframework.aot.hint.BindingReflectionHintsRegistrar;
+import org.springframework.aot.hint.MemberCategory;
+import org.springframework.aot.hint.RuntimeHints;
+import org.springframework.aot.hint.RuntimeHintsRegistrar;
+
+import java.util.ArrayList;
+
+/**
+ * Reachability metadata for a native image that Spring's AOT processing cannot infer.
+ * <p>
+ * Cached values are written by {@link RedisConfig#cacheValueSerializer()} with their class
+ * name and read back through their fields, and streamed responses are serialized outside
+ * of a controller return type. The entities are loaded through native queries as well as
+ * repositories. {@code @RequestParam UserFields} is bound through the static
+ * {@link UserFields#valueOf(String)}, which the conversion service looks up reflectively
+ * and AOT does not register for request parameters. The Lua scripts are read from the classpath, and changelogs below
+ * {@code db/changelog} are included from the master file. The MapStruct mappers need
+ * nothing: they are Spring components, which AOT instantiates without reflection.
+ */
+public class UserServiceRuntimeHints implements RuntimeHintsRegistrar {
+
+    @Override
+    public void registerHints(RuntimeHints hints, ClassLoader classLoader) {
+        new BindingReflectionHintsRegistrar().registerReflectionHints(hints.reflection(),
+                UserResponse.class, CardInfoResponse.class);
+        for (Class<?> type : new Class<?>[] {UserResponse.class, CardInfoResponse.class, User.class, CardInfo.class}) {
+            hints.reflection().registerType(type, MemberCategory.DECLARED_FIELDS,
+                    MemberCategory.INVOKE_DECLARED_CONSTRUCTORS, MemberCategory.INVOKE_DECLARED_METHODS);
+        }
+        hints.reflection().registerType(ArrayList.class, MemberCategory.INVOKE_PUBLIC_CONSTRUCTORS);
+        hints.reflection().registerType(UserFields.class, MemberCategory.INVOKE_PUBLIC_METHODS);
+
+        hints.resources().registerPattern("redis/*.lua");
+        hints.resources().registerPattern("db/changelog/**");
+    }
+}
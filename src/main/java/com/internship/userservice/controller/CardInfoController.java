@@ -1,10 +1,15 @@
 package com.internship.userservice.controller;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.internship.userservice.cache.CacheKeys;
 import com.internship.userservice.dto.card.CardInfoRequest;
 import com.internship.userservice.dto.card.CardInfoResponse;
 import com.internship.userservice.service.CardInfoService;
 import jakarta.validation.Valid;
+import jakarta.validation.constraints.Size;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
@@ -18,6 +23,7 @@ import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.util.List;
 
@@ -27,7 +33,10 @@ import java.util.List;
 @Validated
 public class CardInfoController {
 
+    private static final int MAX_BATCH_IDS = 100_000;
+
     private final CardInfoService cardService;
+    private final ObjectMapper objectMapper;
 
     @PostMapping
     public ResponseEntity<CardInfoResponse> create(
@@ -38,8 +47,13 @@ public class CardInfoController {
     }
 
     @GetMapping("/{id}")
+    @PrecompressedBody(cache = CacheKeys.CARDS)
     public ResponseEntity<CardInfoResponse> getById(@PathVariable Long id) {
-        return ResponseEntity.ok(cardService.getCardById(id));
+        CardInfoResponse card = cardService.getCardById(id);
+        return ResponseEntity.ok()
+                .cacheControl(CacheControl.noCache())
+                .eTag(ETags.of(card.getVersion()))
+                .body(card);
     }
 
     @GetMapping
@@ -47,17 +61,41 @@ public class CardInfoController {
         return ResponseEntity.ok(cardService.getAllByIds(ids));
     }
 
+    @GetMapping(params = "stream=true")
+    public ResponseEntity<StreamingResponseBody> streamByIds(@RequestParam List<Long> ids) {
+        return JsonArrays.stream(objectMapper, action -> cardService.streamAllByIds(ids, action));
+    }
+
+    /**
+     * Cards by id for more ids than fit in a query string, read from a JSON array of ids.
+     * Duplicates are ignored, ids without a card are skipped, and the cards are written
+     * ordered by id as they are read.
+     */
+    @PostMapping("/batch")
+    public ResponseEntity<StreamingResponseBody> getBatch(@RequestBody @Size(max = MAX_BATCH_IDS) long[] ids) {
+        return JsonArrays.stream(objectMapper, action -> cardService.streamBatch(ids, action));
+    }
+
     @GetMapping("/by-user/{userId}")
     public ResponseEntity<List<CardInfoResponse>> getByUser(@PathVariable Long userId) {
         return ResponseEntity.ok(cardService.getByUserId(userId));
     }
 
+    @GetMapping(value = "/by-user/{userId}", params = "stream=true")
+    public ResponseEntity<StreamingResponseBody> streamByUser(@PathVariable Long userId) {
+        return JsonArrays.stream(objectMapper, action -> cardService.streamByUserId(userId, action));
+    }
+
     @PutMapping("/{id}")
     public ResponseEntity<CardInfoResponse> update(
             @PathVariable Long id,
             @Valid @RequestBody CardInfoRequest dto,
-            @RequestHeader("X-User-Id") Long userCredentialsId) {
-        return ResponseEntity.ok(cardService.update(id, dto, userCredentialsId));
+            @RequestHeader("X-User-Id") Long userCredentialsId,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        CardInfoResponse updated = cardService.update(id, dto, userCredentialsId, ETags.parseIfMatch(ifMatch));
+        return ResponseEntity.ok()
+                .eTag(ETags.of(updated.getVersion()))
+                .body(updated);
     }
 
     @DeleteMapping("/{id}")
@@ -0,0 +1,35 @@
+package com.internship.userservice.controller;
+
+import com.internship.userservice.exception.PreconditionFailedException;
+
+/**
+ * Strong ETags built from the row version of an entity.
+ */
+final class ETags {
+
+    private ETags() {
+    }
+
+    static String of(Long version) {
+        return version == null ? null : "\"" + version + "\"";
+    }
+
+    /**
+     * Returns the version expected by an {@code If-Match} header,
+     * or {@code null} when the header is absent or {@code *}.
+     */
+    static Long parseIfMatch(String ifMatch) {
+        if (ifMatch == null || ifMatch.isBlank() || "*".equals(ifMatch.trim())) {
+            return null;
+        }
+        String tag = ifMatch.trim();
+        if (tag.length() < 3 || !tag.startsWith("\"") || !tag.endsWith("\"")) {
+            throw new PreconditionFailedException("If-Match must be a single strong ETag");
+        }
+        try {
+            return Long.valueOf(tag.substring(1, tag.length() - 1));
+        } catch (NumberFormatException ex) {
+            throw new PreconditionFailedException("If-Match does not match any known version");
+        }
+    }
+}
@@ -0,0 +1,59 @@
+package com.internship.userservice.controller;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.function.Consumer;
+
+/**
+ * JSON arrays written element by element while the elements are produced, so neither
+ * the list nor the serialized body is held in memory. The generator's buffer is the
+ * only one besides the servlet response buffer; it is flushed after the first element,
+ * to send the first byte early, and then every {@value #FLUSH_EVERY} elements.
+ */
+final class JsonArrays {
+
+    private static final int FLUSH_EVERY = 100;
+
+    private JsonArrays() {
+    }
+
+    /**
+     * Produces the elements of a response. Called on the async request thread, after the
+     * controller method returned, so it has to open its own transaction.
+     */
+    @FunctionalInterface
+    interface Source {
+        void forEach(Consumer<Object> action);
+    }
+
+    static ResponseEntity<StreamingResponseBody> stream(ObjectMapper objectMapper, Source source) {
+        StreamingResponseBody body = outputStream -> {
+            try (JsonGenerator generator = objectMapper.createGenerator(outputStream)) {
+                generator.writeStartArray();
+                int[] written = {0};
+                source.forEach(element -> {
+                    try {
+                        objectMapper.writeValue(generator, element);
+                        if (++written[0] % FLUSH_EVERY == 1) {
+                            generator.flush();
+                        }
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+                generator.writeEndArray();
+            } catch (UncheckedIOException e) {
+                throw e.getCause();
+            }
+        };
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(body);
+    }
+}
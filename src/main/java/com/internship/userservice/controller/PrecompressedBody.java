@@ -0,0 +1,21 @@
+package com.internship.userservice.controller;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Marks a single-entity GET whose JSON body may be served from Redis as ready-made,
+ * usually gzip-compressed, bytes, see {@link PrecompressedBodyAdvice}.
+ */
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+@interface PrecompressedBody {
+
+    /** Cache of the entity, the encoded bodies are kept under its prefix. */
+    String cache();
+
+    /** URI template variable holding the entity id. */
+    String idVariable() default "id";
+}
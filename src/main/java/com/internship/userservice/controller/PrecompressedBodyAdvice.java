@@ -0,0 +1,170 @@
+package com.internship.userservice.controller;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.internship.userservice.cache.CacheKeys;
+import com.internship.userservice.cache.EncodedBodyCache;
+import com.internship.userservice.config.AppCacheProperties;
+import com.internship.userservice.dto.card.CardInfoResponse;
+import com.internship.userservice.dto.user.UserResponse;
+import com.internship.userservice.jfr.JfrMappingJackson2HttpMessageConverter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.MethodParameter;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
+import org.springframework.http.server.ServerHttpRequest;
+import org.springframework.http.server.ServerHttpResponse;
+import org.springframework.http.server.ServletServerHttpRequest;
+import org.springframework.web.bind.annotation.RestControllerAdvice;
+import org.springframework.web.servlet.HandlerMapping;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyAdvice;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Map;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Serves {@link PrecompressedBody} responses from bytes kept in Redis. On the first request
+ * for an entity version the JSON is serialized once, gzipped when it reaches the minimum
+ * size, and stored; later requests write the stored bytes as they are. A gzipped body is
+ * only used for clients that accept gzip, the others get the regular JSON serialization.
+ * <p>
+ * Stored bodies are recorded in the index of the user they belong to, so that
+ * {@link com.internship.userservice.cache.UserCacheInvalidator} drops them with the user's
+ * other entries, also after a change that did not raise the version. With flight recording
+ * on, serializing a body for storage emits the same event as the converter does; bodies
+ * written from storage emit none.
+ */
+@Slf4j
+@RestControllerAdvice
+@ConditionalOnProperty(prefix = "app.cache.precompressed", name = "enabled", havingValue = "true")
+public class PrecompressedBodyAdvice implements ResponseBodyAdvice<Object> {
+
+    private static final String GZIP = "gzip";
+
+    private final EncodedBodyCache bodyCache;
+    private final ObjectMapper objectMapper;
+    private final int minSize;
+
+    public PrecompressedBodyAdvice(EncodedBodyCache bodyCache, ObjectMapper objectMapper,
+                                   AppCacheProperties cacheProperties) {
+        this.bodyCache = bodyCache;
+        this.objectMapper = objectMapper;
+        this.minSize = cacheProperties.getPrecompressed().getMinSize();
+    }
+
+    @Override
+    public boolean supports(MethodParameter returnType, Class<? extends HttpMessageConverter<?>> converterType) {
+        return returnType.hasMethodAnnotation(PrecompressedBody.class)
+                && MappingJackson2HttpMessageConverter.class.isAssignableFrom(converterType);
+    }
+
+    @Override
+    public Object beforeBodyWrite(Object body, MethodParameter returnType, MediaType selectedContentType,
+                                  Class<? extends HttpMessageConverter<?>> selectedConverterType,
+                                  ServerHttpRequest request, ServerHttpResponse response) {
+        Long version = switch (body) {
+            case UserResponse user -> user.getVersion();
+            case CardInfoResponse card -> card.getVersion();
+            case null, default -> null;
+        };
+        if (version == null || !(request instanceof ServletServerHttpRequest servletRequest)) {
+            return body;
+        }
+        PrecompressedBody annotation = returnType.getMethodAnnotation(PrecompressedBody.class);
+        @SuppressWarnings("unchecked")
+        Map<String, String> variables = (Map<String, String>) servletRequest.getServletRequest()
+                .getAttribute(HandlerMapping.URI_TEMPLATE_VARIABLES_ATTRIBUTE);
+        String id = variables == null ? null : variables.get(annotation.idVariable());
+        if (id == null) {
+            return body;
+        }
+
+        boolean recorded = JfrMappingJackson2HttpMessageConverter.class.isAssignableFrom(selectedConverterType);
+        byte[] encoded = encoded(CacheKeys.encodedBody(annotation.cache(), id, version), body, recorded);
+        if (encoded == null) {
+            return body;
+        }
+        boolean gzipped = isGzip(encoded);
+        if (gzipped && !acceptsGzip(request)) {
+            return body;
+        }
+
+        HttpHeaders headers = response.getHeaders();
+        headers.setContentType(MediaType.APPLICATION_JSON);
+        headers.setContentLength(encoded.length);
+        headers.add(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+        if (gzipped) {
+            headers.set(HttpHeaders.CONTENT_ENCODING, GZIP);
+        }
+        try {
+            response.getBody().write(encoded);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return null;
+    }
+
+    /**
+     * Returns the stored bytes, encoding and storing them on a miss. A Redis failure only
+     * costs the regular serialization.
+     */
+    private byte[] encoded(String key, Object body, boolean recorded) {
+        try {
+            byte[] encoded = bodyCache.get(key);
+            if (encoded == null) {
+                encoded = encode(recorded
+                        ? JfrMappingJackson2HttpMessageConverter.writeValueAsBytes(objectMapper, body)
+                        : objectMapper.writeValueAsBytes(body));
+                bodyCache.put(key, encoded, owner(body));
+            }
+            return encoded;
+        } catch (JsonProcessingException | RuntimeException e) {
+            log.warn("Encoded body cache unavailable for {}: {}", key, e.toString());
+            return null;
+        }
+    }
+
+    /** the user whose index the stored body is recorded in */
+    private static Long owner(Object body) {
+        if (body instanceof UserResponse user) {
+            return user.getId();
+        }
+        if (body instanceof CardInfoResponse card) {
+            return card.getUserId();
+        }
+        return null;
+    }
+
+    private byte[] encode(byte[] json) {
+        if (json.length < minSize) {
+            return json;
+        }
+        ByteArrayOutputStream compressed = new ByteArrayOutputStream(json.length / 4);
+        try (GZIPOutputStream gzip = new GZIPOutputStream(compressed)) {
+            gzip.write(json);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return compressed.toByteArray();
+    }
+
+    /** JSON text never starts with the gzip magic number. */
+    private static boolean isGzip(byte[] bytes) {
+        return bytes.length > 1 && bytes[0] == (byte) 0x1f && bytes[1] == (byte) 0x8b;
+    }
+
+    private static boolean acceptsGzip(ServerHttpRequest request) {
+        for (String value : request.getHeaders().getOrEmpty(HttpHeaders.ACCEPT_ENCODING)) {
+            if (value.toLowerCase().contains(GZIP)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
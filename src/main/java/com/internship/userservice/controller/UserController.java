@@ -1,10 +1,16 @@
 package com.internship.userservice.controller;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.internship.userservice.cache.CacheKeys;
+import com.internship.userservice.dto.user.UserFields;
 import com.internship.userservice.dto.user.UserRequest;
 import com.internship.userservice.dto.user.UserResponse;
 import com.internship.userservice.service.UserService;
 import jakarta.validation.Valid;
+import jakarta.validation.constraints.Size;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
@@ -18,8 +24,11 @@ import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 
 @RestController
 @RequestMapping("/api/users")
@@ -27,7 +36,10 @@ import java.util.List;
 @Validated
 public class UserController {
 
+    private static final int MAX_BATCH_IDS = 100_000;
+
     private final UserService userService;
+    private final ObjectMapper objectMapper;
 
     @PostMapping
     public ResponseEntity<UserResponse> create(
@@ -39,9 +51,14 @@ public class UserController {
     }
 
     @GetMapping("/{id}")
+    @PrecompressedBody(cache = CacheKeys.USERS)
     public ResponseEntity<UserResponse> getById(@PathVariable Long id) {
 
-        return ResponseEntity.ok(userService.getUserById(id));
+        UserResponse user = userService.getUserById(id);
+        return ResponseEntity.ok()
+                .cacheControl(CacheControl.noCache())
+                .eTag(ETags.of(user.getVersion()))
+                .body(user);
     }
 
     @GetMapping("/by-email")
@@ -50,26 +67,79 @@ public class UserController {
         return ResponseEntity.ok(userService.getUserByEmail(email));
     }
 
+    /**
+     * With {@code fields}, only those properties are returned, the users are ordered by id
+     * and duplicates are dropped.
+     */
     @GetMapping
-    public ResponseEntity<List<UserResponse>> getByIds(@RequestParam List<Long> ids) {
+    public ResponseEntity<List<?>> getByIds(@RequestParam List<Long> ids,
+                                            @RequestParam(required = false) UserFields fields) {
+
+        if (fields == null) {
+            return ResponseEntity.ok(userService.getUsersByIds(ids));
+        }
+        List<Map<String, Object>> users = new ArrayList<>(ids.size());
+        userService.streamUserFieldsBatch(toArray(ids), fields, users::add);
+        return ResponseEntity.ok(users);
+    }
+
+    @GetMapping(params = "stream=true")
+    public ResponseEntity<StreamingResponseBody> streamByIds(@RequestParam List<Long> ids,
+                                                             @RequestParam(required = false) UserFields fields) {
+
+        if (fields == null) {
+            return JsonArrays.stream(objectMapper, action -> userService.streamUsersByIds(ids, action));
+        }
+        long[] idArray = toArray(ids);
+        return JsonArrays.stream(objectMapper, action -> userService.streamUserFieldsBatch(idArray, fields, action));
+    }
 
-        return ResponseEntity.ok(userService.getUsersByIds(ids));
+    /**
+     * Users by id for more ids than fit in a query string, read from a JSON array of ids.
+     * Duplicates are ignored, ids without a user are skipped, and the users are written
+     * ordered by id as they are read.
+     */
+    @PostMapping("/batch")
+    public ResponseEntity<StreamingResponseBody> getBatch(@RequestBody @Size(max = MAX_BATCH_IDS) long[] ids,
+                                                          @RequestParam(required = false) UserFields fields) {
+
+        if (fields == null) {
+            return JsonArrays.stream(objectMapper, action -> userService.streamUsersBatch(ids, action));
+        }
+        return JsonArrays.stream(objectMapper, action -> userService.streamUserFieldsBatch(ids, fields, action));
     }
 
     @GetMapping("/all")
-    public ResponseEntity<List<UserResponse>> getAll() {
+    public ResponseEntity<List<?>> getAll(@RequestParam(required = false) UserFields fields) {
 
-        List<UserResponse> users = userService.getAllUsers();
+        if (fields == null) {
+            return ResponseEntity.ok(userService.getAllUsers());
+        }
+        List<Map<String, Object>> users = new ArrayList<>();
+        userService.streamAllUserFields(fields, users::add);
         return ResponseEntity.ok(users);
     }
 
+    @GetMapping(value = "/all", params = "stream=true")
+    public ResponseEntity<StreamingResponseBody> streamAll(@RequestParam(required = false) UserFields fields) {
+
+        if (fields == null) {
+            return JsonArrays.stream(objectMapper, userService::streamAllUsers);
+        }
+        return JsonArrays.stream(objectMapper, action -> userService.streamAllUserFields(fields, action));
+    }
+
     @PutMapping("/{id}")
     public ResponseEntity<UserResponse> update(
             @PathVariable Long id,
             @Valid @RequestBody UserRequest dto,
-            @RequestHeader("X-User-Id") Long userCredentialsId) {
+            @RequestHeader("X-User-Id") Long userCredentialsId,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
 
-        return ResponseEntity.ok(userService.updateUserById(id, dto, userCredentialsId));
+        UserResponse updated = userService.updateUserById(id, dto, userCredentialsId, ETags.parseIfMatch(ifMatch));
+        return ResponseEntity.ok()
+                .eTag(ETags.of(updated.getVersion()))
+                .body(updated);
     }
 
     @DeleteMapping("/{id}")
@@ -86,4 +156,8 @@ public class UserController {
 
         return ResponseEntity.ok(userService.getByUserCredentialsId(userCredentialsId));
     }
+
+    private static long[] toArray(List<Long> ids) {
+        return ids.stream().mapToLong(Long::longValue).toArray();
+    }
 }
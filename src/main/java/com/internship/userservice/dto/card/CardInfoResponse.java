@@ -16,4 +16,5 @@ public class CardInfoResponse {
     private String number;
     private String holder;
     private String expirationDate;
+    private Long version;
 }
@@ -0,0 +1,104 @@
+package com.internship.userservice.dto.user;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * A sparse fieldset of {@link UserResponse}, parsed from a {@code fields} request parameter
+ * such as {@code id,email,name}. Users are written as objects with only these properties,
+ * in the order of {@link Field}. Without {@code cards} they are read without their cards.
+ */
+public final class UserFields {
+
+    public enum Field {
+        ID("id"),
+        NAME("name"),
+        SURNAME("surname"),
+        BIRTH_DATE("birthDate"),
+        EMAIL("email"),
+        CARDS("cards"),
+        VERSION("version");
+
+        private final String property;
+
+        Field(String property) {
+            this.property = property;
+        }
+
+        public String getProperty() {
+            return property;
+        }
+    }
+
+    private final Set<Field> fields;
+
+    private UserFields(Set<Field> fields) {
+        this.fields = Collections.unmodifiableSet(fields);
+    }
+
+    /**
+     * Parses a comma-separated list of property names.
+     *
+     * @throws IllegalArgumentException for an empty list or an unknown name
+     */
+    public static UserFields valueOf(String value) {
+        Set<Field> fields = EnumSet.noneOf(Field.class);
+        for (String name : value.split(",")) {
+            String property = name.trim();
+            if (property.isEmpty()) {
+                continue;
+            }
+            fields.add(find(property));
+        }
+        if (fields.isEmpty()) {
+            throw new IllegalArgumentException("No user fields given");
+        }
+        return new UserFields(fields);
+    }
+
+    public boolean includesCards() {
+        return fields.contains(Field.CARDS);
+    }
+
+    /**
+     * The selected fields other than {@code cards}, which are the columns to read.
+     */
+    public List<Field> columns() {
+        List<Field> columns = new ArrayList<>(fields);
+        columns.remove(Field.CARDS);
+        return columns;
+    }
+
+    /**
+     * The selected properties of the user.
+     */
+    public Map<String, Object> select(UserResponse user) {
+        Map<String, Object> selected = new LinkedHashMap<>();
+        for (Field field : fields) {
+            selected.put(field.property, switch (field) {
+                case ID -> user.getId();
+                case NAME -> user.getName();
+                case SURNAME -> user.getSurname();
+                case BIRTH_DATE -> user.getBirthDate();
+                case EMAIL -> user.getEmail();
+                case CARDS -> user.getCards();
+                case VERSION -> user.getVersion();
+            });
+        }
+        return selected;
+    }
+
+    private static Field find(String property) {
+        for (Field field : Field.values()) {
+            if (field.property.equals(property)) {
+                return field;
+            }
+        }
+        throw new IllegalArgumentException("Unknown user field '" + property + "'");
+    }
+}
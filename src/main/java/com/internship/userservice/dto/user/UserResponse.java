@@ -23,4 +23,5 @@ public class UserResponse {
     private LocalDate birthDate;
     private String email;
     private List<CardInfoResponse> cards;
+    private Long version;
 }
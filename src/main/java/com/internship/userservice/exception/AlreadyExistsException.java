@@ -1,8 +1,12 @@
 package com.internship.userservice.exception;
 
-public class AlreadyExistsException extends RuntimeException {
+public class AlreadyExistsException extends StacklessException {
 
     public AlreadyExistsException(String message) {
         super(message);
     }
+
+    public AlreadyExistsException(String pattern, Object... args) {
+        super(pattern, args);
+    }
 }
@@ -1,19 +1,21 @@
 package com.internship.userservice.exception;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Getter;
 import lombok.Setter;
 
-import java.time.LocalDateTime;
 import java.util.List;
 
 @Getter
 @Setter
 @Builder
 @AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
 public class ApiError {
-    private LocalDateTime timestamp;
+    /** ISO local date-time, see {@link ErrorTimestamp}. */
+    private String timestamp;
     private int status;
     private String error;
     private String message;
@@ -0,0 +1,32 @@
+package com.internship.userservice.exception;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+
+/**
+ * Local date-time of the current millisecond as ISO text, formatted once per millisecond
+ * and shared by all error bodies written within it.
+ */
+final class ErrorTimestamp {
+
+    private static volatile Entry current = new Entry(Long.MIN_VALUE, null);
+
+    private ErrorTimestamp() {
+    }
+
+    static String now() {
+        long millis = System.currentTimeMillis();
+        Entry entry = current;
+        if (entry.millis != millis) {
+            LocalDateTime time = LocalDateTime.ofInstant(Instant.ofEpochMilli(millis), ZoneId.systemDefault());
+            entry = new Entry(millis, DateTimeFormatter.ISO_LOCAL_DATE_TIME.format(time));
+            current = entry;
+        }
+        return entry.text;
+    }
+
+    private record Entry(long millis, String text) {
+    }
+}
@@ -1,28 +1,28 @@
 package com.internship.userservice.exception;
 
+import jakarta.persistence.OptimisticLockException;
 import jakarta.servlet.http.HttpServletRequest;
+import jakarta.validation.ConstraintViolationException;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.AccessDeniedException;
 import org.springframework.web.bind.MethodArgumentNotValidException;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.RestControllerAdvice;
+import org.springframework.web.method.annotation.MethodArgumentTypeMismatchException;
 
-import java.time.LocalDateTime;
+import java.sql.SQLException;
 import java.util.List;
 
 @RestControllerAdvice
 public class GlobalExceptionHandler {
 
+    private static final String UNIQUE_VIOLATION = "23505";
+
     private ApiError build(HttpStatus status, String msg, String path, List<String> errors) {
-        return ApiError.builder()
-                .timestamp(LocalDateTime.now())
-                .status(status.value())
-                .error(status.getReasonPhrase())
-                .message(msg)
-                .path(path)
-                .errors(errors)
-                .build();
+        return new ApiError(ErrorTimestamp.now(), status.value(), status.getReasonPhrase(), msg, path, errors);
     }
 
     private ApiError build(HttpStatus status, String msg, String path) {
@@ -35,12 +35,47 @@ public class GlobalExceptionHandler {
                 .body(build(HttpStatus.CONFLICT, ex.getMessage(), req.getRequestURI()));
     }
 
+    /**
+     * a unique constraint caught a duplicate that the lookup before the write missed; the only
+     * unique columns are users.email and card_info.number. Other violations, such as NOT NULL
+     * or foreign keys, get a generic message
+     */
+    @ExceptionHandler(DataIntegrityViolationException.class)
+    public ResponseEntity<ApiError> handleDataIntegrityViolation(DataIntegrityViolationException ex, HttpServletRequest req) {
+        String message = isUniqueViolation(ex)
+                ? "Email or card number is already in use"
+                : "Request violates a data integrity constraint";
+        return ResponseEntity.status(HttpStatus.CONFLICT)
+                .body(build(HttpStatus.CONFLICT, message, req.getRequestURI()));
+    }
+
+    private static boolean isUniqueViolation(Throwable ex) {
+        for (Throwable cause = ex; cause != null; cause = cause.getCause()) {
+            if (cause instanceof SQLException sql && UNIQUE_VIOLATION.equals(sql.getSQLState())) {
+                return true;
+            }
+        }
+        return false;
+    }
+
     @ExceptionHandler(NotFoundException.class)
     public ResponseEntity<ApiError> handleNotFound(NotFoundException ex, HttpServletRequest req) {
         return ResponseEntity.status(HttpStatus.NOT_FOUND)
                 .body(build(HttpStatus.NOT_FOUND, ex.getMessage(), req.getRequestURI()));
     }
 
+    @ExceptionHandler({OptimisticLockingFailureException.class, OptimisticLockException.class})
+    public ResponseEntity<ApiError> handleOptimisticLock(RuntimeException ex, HttpServletRequest req) {
+        return ResponseEntity.status(HttpStatus.CONFLICT)
+                .body(build(HttpStatus.CONFLICT, "Resource was modified concurrently, reload and retry", req.getRequestURI()));
+    }
+
+    @ExceptionHandler(PreconditionFailedException.class)
+    public ResponseEntity<ApiError> handlePreconditionFailed(PreconditionFailedException ex, HttpServletRequest req) {
+        return ResponseEntity.status(HttpStatus.PRECONDITION_FAILED)
+                .body(build(HttpStatus.PRECONDITION_FAILED, ex.getMessage(), req.getRequestURI()));
+    }
+
     /** fallback — 500 INTERNAL_SERVER_ERROR */
     @ExceptionHandler(Exception.class)
     public ResponseEntity<ApiError> handleOther(Exception ex, HttpServletRequest req) {
@@ -58,6 +93,25 @@ public class GlobalExceptionHandler {
                 .body(build(HttpStatus.BAD_REQUEST, "Validation error", req.getRequestURI(), errors));
     }
 
+    /** a constraint on a controller method parameter, such as the size of an id batch */
+    @ExceptionHandler(ConstraintViolationException.class)
+    public ResponseEntity<ApiError> handleConstraintViolation(ConstraintViolationException ex, HttpServletRequest req) {
+        List<String> errors = ex.getConstraintViolations().stream()
+                .map(violation -> violation.getPropertyPath() + ": " + violation.getMessage())
+                .toList();
+
+        return ResponseEntity.badRequest()
+                .body(build(HttpStatus.BAD_REQUEST, "Validation error", req.getRequestURI(), errors));
+    }
+
+    /** a request parameter that cannot be converted, such as an unknown user field */
+    @ExceptionHandler(MethodArgumentTypeMismatchException.class)
+    public ResponseEntity<ApiError> handleTypeMismatch(MethodArgumentTypeMismatchException ex, HttpServletRequest req) {
+        return ResponseEntity.badRequest()
+                .body(build(HttpStatus.BAD_REQUEST, "Invalid value of '" + ex.getName() + "'", req.getRequestURI(),
+                        List.of(ex.getMostSpecificCause().getMessage())));
+    }
+
     @ExceptionHandler(AccessDeniedException.class)
     public ResponseEntity<ApiError> handleAccessDenied(AccessDeniedException ex, HttpServletRequest req) {
         return ResponseEntity.status(HttpStatus.FORBIDDEN)
@@ -1,8 +1,12 @@
 package com.internship.userservice.exception;
 
-public class NotFoundException extends RuntimeException {
+public class NotFoundException extends StacklessException {
 
     public NotFoundException(String message) {
         super(message);
     }
+
+    public NotFoundException(String pattern, Object... args) {
+        super(pattern, args);
+    }
 }
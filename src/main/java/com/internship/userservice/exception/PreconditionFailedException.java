@@ -0,0 +1,12 @@
+package com.internship.userservice.exception;
+
+public class PreconditionFailedException extends StacklessException {
+
+    public PreconditionFailedException(String message) {
+        super(message);
+    }
+
+    public PreconditionFailedException(String pattern, Object... args) {
+        super(pattern, args);
+    }
+}
@@ -0,0 +1,47 @@
+package com.internship.userservice.exception;
+
+/**
+ * Base for expected domain errors that are turned into a 4xx response. These are part
+ * of normal traffic, so they skip the stack trace fill-in, and the message is only
+ * formatted when someone asks for it: {@code {}} placeholders in the pattern are
+ * replaced by the arguments in order.
+ */
+public abstract class StacklessException extends RuntimeException {
+
+    private final String pattern;
+    private final Object[] args;
+    private String message;
+
+    protected StacklessException(String pattern, Object... args) {
+        super(null, null, false, false);
+        this.pattern = pattern;
+        this.args = args;
+    }
+
+    @Override
+    public String getMessage() {
+        String formatted = message;
+        if (formatted == null) {
+            formatted = format(pattern, args);
+            message = formatted;
+        }
+        return formatted;
+    }
+
+    private static String format(String pattern, Object[] args) {
+        if (args.length == 0) {
+            return pattern;
+        }
+        StringBuilder text = new StringBuilder(pattern.length() + 16 * args.length);
+        int from = 0;
+        for (Object arg : args) {
+            int placeholder = pattern.indexOf("{}", from);
+            if (placeholder < 0) {
+                break;
+            }
+            text.append(pattern, from, placeholder).append(arg);
+            from = placeholder + 2;
+        }
+        return text.append(pattern, from, pattern.length()).toString();
+    }
+}
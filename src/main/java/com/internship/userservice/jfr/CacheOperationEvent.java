@@ -0,0 +1,29 @@
+package com.internship.userservice.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+@Name("com.internship.userservice.CacheOperation")
+@Label("Cache Operation")
+@Category({"User Service", "Cache"})
+@Description("Get, put or evict on an application cache")
+@StackTrace(false)
+public class CacheOperationEvent extends Event {
+
+    @Label("Cache")
+    public String cacheName;
+
+    @Label("Operation")
+    public String operation;
+
+    @Label("Key Hash")
+    @Description("Hash code of the cache key, the key itself may be personal data")
+    public int keyHash;
+
+    @Label("Hit")
+    public boolean hit;
+}
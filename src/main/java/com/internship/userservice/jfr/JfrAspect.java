@@ -0,0 +1,63 @@
+package com.internship.userservice.jfr;
+
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+
+/**
+ * Emits {@link RepositoryCallEvent} and {@link MappingEvent} around repository and mapper calls.
+ */
+@Aspect
+public class JfrAspect {
+
+    @Around("this(org.springframework.data.repository.Repository)")
+    public Object repositoryCall(ProceedingJoinPoint joinPoint) throws Throwable {
+        RepositoryCallEvent event = new RepositoryCallEvent();
+        if (!event.isEnabled()) {
+            return joinPoint.proceed();
+        }
+        event.begin();
+        try {
+            return joinPoint.proceed();
+        } finally {
+            event.end();
+            if (event.shouldCommit()) {
+                event.repository = repositoryName(joinPoint);
+                event.method = joinPoint.getSignature().getName();
+                event.commit();
+            }
+        }
+    }
+
+    @Around("within(com.internship.userservice.mapper..*)")
+    public Object mapping(ProceedingJoinPoint joinPoint) throws Throwable {
+        MappingEvent event = new MappingEvent();
+        if (!event.isEnabled()) {
+            return joinPoint.proceed();
+        }
+        event.begin();
+        try {
+            return joinPoint.proceed();
+        } finally {
+            event.end();
+            if (event.shouldCommit()) {
+                event.mapper = joinPoint.getSignature().getDeclaringType().getSimpleName();
+                event.method = joinPoint.getSignature().getName();
+                event.commit();
+            }
+        }
+    }
+
+    /**
+     * Repository proxies implement the repository interface, the declaring type of
+     * inherited methods like {@code findById} would be {@code CrudRepository}.
+     */
+    private static String repositoryName(ProceedingJoinPoint joinPoint) {
+        for (Class<?> type : joinPoint.getThis().getClass().getInterfaces()) {
+            if (type.getPackageName().startsWith("com.internship.userservice")) {
+                return type.getSimpleName();
+            }
+        }
+        return joinPoint.getSignature().getDeclaringType().getSimpleName();
+    }
+}
@@ -0,0 +1,65 @@
+package com.internship.userservice.jfr;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.HttpMessageNotWritableException;
+import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
+
+import java.io.IOException;
+import java.lang.reflect.Type;
+
+/**
+ * JSON converter that emits a {@link SerializationEvent} for every response body it writes.
+ */
+public class JfrMappingJackson2HttpMessageConverter extends MappingJackson2HttpMessageConverter {
+
+    public JfrMappingJackson2HttpMessageConverter(ObjectMapper objectMapper) {
+        super(objectMapper);
+    }
+
+    /**
+     * Serializes a body to JSON outside of a converter, such as one that is stored encoded,
+     * and records it like a written body.
+     */
+    public static byte[] writeValueAsBytes(ObjectMapper objectMapper, Object object) throws JsonProcessingException {
+        SerializationEvent event = new SerializationEvent();
+        if (!event.isEnabled()) {
+            return objectMapper.writeValueAsBytes(object);
+        }
+        event.begin();
+        try {
+            return objectMapper.writeValueAsBytes(object);
+        } finally {
+            event.end();
+            if (event.shouldCommit()) {
+                event.type = object.getClass().getSimpleName();
+                event.mediaType = MediaType.APPLICATION_JSON_VALUE;
+                event.commit();
+            }
+        }
+    }
+
+    @Override
+    protected void writeInternal(Object object, Type type, HttpOutputMessage outputMessage)
+            throws IOException, HttpMessageNotWritableException {
+        SerializationEvent event = new SerializationEvent();
+        if (!event.isEnabled()) {
+            super.writeInternal(object, type, outputMessage);
+            return;
+        }
+        event.begin();
+        try {
+            super.writeInternal(object, type, outputMessage);
+        } finally {
+            event.end();
+            if (event.shouldCommit()) {
+                event.type = object.getClass().getSimpleName();
+                MediaType contentType = outputMessage.getHeaders().getContentType();
+                event.mediaType = contentType != null ? contentType.toString() : null;
+                event.commit();
+            }
+        }
+    }
+}
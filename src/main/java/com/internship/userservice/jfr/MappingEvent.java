@@ -0,0 +1,20 @@
+package com.internship.userservice.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+@Name("com.internship.userservice.Mapping")
+@Label("Mapping")
+@Category({"User Service", "Mapping"})
+@StackTrace(false)
+public class MappingEvent extends Event {
+
+    @Label("Mapper")
+    public String mapper;
+
+    @Label("Method")
+    public String method;
+}
@@ -0,0 +1,20 @@
+package com.internship.userservice.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+@Name("com.internship.userservice.RepositoryCall")
+@Label("Repository Call")
+@Category({"User Service", "Database"})
+@StackTrace(false)
+public class RepositoryCallEvent extends Event {
+
+    @Label("Repository")
+    public String repository;
+
+    @Label("Method")
+    public String method;
+}
@@ -0,0 +1,20 @@
+package com.internship.userservice.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+@Name("com.internship.userservice.Serialization")
+@Label("Response Serialization")
+@Category({"User Service", "Serialization"})
+@StackTrace(false)
+public class SerializationEvent extends Event {
+
+    @Label("Type")
+    public String type;
+
+    @Label("Media Type")
+    public String mediaType;
+}
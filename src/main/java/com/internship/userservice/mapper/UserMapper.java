@@ -3,8 +3,10 @@ package com.internship.userservice.mapper;
 import com.internship.userservice.dto.user.UserRequest;
 import com.internship.userservice.dto.user.UserResponse;
 import com.internship.userservice.entity.User;
+import com.internship.userservice.repository.UserRow;
 import org.mapstruct.BeanMapping;
 import org.mapstruct.Mapper;
+import org.mapstruct.Mapping;
 import org.mapstruct.MappingTarget;
 import org.mapstruct.NullValuePropertyMappingStrategy;
 
@@ -17,6 +19,9 @@ public interface UserMapper {
 
     UserResponse toDto(User entity);
 
+    @Mapping(target = "cards", ignore = true)
+    UserResponse toDto(UserRow row);
+
     List<UserResponse> toDtoList(List<User> users);
 
     @BeanMapping(nullValuePropertyMappingStrategy = NullValuePropertyMappingStrategy.IGNORE)
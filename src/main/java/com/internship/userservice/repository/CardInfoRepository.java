@@ -1,12 +1,20 @@
 package com.internship.userservice.repository;
 
 import com.internship.userservice.entity.CardInfo;
+import jakarta.persistence.QueryHint;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.stream.Stream;
 
-public interface CardInfoRepository extends JpaRepository<CardInfo, Long> {
+import static org.hibernate.jpa.HibernateHints.HINT_FETCH_SIZE;
+import static org.hibernate.jpa.HibernateHints.HINT_READ_ONLY;
+
+public interface CardInfoRepository extends JpaRepository<CardInfo, Long>, DetachingRepository {
 
     List<CardInfo> findAllByIdIn(List<Long> ids);
 
@@ -19,4 +27,20 @@ public interface CardInfoRepository extends JpaRepository<CardInfo, Long> {
     List<CardInfo> findByNumberPrefix(String prefix);
 
     boolean existsByNumber(String number);
-}
\ No newline at end of file
+
+    @QueryHints({@QueryHint(name = HINT_FETCH_SIZE, value = "100"), @QueryHint(name = HINT_READ_ONLY, value = "true")})
+    @Query("SELECT c FROM CardInfo c WHERE c.id IN :ids ORDER BY c.id")
+    Stream<CardInfo> streamAllByIdIn(@Param("ids") Collection<Long> ids);
+
+    /**
+     * Cards ordered by id. The ids are bound as one array, so the statement is the same
+     * for any number of ids, unlike an {@code IN} list.
+     */
+    @QueryHints(@QueryHint(name = HINT_READ_ONLY, value = "true"))
+    @Query(value = "SELECT * FROM card_info WHERE id = ANY(:ids) ORDER BY id", nativeQuery = true)
+    List<CardInfo> findAllByIdArray(@Param("ids") long[] ids);
+
+    @QueryHints({@QueryHint(name = HINT_FETCH_SIZE, value = "100"), @QueryHint(name = HINT_READ_ONLY, value = "true")})
+    @Query("SELECT c FROM CardInfo c WHERE c.user.id = :userId ORDER BY c.id")
+    Stream<CardInfo> streamByUserId(@Param("userId") Long userId);
+}
@@ -0,0 +1,10 @@
+package com.internship.userservice.repository;
+
+public interface DetachingRepository {
+
+    /**
+     * Removes the entity, and whatever it cascades detach to, from the persistence context,
+     * so that entities read from a {@code Stream} do not pile up until the transaction ends.
+     */
+    void detach(Object entity);
+}
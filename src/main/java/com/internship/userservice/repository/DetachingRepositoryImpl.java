@@ -0,0 +1,15 @@
+package com.internship.userservice.repository;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+
+public class DetachingRepositoryImpl implements DetachingRepository {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public void detach(Object entity) {
+        entityManager.detach(entity);
+    }
+}
@@ -1,14 +1,21 @@
 package com.internship.userservice.repository;
 
 import com.internship.userservice.entity.User;
+import jakarta.persistence.QueryHint;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
-public interface UserRepository extends JpaRepository<User, Long> {
+import static org.hibernate.jpa.HibernateHints.HINT_FETCH_SIZE;
+import static org.hibernate.jpa.HibernateHints.HINT_READ_ONLY;
+
+public interface UserRepository extends JpaRepository<User, Long>, UserRepositoryCustom, DetachingRepository {
 
     Optional<User> findByEmail(String email);
 
@@ -19,4 +26,19 @@ public interface UserRepository extends JpaRepository<User, Long> {
     List<User> findAllByEmailDomain(@Param("domain") String domain);
 
     Optional<User> findByUserCredentialsId(Long userCredentialsId);
+
+    @Query("SELECT u.version FROM User u WHERE u.id = :id")
+    Optional<Long> findVersionById(@Param("id") Long id);
+
+    /**
+     * Users with their cards, read through a server-side cursor. Ordered by id, which
+     * Hibernate needs to assemble a fetched collection while scrolling.
+     */
+    @QueryHints({@QueryHint(name = HINT_FETCH_SIZE, value = "100"), @QueryHint(name = HINT_READ_ONLY, value = "true")})
+    @Query("SELECT u FROM User u LEFT JOIN FETCH u.cards ORDER BY u.id")
+    Stream<User> streamAll();
+
+    @QueryHints({@QueryHint(name = HINT_FETCH_SIZE, value = "100"), @QueryHint(name = HINT_READ_ONLY, value = "true")})
+    @Query("SELECT u FROM User u LEFT JOIN FETCH u.cards WHERE u.id IN :ids ORDER BY u.id")
+    Stream<User> streamAllByIdIn(@Param("ids") Collection<Long> ids);
 }
@@ -0,0 +1,44 @@
+package com.internship.userservice.repository;
+
+import com.internship.userservice.entity.User;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.stream.Stream;
+
+public interface UserRepositoryCustom {
+
+    /**
+     * Bumps the version of the user on commit, so that card changes
+     * invalidate the ETag of the whole user aggregate.
+     */
+    void incrementVersion(User user);
+
+    /**
+     * Keeps the writes of the current transaction out of {@code cache_outbox}, for changes
+     * whose cache entries the caller patches itself. Must run before those writes are flushed.
+     */
+    void skipCacheOutbox();
+
+    /**
+     * Users with their cards, ordered by id, read by one join. The ids are bound as one
+     * array, so the statement is the same for any number of ids, unlike an {@code IN} list.
+     */
+    List<User> findAllWithCardsByIdArray(long[] ids);
+
+    /**
+     * The id and the given columns of the users, ordered by id, without their cards. Only
+     * these columns are read, and the ids are bound as one array.
+     *
+     * @param columns column names of {@code users}, see {@link UserRow}
+     */
+    List<UserRow> findColumnsByIdArray(Collection<String> columns, long[] ids);
+
+    /**
+     * The id and the given columns of all users, ordered by id and read through a
+     * server-side cursor, without their cards.
+     *
+     * @param columns column names of {@code users}, see {@link UserRow}
+     */
+    Stream<UserRow> streamAllColumns(Collection<String> columns);
+}
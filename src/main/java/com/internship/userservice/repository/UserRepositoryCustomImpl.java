@@ -0,0 +1,117 @@
+package com.internship.userservice.repository;
+
+import com.internship.userservice.entity.User;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.PersistenceContext;
+import org.hibernate.query.NativeQuery;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+public class UserRepositoryCustomImpl implements UserRepositoryCustom {
+
+    private static final String FIND_WITH_CARDS_BY_ID_ARRAY = """
+            SELECT {u.*}, {c.*}
+            FROM users u
+            LEFT JOIN card_info c ON c.user_id = u.id
+            WHERE u.id = ANY(:ids)
+            ORDER BY u.id, c.id""";
+
+    private static final int STREAM_FETCH_SIZE = 100;
+
+    /**
+     * The columns of {@link UserRow} and their types. Names are checked against it before
+     * they become part of a statement.
+     */
+    private static final Map<String, Class<?>> USER_COLUMNS = Map.of(
+            "id", Long.class,
+            "name", String.class,
+            "surname", String.class,
+            "birth_date", LocalDate.class,
+            "email", String.class,
+            "version", Long.class);
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public void incrementVersion(User user) {
+        entityManager.lock(user, LockModeType.OPTIMISTIC_FORCE_INCREMENT);
+    }
+
+    @Override
+    public void skipCacheOutbox() {
+        entityManager.createNativeQuery("SELECT set_config('app.cache_outbox', 'skip', true)").getSingleResult();
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public List<User> findAllWithCardsByIdArray(long[] ids) {
+        List<User> rows = entityManager.createNativeQuery(FIND_WITH_CARDS_BY_ID_ARRAY)
+                .unwrap(NativeQuery.class)
+                .addEntity("u", User.class)
+                .addJoin("c", "u.cards")
+                .setParameter("ids", ids)
+                .setReadOnly(true)
+                .getResultList();
+
+        // one row per card, the rows of a user are adjacent
+        List<User> users = new ArrayList<>();
+        for (User user : rows) {
+            if (users.isEmpty() || users.getLast() != user) {
+                users.add(user);
+            }
+        }
+        return users;
+    }
+
+    @Override
+    public List<UserRow> findColumnsByIdArray(Collection<String> columns, long[] ids) {
+        return columnsQuery(columns, "WHERE id = ANY(:ids) ")
+                .setParameter("ids", ids)
+                .getResultList();
+    }
+
+    @Override
+    public Stream<UserRow> streamAllColumns(Collection<String> columns) {
+        return columnsQuery(columns, "")
+                .setFetchSize(STREAM_FETCH_SIZE)
+                .getResultStream();
+    }
+
+    @SuppressWarnings("unchecked")
+    private NativeQuery<UserRow> columnsQuery(Collection<String> columns, String where) {
+        List<String> selected = new ArrayList<>();
+        selected.add("id");
+        for (String column : columns) {
+            if (!USER_COLUMNS.containsKey(column)) {
+                throw new IllegalArgumentException("Not a column of users: " + column);
+            }
+            if (!selected.contains(column)) {
+                selected.add(column);
+            }
+        }
+        String sql = "SELECT " + String.join(", ", selected) + " FROM users " + where + "ORDER BY id";
+
+        NativeQuery<UserRow> query = entityManager.createNativeQuery(sql).unwrap(NativeQuery.class);
+        for (String column : selected) {
+            query.addScalar(column, USER_COLUMNS.get(column));
+        }
+        return query
+                .setTupleTransformer((tuple, aliases) -> {
+                    Map<String, Object> row = new HashMap<>();
+                    for (int i = 0; i < aliases.length; i++) {
+                        row.put(aliases[i], tuple[i]);
+                    }
+                    return new UserRow((Long) row.get("id"), (String) row.get("name"), (String) row.get("surname"),
+                            (LocalDate) row.get("birth_date"), (String) row.get("email"), (Long) row.get("version"));
+                })
+                .setReadOnly(true);
+    }
+}
@@ -0,0 +1,10 @@
+package com.internship.userservice.repository;
+
+import java.time.LocalDate;
+
+/**
+ * Some columns of a {@code users} row, read without the entity or its cards. Columns that
+ * were not selected are {@code null}.
+ */
+public record UserRow(Long id, String name, String surname, LocalDate birthDate, String email, Long version) {
+}
@@ -4,6 +4,7 @@ import com.internship.userservice.dto.card.CardInfoRequest;
 import com.internship.userservice.dto.card.CardInfoResponse;
 
 import java.util.List;
+import java.util.function.Consumer;
 
 public interface CardInfoService {
 
@@ -15,7 +16,13 @@ public interface CardInfoService {
 
     List<CardInfoResponse> getByUserId(Long userId);
 
-    CardInfoResponse update(Long id, CardInfoRequest dto, Long userCredentialsId);
+    void streamAllByIds(List<Long> ids, Consumer<? super CardInfoResponse> action);
+
+    void streamByUserId(Long userId, Consumer<? super CardInfoResponse> action);
+
+    void streamBatch(long[] ids, Consumer<? super CardInfoResponse> action);
+
+    CardInfoResponse update(Long id, CardInfoRequest dto, Long userCredentialsId, Long expectedVersion);
 
     void delete(Long id, Long userCredentialsId);
 }
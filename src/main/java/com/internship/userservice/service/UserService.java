@@ -1,9 +1,12 @@
 package com.internship.userservice.service;
 
+import com.internship.userservice.dto.user.UserFields;
 import com.internship.userservice.dto.user.UserRequest;
 import com.internship.userservice.dto.user.UserResponse;
 
 import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
 
 public interface UserService {
 
@@ -11,9 +14,14 @@ public interface UserService {
     UserResponse getUserById(Long id);
     UserResponse getUserByEmail(String email);
     List<UserResponse> getUsersByIds(List<Long> ids);
-    UserResponse updateUserById(Long id, UserRequest dto, Long userCredentialsId);
+    UserResponse updateUserById(Long id, UserRequest dto, Long userCredentialsId, Long expectedVersion);
     void deleteUserById(Long id, Long userCredentialsId);
     List<UserResponse> getAllUsers();
     UserResponse getByUserCredentialsId(Long userCredentialsId);
+    void streamUsersByIds(List<Long> ids, Consumer<? super UserResponse> action);
+    void streamAllUsers(Consumer<? super UserResponse> action);
+    void streamUsersBatch(long[] ids, Consumer<? super UserResponse> action);
+    void streamUserFieldsBatch(long[] ids, UserFields fields, Consumer<? super Map<String, Object>> action);
+    void streamAllUserFields(UserFields fields, Consumer<? super Map<String, Object>> action);
 }
 
@@ -1,69 +1,81 @@
 package com.internship.userservice.service.impl;
 
 
+import com.internship.userservice.cache.CacheBatchReader;
+import com.internship.userservice.cache.CacheKeys;
+import com.internship.userservice.cache.UserCacheInvalidator;
+import com.internship.userservice.cache.UserCardsCache;
 import com.internship.userservice.dto.card.CardInfoRequest;
 import com.internship.userservice.dto.card.CardInfoResponse;
 import com.internship.userservice.entity.CardInfo;
 import com.internship.userservice.entity.User;
 import com.internship.userservice.exception.AlreadyExistsException;
 import com.internship.userservice.exception.NotFoundException;
+import com.internship.userservice.exception.PreconditionFailedException;
 import com.internship.userservice.mapper.CardInfoMapper;
 import com.internship.userservice.repository.CardInfoRepository;
 import com.internship.userservice.repository.UserRepository;
 import com.internship.userservice.service.CardInfoService;
+import com.internship.userservice.uniqueness.UniquenessFilter;
+import io.micrometer.core.annotation.Timed;
 import lombok.RequiredArgsConstructor;
-import org.springframework.cache.CacheManager;
-import org.springframework.cache.annotation.CacheEvict;
 import org.springframework.cache.annotation.CachePut;
 import org.springframework.cache.annotation.Cacheable;
 import org.springframework.security.access.AccessDeniedException;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.Collections;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
 @Service
 @RequiredArgsConstructor
+@Timed(value = "service.method", histogram = true)
 @Transactional(readOnly = true)
 public class CardInfoServiceImpl implements CardInfoService {
 
     private final CardInfoRepository cardInfoRepository;
     private final UserRepository userRepository;
     private final CardInfoMapper cardInfoMapper;
-    private final CacheManager cacheManager;
-
-    private void evictUserCaches(User user) {
-        var users = cacheManager.getCache("users");
-        var usersByEmail = cacheManager.getCache("usersByEmail");
-        if (users != null) users.evict(user.getId());
-        if (usersByEmail != null) usersByEmail.evict(user.getEmail());
-    }
+    private final UserCacheInvalidator cacheInvalidator;
+    private final UserCardsCache userCardsCache;
+    private final UniquenessFilter uniquenessFilter;
+    private final CacheBatchReader cacheBatchReader;
 
     @Override
     @Transactional
     public CardInfoResponse create(CardInfoRequest dto, Long userCredentialsId) {
 
         User owner = userRepository.findByUserCredentialsId(userCredentialsId)
-                .orElseThrow(() -> new NotFoundException("User with credentials id=" + userCredentialsId + " not found"));
+                .orElseThrow(() -> new NotFoundException("User with credentials id={} not found", userCredentialsId));
 
-        if (cardInfoRepository.existsByNumber(dto.getNumber())) {
-            throw new AlreadyExistsException("Card number '" + dto.getNumber() + "' already exists");
+        if (uniquenessFilter.cardNumberExists(dto.getNumber(), () -> cardInfoRepository.existsByNumber(dto.getNumber()))) {
+            throw new AlreadyExistsException("Card number '{}' already exists", dto.getNumber());
         }
 
+        userRepository.skipCacheOutbox();
         CardInfo card = cardInfoMapper.toEntity(dto);
         card.setUser(owner);
 
         card = cardInfoRepository.save(card);
-        evictUserCaches(owner);
+        uniquenessFilter.addCardNumber(card.getNumber());
+        userRepository.incrementVersion(owner);
+        cacheInvalidator.evictSecondaryKeys(owner.getId(), owner.getEmail());
 
-        return cardInfoMapper.toDto(card);
+        CardInfoResponse response = cardInfoMapper.toDto(card);
+        userCardsCache.putCard(response, owner::getVersion);
+        return response;
     }
 
     @Override
     @Cacheable(value = "cards", key = "#id")
     public CardInfoResponse getCardById(Long id) {
         return cardInfoMapper.toDto(cardInfoRepository.findById(id)
-                .orElseThrow(() -> new NotFoundException("Card id=" + id + " not found")));
+                .orElseThrow(() -> new NotFoundException("Card id={} not found", id)));
     }
 
     @Override
@@ -73,48 +85,109 @@ public class CardInfoServiceImpl implements CardInfoService {
 
     @Override
     public List<CardInfoResponse> getByUserId(Long userId) {
-        return cardInfoMapper.toDtoList(cardInfoRepository.findByUserId(userId));
+        List<CardInfoResponse> cached = userCardsCache.get(userId);
+        if (cached != null) {
+            return cached;
+        }
+        // read before the cards, so the list is never stored as newer than it is
+        Optional<Long> userVersion = userRepository.findVersionById(userId);
+        List<CardInfoResponse> cards = cardInfoMapper.toDtoList(cardInfoRepository.findByUserId(userId));
+        userVersion.ifPresent(version -> userCardsCache.fill(userId, version, cards));
+        return cards;
+    }
+
+    @Override
+    public void streamAllByIds(List<Long> ids, Consumer<? super CardInfoResponse> action) {
+        try (Stream<CardInfo> cards = cardInfoRepository.streamAllByIdIn(ids)) {
+            forEachDetached(cards, action);
+        }
+    }
+
+    @Override
+    public void streamByUserId(Long userId, Consumer<? super CardInfoResponse> action) {
+        try (Stream<CardInfo> cards = cardInfoRepository.streamByUserId(userId)) {
+            forEachDetached(cards, action);
+        }
+    }
+
+    /**
+     * Reads the distinct ids chunk by chunk: cached cards from Redis, the others from the
+     * database, which are not cached. Cards are written in id order.
+     */
+    @Override
+    public void streamBatch(long[] ids, Consumer<? super CardInfoResponse> action) {
+        IdBatches.forEachChunk(IdBatches.distinctSorted(ids), chunk -> {
+            Map<Long, CardInfoResponse> cached = cacheBatchReader.getAll(CacheKeys.CARDS, chunk, CardInfoResponse.class);
+            long[] missing = IdBatches.missing(chunk, cached);
+            List<CardInfoResponse> loaded = List.of();
+            if (missing.length > 0) {
+                List<CardInfo> cards = cardInfoRepository.findAllByIdArray(missing);
+                loaded = cardInfoMapper.toDtoList(cards);
+                cards.forEach(cardInfoRepository::detach);
+            }
+            IdBatches.merge(chunk, cached, loaded, CardInfoResponse::getId, action);
+        });
     }
 
     @Override
     @Transactional
     @CachePut(value = "cards", key = "#id")
-    public CardInfoResponse update(Long id, CardInfoRequest dto, Long userCredentialsId) {
+    public CardInfoResponse update(Long id, CardInfoRequest dto, Long userCredentialsId, Long expectedVersion) {
 
         CardInfo card = cardInfoRepository.findById(id)
-                .orElseThrow(() -> new NotFoundException("Card id=" + id + " not found"));
+                .orElseThrow(() -> new NotFoundException("Card id={} not found", id));
 
         if (!card.getUser().getUserCredentialsId().equals(userCredentialsId)) {
             throw new AccessDeniedException("Access denied: you can only update your own cards");
         }
 
+        if (expectedVersion != null && !expectedVersion.equals(card.getVersion())) {
+            throw new PreconditionFailedException("Card id={} was modified, current version={}", id, card.getVersion());
+        }
+
         if (!card.getNumber().equals(dto.getNumber()) &&
-                cardInfoRepository.existsByNumber(dto.getNumber())) {
-            throw new AlreadyExistsException("Card number '" + dto.getNumber() + "' already exists");
+                uniquenessFilter.cardNumberExists(dto.getNumber(), () -> cardInfoRepository.existsByNumber(dto.getNumber()))) {
+            throw new AlreadyExistsException("Card number '{}' already exists", dto.getNumber());
         }
 
+        userRepository.skipCacheOutbox();
         cardInfoMapper.updateEntity(card, dto);
         card = cardInfoRepository.save(card);
-
-        evictUserCaches(card.getUser());
-
-        return cardInfoMapper.toDto(card);
+        cardInfoRepository.flush();
+        uniquenessFilter.addCardNumber(card.getNumber());
+        userRepository.incrementVersion(card.getUser());
+        cacheInvalidator.evictSecondaryKeys(card.getUser().getId(), card.getUser().getEmail());
+
+        CardInfoResponse response = cardInfoMapper.toDto(card);
+        userCardsCache.putCard(response, card.getUser()::getVersion);
+        return response;
     }
 
     @Override
     @Transactional
-    @CacheEvict(value = "cards", key = "#id")
     public void delete(Long id, Long userCredentialsId) {
 
         CardInfo card = cardInfoRepository.findById(id)
-                .orElseThrow(() -> new NotFoundException("Card id=" + id + " not found"));
+                .orElseThrow(() -> new NotFoundException("Card id={} not found", id));
 
         if (!card.getUser().getUserCredentialsId().equals(userCredentialsId)) {
             throw new AccessDeniedException("Access denied: you can only delete your own cards");
         }
 
+        userRepository.skipCacheOutbox();
         cardInfoRepository.deleteById(id);
+        userRepository.incrementVersion(card.getUser());
+
+        User owner = card.getUser();
+        cacheInvalidator.evictSecondaryKeys(owner.getId(), Collections.singletonList(owner.getEmail()), List.of(id));
+        userCardsCache.removeCard(owner.getId(), id, card.getVersion() + 1, owner::getVersion);
+    }
 
-        evictUserCaches(card.getUser());
+    private void forEachDetached(Stream<CardInfo> cards, Consumer<? super CardInfoResponse> action) {
+        cards.forEach(card -> {
+            CardInfoResponse response = cardInfoMapper.toDto(card);
+            cardInfoRepository.detach(card);
+            action.accept(response);
+        });
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,79 @@
+package com.internship.userservice.service.impl;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+import java.util.function.ToLongFunction;
+
+/**
+ * Id lists of batch lookups, kept as primitive arrays so that large requests are neither
+ * boxed nor hashed as a whole. Only the ids of one chunk are boxed, for the cache lookup.
+ */
+final class IdBatches {
+
+    /**
+     * Ids per cache lookup and database query, which bounds what one chunk holds in memory.
+     */
+    static final int CHUNK_SIZE = 1000;
+
+    private IdBatches() {
+    }
+
+    /**
+     * The ids sorted, without duplicates.
+     */
+    static long[] distinctSorted(long[] ids) {
+        long[] sorted = ids.clone();
+        Arrays.sort(sorted);
+        int distinct = 0;
+        for (long id : sorted) {
+            if (distinct == 0 || sorted[distinct - 1] != id) {
+                sorted[distinct++] = id;
+            }
+        }
+        return Arrays.copyOf(sorted, distinct);
+    }
+
+    static void forEachChunk(long[] ids, Consumer<long[]> action) {
+        for (int from = 0; from < ids.length; from += CHUNK_SIZE) {
+            action.accept(Arrays.copyOfRange(ids, from, Math.min(from + CHUNK_SIZE, ids.length)));
+        }
+    }
+
+    /**
+     * The ids that are not keys of {@code found}, in their order.
+     */
+    static long[] missing(long[] ids, Map<Long, ?> found) {
+        if (found.isEmpty()) {
+            return ids;
+        }
+        long[] missing = new long[ids.length];
+        int count = 0;
+        for (long id : ids) {
+            if (!found.containsKey(id)) {
+                missing[count++] = id;
+            }
+        }
+        return Arrays.copyOf(missing, count);
+    }
+
+    /**
+     * Passes the values of the sorted {@code ids} to {@code action} in id order, taking each
+     * from {@code cached} or else from {@code loaded}, which is sorted by id as well. Ids
+     * found in neither are skipped.
+     */
+    static <T> void merge(long[] ids, Map<Long, T> cached, List<T> loaded, ToLongFunction<T> idOf,
+                          Consumer<? super T> action) {
+        int next = 0;
+        for (long id : ids) {
+            T value = cached.get(id);
+            if (value == null && next < loaded.size() && idOf.applyAsLong(loaded.get(next)) == id) {
+                value = loaded.get(next++);
+            }
+            if (value != null) {
+                action.accept(value);
+            }
+        }
+    }
+}
@@ -1,15 +1,23 @@
 package com.internship.userservice.service.impl;
 
+import com.internship.userservice.cache.CacheBatchReader;
+import com.internship.userservice.cache.CacheKeys;
+import com.internship.userservice.cache.UserCacheInvalidator;
+import com.internship.userservice.dto.user.UserFields;
 import com.internship.userservice.dto.user.UserRequest;
 import com.internship.userservice.dto.user.UserResponse;
+import com.internship.userservice.entity.CardInfo;
 import com.internship.userservice.entity.User;
 import com.internship.userservice.exception.AlreadyExistsException;
 import com.internship.userservice.exception.NotFoundException;
+import com.internship.userservice.exception.PreconditionFailedException;
 import com.internship.userservice.mapper.UserMapper;
 import com.internship.userservice.repository.UserRepository;
+import com.internship.userservice.repository.UserRow;
 import com.internship.userservice.service.UserService;
+import com.internship.userservice.uniqueness.UniquenessFilter;
+import io.micrometer.core.annotation.Timed;
 import lombok.RequiredArgsConstructor;
-import org.springframework.cache.annotation.CacheEvict;
 import org.springframework.cache.annotation.CachePut;
 import org.springframework.cache.annotation.Cacheable;
 import org.springframework.security.access.AccessDeniedException;
@@ -17,25 +25,33 @@ import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
 @Service
 @RequiredArgsConstructor
+@Timed(value = "service.method", histogram = true)
 @Transactional(readOnly = true)
 public class UserServiceImpl implements UserService {
 
     private final UserRepository userRepository;
     private final UserMapper userMapper;
+    private final UserCacheInvalidator cacheInvalidator;
+    private final UniquenessFilter uniquenessFilter;
+    private final CacheBatchReader cacheBatchReader;
 
     @Override
     @Transactional
     public UserResponse create(UserRequest dto, Long userCredentialsId) {
 
-        if (userRepository.findByEmail(dto.getEmail()).isPresent()) {
-            throw new AlreadyExistsException("User with email '" + dto.getEmail() + "' already exists");
+        if (uniquenessFilter.emailExists(dto.getEmail(), () -> userRepository.findByEmail(dto.getEmail()).isPresent())) {
+            throw new AlreadyExistsException("User with email '{}' already exists", dto.getEmail());
         }
         User user = userMapper.toEntity(dto);
         user.setUserCredentialsId(userCredentialsId);
         User saved = userRepository.save(user);
+        uniquenessFilter.addEmail(saved.getEmail());
         return userMapper.toDto(saved);
     }
 
@@ -44,7 +60,7 @@ public class UserServiceImpl implements UserService {
     public UserResponse getUserById(Long id) {
 
         return userMapper.toDto(userRepository.findById(id)
-                .orElseThrow(() -> new NotFoundException("User id=" + id + " not found")));
+                .orElseThrow(() -> new NotFoundException("User id={} not found", id)));
     }
 
     @Override
@@ -52,7 +68,7 @@ public class UserServiceImpl implements UserService {
     public UserResponse getUserByEmail(String email) {
 
         return userMapper.toDto(userRepository.findByEmail(email)
-                .orElseThrow(() -> new NotFoundException("User email=" + email + " not found"))
+                .orElseThrow(() -> new NotFoundException("User email={} not found", email))
         );
     }
 
@@ -65,35 +81,46 @@ public class UserServiceImpl implements UserService {
     @Transactional
     @Override
     @CachePut(value = "users", key = "#id")
-    @CacheEvict(value = "usersByEmail", key = "#dto.email")
-    public UserResponse updateUserById(Long id, UserRequest dto, Long userCredentialsId) {
+    public UserResponse updateUserById(Long id, UserRequest dto, Long userCredentialsId, Long expectedVersion) {
 
         User user = userRepository.findById(id)
-                .orElseThrow(() -> new NotFoundException("User id=" + id + " not found"));
+                .orElseThrow(() -> new NotFoundException("User id={} not found", id));
 
         if (!userCredentialsId.equals(user.getUserCredentialsId())) {
             throw new AccessDeniedException("Access denied");
         }
+        if (expectedVersion != null && !expectedVersion.equals(user.getVersion())) {
+            throw new PreconditionFailedException("User id={} was modified, current version={}", id, user.getVersion());
+        }
         if (!user.getEmail().equals(dto.getEmail()) &&
-                userRepository.findByEmail(dto.getEmail()).isPresent()) {
-            throw new AlreadyExistsException("Email '" + dto.getEmail() + "' already in use");
+                uniquenessFilter.emailExists(dto.getEmail(), () -> userRepository.findByEmail(dto.getEmail()).isPresent())) {
+            throw new AlreadyExistsException("Email '{}' already in use", dto.getEmail());
         }
+        String oldEmail = user.getEmail();
+        userRepository.skipCacheOutbox();
         userMapper.updateEntity(user, dto);
+        userRepository.flush();
+        uniquenessFilter.addEmail(user.getEmail());
+        cacheInvalidator.evictSecondaryKeys(id, oldEmail, dto.getEmail());
         return userMapper.toDto(user);
     }
 
     @Transactional
     @Override
-    @CacheEvict(value = "users", key = "#id")
     public void deleteUserById(Long id, Long userCredentialsId) {
 
         User user = userRepository.findById(id)
-                .orElseThrow(() -> new NotFoundException("User id=" + id + " not found"));
+                .orElseThrow(() -> new NotFoundException("User id={} not found", id));
 
         if (!userCredentialsId.equals(user.getUserCredentialsId())) {
             throw new AccessDeniedException("Access denied");
         }
+        List<Long> cardIds = user.getCards() == null ? List.of() : user.getCards().stream()
+                .map(CardInfo::getId)
+                .toList();
+        userRepository.skipCacheOutbox();
         userRepository.delete(user);
+        cacheInvalidator.evictAll(List.of(id), List.of(user.getEmail()), cardIds);
     }
 
     @Override
@@ -102,9 +129,92 @@ public class UserServiceImpl implements UserService {
     }
 
     @Override
+    public void streamUsersByIds(List<Long> ids, Consumer<? super UserResponse> action) {
+        try (Stream<User> users = userRepository.streamAllByIdIn(ids)) {
+            forEachDetached(users, action);
+        }
+    }
+
+    @Override
+    public void streamAllUsers(Consumer<? super UserResponse> action) {
+        try (Stream<User> users = userRepository.streamAll()) {
+            forEachDetached(users, action);
+        }
+    }
+
+    /**
+     * Reads the distinct ids chunk by chunk: cached users from Redis, the others with their
+     * cards from the database, which are not cached. Users are written in id order.
+     */
+    @Override
+    public void streamUsersBatch(long[] ids, Consumer<? super UserResponse> action) {
+        IdBatches.forEachChunk(IdBatches.distinctSorted(ids), chunk -> {
+            Map<Long, UserResponse> cached = cacheBatchReader.getAll(CacheKeys.USERS, chunk, UserResponse.class);
+            long[] missing = IdBatches.missing(chunk, cached);
+            List<UserResponse> loaded = List.of();
+            if (missing.length > 0) {
+                List<User> users = userRepository.findAllWithCardsByIdArray(missing);
+                loaded = userMapper.toDtoList(users);
+                users.forEach(userRepository::detach);
+            }
+            IdBatches.merge(chunk, cached, loaded, UserResponse::getId, action);
+        });
+    }
+
+    /**
+     * Without cards, reads only the selected columns of each chunk from the database and
+     * skips Redis, whose entries include the cards.
+     */
+    @Override
+    public void streamUserFieldsBatch(long[] ids, UserFields fields, Consumer<? super Map<String, Object>> action) {
+        if (fields.includesCards()) {
+            streamUsersBatch(ids, user -> action.accept(fields.select(user)));
+            return;
+        }
+        List<String> columns = columns(fields);
+        IdBatches.forEachChunk(IdBatches.distinctSorted(ids), chunk ->
+                userRepository.findColumnsByIdArray(columns, chunk)
+                        .forEach(row -> action.accept(fields.select(userMapper.toDto(row)))));
+    }
+
+    @Override
+    public void streamAllUserFields(UserFields fields, Consumer<? super Map<String, Object>> action) {
+        if (fields.includesCards()) {
+            streamAllUsers(user -> action.accept(fields.select(user)));
+            return;
+        }
+        try (Stream<UserRow> rows = userRepository.streamAllColumns(columns(fields))) {
+            rows.forEach(row -> action.accept(fields.select(userMapper.toDto(row))));
+        }
+    }
+
+    @Override
+    @Cacheable(value = "usersByCredentialsId", key = "#userCredentialsId")
     public UserResponse getByUserCredentialsId(Long userCredentialsId) {
         User user = userRepository.findByUserCredentialsId(userCredentialsId)
-                .orElseThrow(() -> new NotFoundException("User with credentials id=" + userCredentialsId + " not found"));
+                .orElseThrow(() -> new NotFoundException("User with credentials id={} not found", userCredentialsId));
         return userMapper.toDto(user);
     }
+
+    private static List<String> columns(UserFields fields) {
+        return fields.columns().stream()
+                .map(field -> switch (field) {
+                    case ID -> "id";
+                    case NAME -> "name";
+                    case SURNAME -> "surname";
+                    case BIRTH_DATE -> "birth_date";
+                    case EMAIL -> "email";
+                    case VERSION -> "version";
+                    case CARDS -> throw new IllegalArgumentException("Cards are not a column of users");
+                })
+                .toList();
+    }
+
+    private void forEachDetached(Stream<User> users, Consumer<? super UserResponse> action) {
+        users.forEach(user -> {
+            UserResponse response = userMapper.toDto(user);
+            userRepository.detach(user);
+            action.accept(response);
+        });
+    }
 }
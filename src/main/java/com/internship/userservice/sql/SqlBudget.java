@@ -0,0 +1,126 @@
+package com.internship.userservice.sql;
+
+import com.internship.userservice.config.SqlBudgetProperties;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Statements executed by the current thread within a scope (an HTTP request or the
+ * outermost service call), checked against the configured budget. Nested scopes join
+ * the outer one.
+ * <p>
+ * In LOG mode the scope is checked when it ends. In FAIL mode it is checked after every
+ * statement, and the statement that exceeds the budget throws, so the request fails and
+ * its transaction rolls back before anything is written to the response.
+ */
+@Slf4j
+public class SqlBudget {
+
+    private static final ThreadLocal<Scope> CURRENT = new ThreadLocal<>();
+
+    private final SqlBudgetProperties properties;
+
+    public SqlBudget(SqlBudgetProperties properties) {
+        this.properties = properties;
+    }
+
+    /**
+     * Runs {@code action} in a scope named {@code name} unless one is already open.
+     */
+    public <T> T measure(String name, Action<T> action) throws Throwable {
+        if (CURRENT.get() != null) {
+            return action.run();
+        }
+        Scope scope = new Scope(name);
+        CURRENT.set(scope);
+        T result;
+        try {
+            result = action.run();
+        } finally {
+            CURRENT.remove();
+        }
+        if (properties.getMode() == SqlBudgetProperties.Mode.LOG) {
+            String violations = violations(scope);
+            if (violations != null) {
+                log.warn(message(scope, violations));
+            }
+        }
+        return result;
+    }
+
+    @FunctionalInterface
+    public interface Action<T> {
+        T run() throws Throwable;
+    }
+
+    void record(String sql, long elapsedMillis) {
+        Scope scope = CURRENT.get();
+        if (scope == null) {
+            return;
+        }
+        scope.record(SqlFingerprint.of(sql), elapsedMillis);
+        if (properties.getMode() == SqlBudgetProperties.Mode.FAIL) {
+            String violations = violations(scope);
+            if (violations != null) {
+                throw new SqlBudgetExceededException(message(scope, violations));
+            }
+        }
+    }
+
+    private String violations(Scope scope) {
+        StringBuilder violations = new StringBuilder();
+        if (scope.statements > properties.getMaxStatements()) {
+            violations.append(scope.statements).append(" statements, budget ")
+                    .append(properties.getMaxStatements()).append("; ");
+        }
+        if (scope.millis > properties.getMaxDuration().toMillis()) {
+            violations.append(scope.millis).append(" ms in the database, budget ")
+                    .append(properties.getMaxDuration().toMillis()).append(" ms; ");
+        }
+        scope.mostRepeated()
+                .filter(entry -> entry.getValue().count >= properties.getRepeatedStatementThreshold())
+                .ifPresent(entry -> violations.append("possible N+1, ").append(entry.getValue().count)
+                        .append(" executions of the same statement; "));
+        return violations.isEmpty() ? null : violations.toString();
+    }
+
+    private static String message(Scope scope, String violations) {
+        return "SQL budget exceeded in " + scope.name + ": " + violations
+                + scope.mostRepeated().map(entry -> "most repeated (" + entry.getValue().count + "x, "
+                + entry.getValue().millis + " ms): " + entry.getKey()).orElse("");
+    }
+
+    private static final class Scope {
+
+        private final String name;
+        private final Map<String, Stat> byFingerprint = new HashMap<>();
+        private int statements;
+        private long millis;
+
+        private Scope(String name) {
+            this.name = name;
+        }
+
+        private void record(String fingerprint, long elapsedMillis) {
+            statements++;
+            millis += elapsedMillis;
+            Stat stat = byFingerprint.computeIfAbsent(fingerprint, key -> new Stat());
+            stat.count++;
+            stat.millis += elapsedMillis;
+        }
+
+        private Optional<Map.Entry<String, Stat>> mostRepeated() {
+            return byFingerprint.entrySet().stream()
+                    .max(Comparator.comparingInt(entry -> entry.getValue().count));
+        }
+    }
+
+    private static final class Stat {
+        private int count;
+        private long millis;
+    }
+}
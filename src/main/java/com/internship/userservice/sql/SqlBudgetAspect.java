@@ -0,0 +1,24 @@
+package com.internship.userservice.sql;
+
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+
+/**
+ * Opens a {@link SqlBudget} scope around service calls made outside an HTTP request,
+ * so service-level integration tests are checked too.
+ */
+@Aspect
+public class SqlBudgetAspect {
+
+    private final SqlBudget sqlBudget;
+
+    public SqlBudgetAspect(SqlBudget sqlBudget) {
+        this.sqlBudget = sqlBudget;
+    }
+
+    @Around("within(com.internship.userservice.service..*) && execution(public * *(..))")
+    public Object measure(ProceedingJoinPoint joinPoint) throws Throwable {
+        return sqlBudget.measure(joinPoint.getSignature().toShortString(), joinPoint::proceed);
+    }
+}
@@ -0,0 +1,8 @@
+package com.internship.userservice.sql;
+
+public class SqlBudgetExceededException extends RuntimeException {
+
+    public SqlBudgetExceededException(String message) {
+        super(message);
+    }
+}
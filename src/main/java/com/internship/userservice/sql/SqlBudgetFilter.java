@@ -0,0 +1,36 @@
+package com.internship.userservice.sql;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+
+/**
+ * Opens a {@link SqlBudget} scope for every HTTP request.
+ */
+public class SqlBudgetFilter extends OncePerRequestFilter {
+
+    private final SqlBudget sqlBudget;
+
+    public SqlBudgetFilter(SqlBudget sqlBudget) {
+        this.sqlBudget = sqlBudget;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        try {
+            sqlBudget.measure(request.getMethod() + " " + request.getRequestURI(), () -> {
+                chain.doFilter(request, response);
+                return null;
+            });
+        } catch (ServletException | IOException | RuntimeException | Error ex) {
+            throw ex;
+        } catch (Throwable ex) {
+            throw new ServletException(ex);
+        }
+    }
+}
@@ -0,0 +1,35 @@
+package com.internship.userservice.sql;
+
+import net.ttddyy.dsproxy.ExecutionInfo;
+import net.ttddyy.dsproxy.QueryInfo;
+import net.ttddyy.dsproxy.listener.QueryExecutionListener;
+
+import java.util.List;
+
+/**
+ * Feeds every executed statement into the {@link SqlBudget} scope of the current thread.
+ * A JDBC batch counts as one statement per distinct SQL string. In FAIL mode the
+ * {@link SqlBudgetExceededException} is thrown from here, out of the JDBC call that
+ * exceeded the budget.
+ */
+public class SqlBudgetListener implements QueryExecutionListener {
+
+    private final SqlBudget sqlBudget;
+
+    public SqlBudgetListener(SqlBudget sqlBudget) {
+        this.sqlBudget = sqlBudget;
+    }
+
+    @Override
+    public void beforeQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+    }
+
+    @Override
+    public void afterQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+        long elapsed = execInfo.getElapsedTime();
+        for (QueryInfo query : queryInfoList) {
+            sqlBudget.record(query.getQuery(), elapsed);
+            elapsed = 0;
+        }
+    }
+}
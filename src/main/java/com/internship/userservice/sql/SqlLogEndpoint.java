@@ -0,0 +1,42 @@
+package com.internship.userservice.sql;
+
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+import org.springframework.lang.Nullable;
+
+/**
+ * Switches SQL logging at runtime: {@code POST /actuator/sqllog} with a body like
+ * {@code {"active": true, "sampleRate": 0.05}}.
+ * <p>
+ * Actuator requests are not authenticated, so only the state can be read unless
+ * {@code management.endpoint.sqllog.access=unrestricted} is set.
+ */
+@Endpoint(id = "sqllog")
+public class SqlLogEndpoint {
+
+    private final SqlLogListener listener;
+
+    public SqlLogEndpoint(SqlLogListener listener) {
+        this.listener = listener;
+    }
+
+    @ReadOperation
+    public SqlLogState state() {
+        return new SqlLogState(listener.isActive(), listener.getSampleRate());
+    }
+
+    @WriteOperation
+    public SqlLogState configure(@Nullable Boolean active, @Nullable Double sampleRate) {
+        if (sampleRate != null) {
+            listener.setSampleRate(sampleRate);
+        }
+        if (active != null) {
+            listener.setActive(active);
+        }
+        return state();
+    }
+
+    public record SqlLogState(boolean active, double sampleRate) {
+    }
+}
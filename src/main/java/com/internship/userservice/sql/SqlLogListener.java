@@ -0,0 +1,108 @@
+package com.internship.userservice.sql;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.internship.userservice.config.SqlLogProperties;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import net.ttddyy.dsproxy.ExecutionInfo;
+import net.ttddyy.dsproxy.QueryInfo;
+import net.ttddyy.dsproxy.listener.QueryExecutionListener;
+import net.ttddyy.dsproxy.proxy.ParameterSetOperation;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Writes a sample of executed statements as one JSON object per line, with card numbers
+ * in bind values and literals masked.
+ * <p>
+ * The line is built on the calling thread, but written by the asynchronous appender of
+ * this logger (see {@code logback-spring.xml}), so a slow console never blocks a request.
+ * While inactive a statement costs one volatile read.
+ */
+@Slf4j
+public class SqlLogListener implements QueryExecutionListener {
+
+    private static final ObjectMapper JSON = new ObjectMapper();
+
+    @Getter
+    private volatile boolean active;
+    @Getter
+    private volatile double sampleRate;
+    private final long slowThresholdMillis;
+    private final int maxSqlLength;
+
+    public SqlLogListener(SqlLogProperties properties) {
+        this.active = properties.isActive();
+        this.sampleRate = properties.getSampleRate();
+        this.slowThresholdMillis = properties.getSlowThreshold().toMillis();
+        this.maxSqlLength = properties.getMaxSqlLength();
+    }
+
+    public void setActive(boolean active) {
+        this.active = active;
+    }
+
+    public void setSampleRate(double sampleRate) {
+        if (sampleRate < 0 || sampleRate > 1) {
+            throw new IllegalArgumentException("Sample rate must be between 0 and 1, got " + sampleRate);
+        }
+        this.sampleRate = sampleRate;
+    }
+
+    @Override
+    public void beforeQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+    }
+
+    @Override
+    public void afterQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+        if (!active || !log.isInfoEnabled()) {
+            return;
+        }
+        boolean slow = execInfo.getElapsedTime() >= slowThresholdMillis;
+        if (!slow && ThreadLocalRandom.current().nextDouble() >= sampleRate) {
+            return;
+        }
+        try {
+            log.info(JSON.writeValueAsString(toJson(execInfo, queryInfoList, slow)));
+        } catch (JsonProcessingException e) {
+            log.warn("Could not write SQL log line", e);
+        }
+    }
+
+    private ObjectNode toJson(ExecutionInfo execInfo, List<QueryInfo> queryInfoList, boolean slow) {
+        ObjectNode line = JSON.createObjectNode()
+                .put("timestamp", Instant.now().toString())
+                .put("thread", Thread.currentThread().getName())
+                .put("dataSource", execInfo.getDataSourceName())
+                .put("durationMs", execInfo.getElapsedTime())
+                .put("success", execInfo.isSuccess())
+                .put("slow", slow)
+                .put("batch", execInfo.isBatch())
+                .put("batchSize", execInfo.getBatchSize());
+        ArrayNode queries = line.putArray("queries");
+        for (QueryInfo queryInfo : queryInfoList) {
+            ObjectNode query = queries.addObject();
+            query.put("sql", truncate(SqlRedaction.sql(queryInfo.getQuery())));
+            ArrayNode parameterSets = query.putArray("params");
+            for (List<ParameterSetOperation> operations : queryInfo.getParametersList()) {
+                ArrayNode params = parameterSets.addArray();
+                for (ParameterSetOperation operation : operations) {
+                    Object[] args = operation.getArgs();
+                    params.addPOJO(args.length > 1 && !ParameterSetOperation.isSetNullParameterOperation(operation)
+                            ? SqlRedaction.value(args[1])
+                            : null);
+                }
+            }
+        }
+        return line;
+    }
+
+    private String truncate(String sql) {
+        return sql.length() > maxSqlLength ? sql.substring(0, maxSqlLength) + "..." : sql;
+    }
+}
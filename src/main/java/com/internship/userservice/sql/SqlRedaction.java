@@ -0,0 +1,50 @@
+package com.internship.userservice.sql;
+
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Masks values that look like payment card numbers, keeping the last four digits.
+ */
+final class SqlRedaction {
+
+    private static final Pattern CARD_NUMBER = Pattern.compile("\\d(?:[ -]?\\d){11,18}");
+    private static final Pattern CARD_NUMBER_LITERAL = Pattern.compile("'(\\d(?:[ -]?\\d){11,18})'");
+
+    private SqlRedaction() {
+    }
+
+    /**
+     * Returns the bind value as it may appear in a log line.
+     */
+    static Object value(Object value) {
+        if (value instanceof CharSequence text && CARD_NUMBER.matcher(text).matches()) {
+            return mask(text.toString());
+        }
+        if (value == null || value instanceof Number || value instanceof Boolean || value instanceof CharSequence) {
+            return value;
+        }
+        return value.toString();
+    }
+
+    /**
+     * Masks card numbers written into the statement as string literals.
+     */
+    static String sql(String sql) {
+        Matcher matcher = CARD_NUMBER_LITERAL.matcher(sql);
+        if (!matcher.find()) {
+            return sql;
+        }
+        StringBuilder redacted = new StringBuilder(sql.length());
+        do {
+            matcher.appendReplacement(redacted, Matcher.quoteReplacement("'" + mask(matcher.group(1)) + "'"));
+        } while (matcher.find());
+        matcher.appendTail(redacted);
+        return redacted.toString();
+    }
+
+    private static String mask(String number) {
+        String digits = number.replaceAll("[ -]", "");
+        return "****" + digits.substring(digits.length() - 4);
+    }
+}
@@ -0,0 +1,100 @@
+package com.internship.userservice.uniqueness;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Fixed-size Bloom filter of strings. Adds and lookups may run concurrently; a lookup
+ * that races with the add of the same value may miss it.
+ * <p>
+ * The {@code k} bit positions are derived from two 64-bit hashes of the UTF-8 bytes
+ * (Kirsch-Mitzenmacher double hashing).
+ */
+final class BloomFilter {
+
+    private static final long SEED_1 = 0x9E3779B97F4A7C15L;
+    private static final long SEED_2 = 0xC2B2AE3D27D4EB4FL;
+
+    private final AtomicLongArray words;
+    private final long bitCount;
+    private final int hashCount;
+    private final LongAdder insertions = new LongAdder();
+    private final LongAdder setBits = new LongAdder();
+
+    BloomFilter(long expectedInsertions, double falsePositiveRate) {
+        long expected = Math.max(1, expectedInsertions);
+        long bits = (long) Math.ceil(-expected * Math.log(falsePositiveRate) / (Math.log(2) * Math.log(2)));
+        int wordCount = (int) Math.min(Integer.MAX_VALUE, Math.max(1, (bits + 63) / 64));
+        this.words = new AtomicLongArray(wordCount);
+        this.bitCount = wordCount * 64L;
+        this.hashCount = Math.max(1, (int) Math.round((double) bitCount / expected * Math.log(2)));
+    }
+
+    void add(String value) {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        long h1 = hash(bytes, SEED_1);
+        long h2 = hash(bytes, SEED_2);
+        for (int i = 0; i < hashCount; i++) {
+            long bit = Math.floorMod(h1 + i * h2, bitCount);
+            long mask = 1L << bit;
+            int word = (int) (bit >>> 6);
+            if ((words.getAndUpdate(word, current -> current | mask) & mask) == 0) {
+                setBits.increment();
+            }
+        }
+        insertions.increment();
+    }
+
+    /**
+     * {@code false} only when the value was never added.
+     */
+    boolean mightContain(String value) {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        long h1 = hash(bytes, SEED_1);
+        long h2 = hash(bytes, SEED_2);
+        for (int i = 0; i < hashCount; i++) {
+            long bit = Math.floorMod(h1 + i * h2, bitCount);
+            if ((words.get((int) (bit >>> 6)) & (1L << bit)) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Values added, counting repeated adds of the same value.
+     */
+    long insertions() {
+        return insertions.sum();
+    }
+
+    long sizeInBytes() {
+        return words.length() * 8L;
+    }
+
+    /**
+     * Chance that a value that was never added is reported as present, estimated from
+     * the share of bits that are set.
+     */
+    double expectedFalsePositiveRate() {
+        return Math.pow((double) setBits.sum() / bitCount, hashCount);
+    }
+
+    /**
+     * FNV-1a, finished with the MurmurHash3 mixer so that all bits depend on the input.
+     */
+    private static long hash(byte[] bytes, long seed) {
+        long h = seed;
+        for (byte b : bytes) {
+            h ^= b & 0xff;
+            h *= 0x100000001B3L;
+        }
+        h ^= h >>> 33;
+        h *= 0xFF51AFD7ED558CCDL;
+        h ^= h >>> 33;
+        h *= 0xC4CEB9FE1A85EC53L;
+        h ^= h >>> 33;
+        return h;
+    }
+}
@@ -0,0 +1,260 @@
+package com.internship.userservice.uniqueness;
+
+import com.internship.userservice.config.UniquenessFilterProperties;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.PreparedStatement;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+
+/**
+ * In-memory Bloom filters of all emails and card numbers, which let most uniqueness
+ * checks skip their database lookup: a value the filter has never seen is not taken.
+ * <p>
+ * The filters are rebuilt from the database on start and every {@code rebuild-interval},
+ * sized for twice the current row count, and values written by this instance are added
+ * as they are written, also to a filter being rebuilt. Values written by other replicas
+ * only appear after the next rebuild, and deleted values stay until then, so the unique
+ * constraints remain the final check: a missed duplicate fails the insert instead of the
+ * lookup. Until the first rebuild completes every check goes to the database.
+ */
+@Slf4j
+public class UniquenessFilter implements SmartLifecycle, MeterBinder {
+
+    private static final String METRIC_PREFIX = "uniqueness.filter";
+    private static final int FETCH_SIZE = 1000;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final UniquenessFilterProperties properties;
+    private final Column emails = new Column("email", "users", "email");
+    private final Column cardNumbers = new Column("card_number", "card_info", "number");
+
+    private ScheduledExecutorService scheduler;
+    private volatile boolean running;
+
+    public UniquenessFilter(JdbcTemplate jdbcTemplate,
+                            PlatformTransactionManager transactionManager,
+                            UniquenessFilterProperties properties) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setReadOnly(true);
+        this.properties = properties;
+    }
+
+    /**
+     * Whether a user has the email. {@code lookup} asks the database and is skipped when
+     * the filter rules the email out.
+     */
+    public boolean emailExists(String email, BooleanSupplier lookup) {
+        return emails.exists(email, lookup);
+    }
+
+    public boolean cardNumberExists(String number, BooleanSupplier lookup) {
+        return cardNumbers.exists(number, lookup);
+    }
+
+    /**
+     * Records an email as taken. Call it once the row is written, before commit.
+     */
+    public void addEmail(String email) {
+        emails.add(email);
+    }
+
+    public void addCardNumber(String number) {
+        cardNumbers.add(number);
+    }
+
+    public boolean isReady() {
+        return emails.current != null && cardNumbers.current != null;
+    }
+
+    /**
+     * Replaces both filters with ones read from the database. A failure is logged and
+     * keeps the previous filter. Nothing is thrown, an exception would cancel the
+     * scheduled rebuilds.
+     */
+    public void rebuild() {
+        for (Column column : List.of(emails, cardNumbers)) {
+            try {
+                column.rebuild();
+            } catch (RuntimeException e) {
+                log.warn("Could not rebuild the {} uniqueness filter, keeping the previous one: {}",
+                        column.name, e.toString());
+            }
+        }
+    }
+
+    @Override
+    public void start() {
+        if (!properties.isEnabled()) {
+            return;
+        }
+        scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "uniqueness-filter-rebuild");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long interval = properties.getRebuildInterval().toMillis();
+        scheduler.scheduleWithFixedDelay(this::rebuild, 0, interval, TimeUnit.MILLISECONDS);
+        running = true;
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        emails.bindTo(registry);
+        cardNumbers.bindTo(registry);
+    }
+
+    /**
+     * The filter of one unique column. {@code building} is the filter being rebuilt, it
+     * receives the adds made while the column is read.
+     */
+    private final class Column {
+
+        private final String name;
+        private final String countSql;
+        private final String selectSql;
+
+        private volatile BloomFilter current;
+        private BloomFilter building;
+
+        private Counter skipped;
+        private Counter falsePositives;
+        private Counter found;
+        private Timer rebuildTimer;
+
+        Column(String name, String table, String column) {
+            this.name = name;
+            this.countSql = "SELECT count(*) FROM " + table;
+            this.selectSql = "SELECT " + column + " FROM " + table;
+        }
+
+        boolean exists(String value, BooleanSupplier lookup) {
+            BloomFilter filter = current;
+            if (value != null && filter != null && !filter.mightContain(value)) {
+                increment(skipped);
+                return false;
+            }
+            boolean exists = lookup.getAsBoolean();
+            if (filter != null) {
+                increment(exists ? found : falsePositives);
+            }
+            return exists;
+        }
+
+        synchronized void add(String value) {
+            if (value == null) {
+                return;
+            }
+            if (current != null) {
+                current.add(value);
+            }
+            if (building != null) {
+                building.add(value);
+            }
+        }
+
+        void rebuild() {
+            long start = System.nanoTime();
+            Long rows = jdbcTemplate.queryForObject(countSql, Long.class);
+            BloomFilter next = new BloomFilter(
+                    Math.max(properties.getExpectedInsertions(), rows != null ? rows * 2 : 0),
+                    properties.getFalsePositiveRate());
+            synchronized (this) {
+                building = next;
+            }
+            try {
+                transactionTemplate.executeWithoutResult(status -> jdbcTemplate.query(
+                        connection -> {
+                            PreparedStatement statement = connection.prepareStatement(selectSql);
+                            statement.setFetchSize(FETCH_SIZE);
+                            return statement;
+                        },
+                        (RowCallbackHandler) rs -> {
+                            String value = rs.getString(1);
+                            if (value != null) {
+                                next.add(value);
+                            }
+                        }));
+                synchronized (this) {
+                    current = next;
+                }
+            } finally {
+                synchronized (this) {
+                    building = null;
+                }
+            }
+            long elapsed = System.nanoTime() - start;
+            if (rebuildTimer != null) {
+                rebuildTimer.record(elapsed, TimeUnit.NANOSECONDS);
+            }
+            log.debug("Rebuilt the {} uniqueness filter with {} values in {} ms",
+                    name, next.insertions(), TimeUnit.NANOSECONDS.toMillis(elapsed));
+        }
+
+        void bindTo(MeterRegistry registry) {
+            Gauge.builder(METRIC_PREFIX + ".entries", this, column -> column.current != null ? column.current.insertions() : 0)
+                    .description("Values added to the filter since it was built")
+                    .tag("filter", name)
+                    .register(registry);
+            Gauge.builder(METRIC_PREFIX + ".size", this, column -> column.current != null ? column.current.sizeInBytes() : 0)
+                    .description("Memory held by the filter's bits")
+                    .tag("filter", name)
+                    .baseUnit("bytes")
+                    .register(registry);
+            Gauge.builder(METRIC_PREFIX + ".false.positive.rate", this,
+                            column -> column.current != null ? column.current.expectedFalsePositiveRate() : 1)
+                    .description("Estimated chance that a new value still goes to the database")
+                    .tag("filter", name)
+                    .register(registry);
+            rebuildTimer = Timer.builder(METRIC_PREFIX + ".rebuild")
+                    .description("Time to read the column and build a new filter")
+                    .tag("filter", name)
+                    .register(registry);
+            skipped = checks(registry, "skipped");
+            falsePositives = checks(registry, "false_positive");
+            found = checks(registry, "exists");
+        }
+
+        private Counter checks(MeterRegistry registry, String result) {
+            return Counter.builder(METRIC_PREFIX + ".checks")
+                    .description("Uniqueness checks once the filter is built, by whether the database was asked")
+                    .tag("filter", name)
+                    .tag("result", result)
+                    .register(registry);
+        }
+    }
+
+    private static void increment(Counter counter) {
+        if (counter != null) {
+            counter.increment();
+        }
+    }
+}
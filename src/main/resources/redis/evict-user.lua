@@ -0,0 +1,6 @@
+-- KEYS[1] - reverse index of the user's secondary keys, KEYS[2..n] - keys in the same slot deleted unconditionally
+-- Deletes the index and the given keys, returns the indexed keys. Those live in other cluster
+-- slots, so the caller deletes them.
+local indexed = redis.call('SMEMBERS', KEYS[1])
+redis.call('DEL', unpack(KEYS))
+return indexed
@@ -0,0 +1,19 @@
+-- KEYS[1] - cache key
+-- ARGV[1] - serialized value, ARGV[2] - its version, ARGV[3] - ttl in millis (0 = no expiry)
+local current = redis.call('GET', KEYS[1])
+if current then
+    local ok, decoded = pcall(cjson.decode, current)
+    if ok and type(decoded) == 'table' then
+        local currentVersion = tonumber(decoded['version'])
+        if currentVersion and currentVersion > tonumber(ARGV[2]) then
+            return 0
+        end
+    end
+end
+local ttl = tonumber(ARGV[3])
+if ttl > 0 then
+    redis.call('SET', KEYS[1], ARGV[1], 'PX', ttl)
+else
+    redis.call('SET', KEYS[1], ARGV[1])
+end
+return 1
@@ -0,0 +1,10 @@
+-- KEYS[1] - user aggregate, KEYS[2] - card list of the user
+-- Returns the serialized user, the version of the aggregate and the fields of the card list,
+-- or an empty reply when either part is missing. Card changes raise the version of both keys,
+-- a user write sets only that of the user, so the aggregate is at the higher one.
+local user = redis.call('HMGET', KEYS[1], 'profile', 'v')
+if not user[1] or redis.call('HEXISTS', KEYS[2], 'complete') == 0 then
+    return {}
+end
+local version = math.max(tonumber(user[2]), tonumber(redis.call('HGET', KEYS[2], 'v')))
+return {user[1], tostring(version), redis.call('HGETALL', KEYS[2])}
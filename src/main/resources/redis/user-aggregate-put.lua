@@ -0,0 +1,24 @@
+-- KEYS[1] - user aggregate, KEYS[2] - card list of the user
+-- ARGV[1] - serialized user without cards, ARGV[2] - user version, ARGV[3] - ttl in millis (0 = no expiry)
+-- ARGV[4..n] - card id and serialized card, in pairs
+-- Each key is only replaced when it is not newer than the given version.
+local version = tonumber(ARGV[2])
+local ttl = tonumber(ARGV[3])
+
+local current = tonumber(redis.call('HGET', KEYS[1], 'v'))
+if not current or current <= version then
+    redis.call('HSET', KEYS[1], 'profile', ARGV[1], 'v', ARGV[2])
+    if ttl > 0 then
+        redis.call('PEXPIRE', KEYS[1], ttl)
+    end
+end
+
+current = tonumber(redis.call('HGET', KEYS[2], 'v'))
+if not current or current <= version then
+    redis.call('DEL', KEYS[2])
+    redis.call('HSET', KEYS[2], 'v', ARGV[2], 'complete', '1', unpack(ARGV, 4))
+    if ttl > 0 then
+        redis.call('PEXPIRE', KEYS[2], ttl)
+    end
+end
+return 1
@@ -0,0 +1,14 @@
+-- KEYS[1] - card list of a user
+-- ARGV[1] - user version the list was read at, ARGV[2] - ttl in millis (0 = no expiry)
+-- ARGV[3..n] - card id and serialized card, in pairs
+local current = tonumber(redis.call('HGET', KEYS[1], 'v'))
+if current and current > tonumber(ARGV[1]) then
+    return 0
+end
+redis.call('DEL', KEYS[1])
+redis.call('HSET', KEYS[1], 'v', ARGV[1], 'complete', '1', unpack(ARGV, 3))
+local ttl = tonumber(ARGV[2])
+if ttl > 0 then
+    redis.call('PEXPIRE', KEYS[1], ttl)
+end
+return 1
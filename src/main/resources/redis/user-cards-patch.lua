@@ -0,0 +1,41 @@
+-- KEYS[1] - card list of a user, KEYS[2] - user aggregate, whose version is raised if it is cached
+-- ARGV[1] - user version after the change, ARGV[2] - ttl in millis (0 = no expiry)
+-- ARGV[3] - card id, ARGV[4] - card version, ARGV[5] - serialized card, empty when the card was deleted
+local function version(value)
+    local deleted = string.match(value, '^deleted:(%d+)$')
+    if deleted then
+        return tonumber(deleted)
+    end
+    local ok, decoded = pcall(cjson.decode, value)
+    if ok and type(decoded) == 'table' then
+        return tonumber(decoded['version'])
+    end
+    return nil
+end
+
+local current = tonumber(redis.call('HGET', KEYS[1], 'v'))
+if not current or current < tonumber(ARGV[1]) then
+    redis.call('HSET', KEYS[1], 'v', ARGV[1])
+end
+if redis.call('EXISTS', KEYS[2]) == 1 then
+    local userVersion = tonumber(redis.call('HGET', KEYS[2], 'v'))
+    if not userVersion or userVersion < tonumber(ARGV[1]) then
+        redis.call('HSET', KEYS[2], 'v', ARGV[1])
+    end
+end
+if redis.call('HEXISTS', KEYS[1], 'complete') == 1 then
+    local existing = redis.call('HGET', KEYS[1], ARGV[3])
+    local existingVersion = existing and version(existing)
+    if not existingVersion or existingVersion < tonumber(ARGV[4]) then
+        if ARGV[5] == '' then
+            redis.call('HSET', KEYS[1], ARGV[3], 'deleted:' .. ARGV[4])
+        else
+            redis.call('HSET', KEYS[1], ARGV[3], ARGV[5])
+        end
+    end
+end
+local ttl = tonumber(ARGV[2])
+if ttl > 0 and redis.call('PTTL', KEYS[1]) < 0 then
+    redis.call('PEXPIRE', KEYS[1], ttl)
+end
+return 1
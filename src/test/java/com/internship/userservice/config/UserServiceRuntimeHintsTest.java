@@ -0,0 +1,50 @@
+package com.internship.userservice.config;
+
+import com.internship.userservice.dto.card.CardInfoResponse;
+import com.internship.userservice.dto.user.UserFields;
+import com.internship.userservice.dto.user.UserResponse;
+import com.internship.userservice.entity.User;
+import org.junit.jupiter.api.Test;
+import org.springframework.aot.hint.MemberCategory;
+import org.springframework.aot.hint.RuntimeHints;
+import org.springframework.aot.hint.predicate.RuntimeHintsPredicates;
+
+import java.util.ArrayList;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class UserServiceRuntimeHintsTest {
+
+    private final RuntimeHints hints = new RuntimeHints();
+
+    UserServiceRuntimeHintsTest() {
+        new UserServiceRuntimeHints().registerHints(hints, getClass().getClassLoader());
+    }
+
+    @Test
+    void registerHints_ShouldCoverCachedValuesAndEntities() {
+        assertThat(RuntimeHintsPredicates.reflection().onType(UserResponse.class)
+                .withMemberCategories(MemberCategory.DECLARED_FIELDS, MemberCategory.INVOKE_DECLARED_CONSTRUCTORS))
+                .accepts(hints);
+        assertThat(RuntimeHintsPredicates.reflection().onType(CardInfoResponse.class)
+                .withMemberCategories(MemberCategory.DECLARED_FIELDS, MemberCategory.INVOKE_DECLARED_CONSTRUCTORS))
+                .accepts(hints);
+        assertThat(RuntimeHintsPredicates.reflection().onType(User.class)
+                .withMemberCategory(MemberCategory.DECLARED_FIELDS))
+                .accepts(hints);
+        assertThat(RuntimeHintsPredicates.reflection().onType(ArrayList.class)).accepts(hints);
+    }
+
+    @Test
+    void registerHints_ShouldCoverFieldsParameterFactory() throws NoSuchMethodException {
+        assertThat(RuntimeHintsPredicates.reflection()
+                .onMethod(UserFields.class.getMethod("valueOf", String.class)))
+                .accepts(hints);
+    }
+
+    @Test
+    void registerHints_ShouldCoverScriptsAndChangelogs() {
+        assertThat(RuntimeHintsPredicates.resource().forResource("redis/user-aggregate-get.lua")).accepts(hints);
+        assertThat(RuntimeHintsPredicates.resource().forResource("db/changelog/create-tables.xml")).accepts(hints);
+    }
+}
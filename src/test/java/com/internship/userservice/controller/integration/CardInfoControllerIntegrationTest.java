@@ -12,17 +12,20 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.MediaType;
 import org.springframework.test.context.jdbc.Sql;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 
 import java.time.LocalDate;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.hamcrest.Matchers.hasItem;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 @Sql(scripts = "classpath:/sql/cleanup.sql", executionPhase = Sql.ExecutionPhase.BEFORE_TEST_METHOD)
@@ -175,6 +178,80 @@ public class CardInfoControllerIntegrationTest extends BaseIntegrationTest {
                 .andExpect(jsonPath("$[1].userId").value(user.getId()));
     }
 
+    @Test
+    void streamByUserId_ShouldWriteJsonArrayOfCards() throws Exception {
+        User user = createDefaultUserWithAuthId(OWNER_AUTH_ID);
+
+        cardRepository.save(CardInfo.builder()
+                .user(user)
+                .number("1111222233334444")
+                .holder("User Card One")
+                .expirationDate("08/27")
+                .build());
+
+        cardRepository.save(CardInfo.builder()
+                .user(user)
+                .number("5555666677778888")
+                .holder("User Card Two")
+                .expirationDate("07/29")
+                .build());
+
+        MvcResult result = mockMvc.perform(get("/api/cards/by-user/{userId}", user.getId())
+                        .param("stream", "true"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_JSON))
+                .andExpect(jsonPath("$.length()").value(2))
+                .andExpect(jsonPath("$[0].number").value("1111222233334444"))
+                .andExpect(jsonPath("$[1].number").value("5555666677778888"));
+    }
+
+    @Test
+    void getBatch_ShouldStreamDistinctCardsInIdOrder_FromCacheAndDatabase() throws Exception {
+        User user = createDefaultUserWithAuthId(OWNER_AUTH_ID);
+
+        CardInfo first = cardRepository.save(CardInfo.builder()
+                .user(user)
+                .number("1111222233334444")
+                .holder("User Card One")
+                .expirationDate("08/27")
+                .build());
+        CardInfo second = cardRepository.save(CardInfo.builder()
+                .user(user)
+                .number("5555666677778888")
+                .holder("User Card Two")
+                .expirationDate("07/29")
+                .build());
+        mockMvc.perform(get("/api/cards/{id}", second.getId()))
+                .andExpect(status().isOk());
+
+        MvcResult result = mockMvc.perform(post("/api/cards/batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(
+                                new long[]{second.getId(), first.getId(), 999_999L, second.getId()})))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(2))
+                .andExpect(jsonPath("$[0].number").value("1111222233334444"))
+                .andExpect(jsonPath("$[1].number").value("5555666677778888"))
+                .andExpect(jsonPath("$[1].userId").value(user.getId()));
+    }
+
+    @Test
+    void getBatch_ShouldReturn400_WhenTooManyIds() throws Exception {
+        mockMvc.perform(post("/api/cards/batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(new long[100_001])))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.message").value("Validation error"));
+    }
+
     @Test
     void updateCard_ShouldReturn200AndUpdatedCard_WhenCardExists() throws Exception {
         User user = createDefaultUserWithAuthId(OWNER_AUTH_ID);
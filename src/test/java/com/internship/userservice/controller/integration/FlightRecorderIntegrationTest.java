@@ -0,0 +1,79 @@
+package com.internship.userservice.controller.integration;
+
+import com.internship.userservice.dto.user.UserRequest;
+import com.internship.userservice.dto.user.UserResponse;
+import com.internship.userservice.service.UserService;
+import com.internship.userservice.service.integration.BaseIntegrationTest;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.test.context.jdbc.Sql;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@Sql(scripts = "classpath:/sql/cleanup.sql", executionPhase = Sql.ExecutionPhase.BEFORE_TEST_METHOD)
+public class FlightRecorderIntegrationTest extends BaseIntegrationTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private UserService userService;
+
+    @Test
+    void getUser_ShouldEmitCacheRepositoryMappingAndSerializationEvents() throws Exception {
+        UserResponse saved = userService.create(UserRequest.builder()
+                .name("Max")
+                .surname("Ivanov")
+                .birthDate(LocalDate.of(1995, 10, 17))
+                .email("max@gmail.com")
+                .build(), 100L);
+
+        List<RecordedEvent> events;
+        Path file = Files.createTempFile("user-service", ".jfr");
+        try (Recording recording = new Recording()) {
+            for (String name : List.of("CacheOperation", "RepositoryCall", "Mapping", "Serialization")) {
+                recording.enable("com.internship.userservice." + name).withThreshold(Duration.ZERO);
+            }
+            recording.start();
+
+            mockMvc.perform(get("/api/users/{id}", saved.getId())).andExpect(status().isOk());
+            mockMvc.perform(get("/api/users/{id}", saved.getId())).andExpect(status().isOk());
+
+            recording.stop();
+            recording.dump(file);
+            events = RecordingFile.readAllEvents(file);
+        } finally {
+            Files.deleteIfExists(file);
+        }
+
+        assertThat(events)
+                .filteredOn(event -> event.getEventType().getName().endsWith("CacheOperation"))
+                .anySatisfy(event -> {
+                    assertThat(event.getString("cacheName")).isEqualTo("users");
+                    assertThat(event.getString("operation")).isEqualTo("get");
+                    assertThat(event.getBoolean("hit")).isTrue();
+                    assertThat(event.getInt("keyHash")).isEqualTo(saved.getId().hashCode());
+                });
+        assertThat(events)
+                .filteredOn(event -> event.getEventType().getName().endsWith("RepositoryCall"))
+                .anySatisfy(event -> assertThat(event.getString("repository")).isEqualTo("UserRepository"));
+        assertThat(events)
+                .filteredOn(event -> event.getEventType().getName().endsWith("Mapping"))
+                .anySatisfy(event -> assertThat(event.getString("method")).isEqualTo("toDto"));
+        assertThat(events)
+                .filteredOn(event -> event.getEventType().getName().endsWith("Serialization"))
+                .anySatisfy(event -> assertThat(event.getString("type")).isEqualTo("UserResponse"));
+    }
+}
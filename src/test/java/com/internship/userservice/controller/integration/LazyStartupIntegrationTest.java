@@ -0,0 +1,37 @@
+package com.internship.userservice.controller.integration;
+
+import com.internship.userservice.service.integration.BaseIntegrationTest;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.config.ConfigurableListableBeanFactory;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.jdbc.Sql;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@ActiveProfiles("lazy")
+@Sql(scripts = "classpath:/sql/cleanup.sql", executionPhase = Sql.ExecutionPhase.BEFORE_TEST_METHOD)
+public class LazyStartupIntegrationTest extends BaseIntegrationTest {
+
+    @Autowired
+    private ConfigurableListableBeanFactory beanFactory;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Test
+    void lazyProfile_ShouldDeferControllers_ButMigrateAndBootstrapJpaEagerly() throws Exception {
+        assertThat(beanFactory.getBeanDefinition("userController").isLazyInit()).isTrue();
+        assertThat(beanFactory.getBeanDefinition("liquibase").isLazyInit()).isFalse();
+        assertThat(beanFactory.getBeanDefinition("entityManagerFactory").isLazyInit()).isFalse();
+        assertThat(beanFactory.getBeanDefinition("dataSource").isLazyInit()).isFalse();
+
+        mockMvc.perform(get("/api/users/all"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(0));
+    }
+}
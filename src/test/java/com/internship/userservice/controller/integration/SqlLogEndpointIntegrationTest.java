@@ -0,0 +1,33 @@
+package com.internship.userservice.controller.integration;
+
+import com.internship.userservice.service.integration.BaseIntegrationTest;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+public class SqlLogEndpointIntegrationTest extends BaseIntegrationTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Test
+    void sqlLog_ShouldBeReadOnly_ByDefault() throws Exception {
+        mockMvc.perform(get("/actuator/sqllog"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.active").value(false));
+
+        mockMvc.perform(post("/actuator/sqllog")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"active\": true, \"sampleRate\": 1.0}"))
+                .andExpect(jsonPath("$.message").value("Request method 'POST' is not supported"));
+
+        mockMvc.perform(get("/actuator/sqllog"))
+                .andExpect(jsonPath("$.active").value(false));
+    }
+}
@@ -1,27 +1,38 @@
 package com.internship.userservice.controller.integration;
 
+import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.databind.CBORMapper;
 import com.internship.userservice.dto.user.UserRequest;
 import com.internship.userservice.dto.user.UserResponse;
+import com.internship.userservice.entity.CardInfo;
 import com.internship.userservice.entity.User;
+import com.internship.userservice.repository.CardInfoRepository;
 import com.internship.userservice.repository.UserRepository;
 import com.internship.userservice.service.integration.BaseIntegrationTest;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.test.context.jdbc.Sql;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 
+import java.io.ByteArrayInputStream;
 import java.time.LocalDate;
+import java.util.zip.GZIPInputStream;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.hamcrest.Matchers.hasItem;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 @Sql(scripts = "classpath:/sql/cleanup.sql", executionPhase = Sql.ExecutionPhase.BEFORE_TEST_METHOD)
@@ -39,6 +50,9 @@ public class UserControllerIntegrationTest extends BaseIntegrationTest {
     @Autowired
     private UserRepository userRepository;
 
+    @Autowired
+    private CardInfoRepository cardInfoRepository;
+
     private UserRequest createUserRequest() {
         return UserRequest.builder()
                 .name("Max")
@@ -113,6 +127,126 @@ public class UserControllerIntegrationTest extends BaseIntegrationTest {
                 .andExpect(jsonPath("$.birthDate").value("1995-10-17"));
     }
 
+    @Test
+    void getUserById_ShouldServeStoredGzipBody_WhenAcceptEncodingGzip() throws Exception {
+        User user = userRepository.save(User.builder()
+                .name("Max")
+                .surname("Ivanov")
+                .email("max@gmail.com")
+                .birthDate(LocalDate.of(1995, 10, 17))
+                .userCredentialsId(AUTH_SUBJECT_ID)
+                .build());
+        for (int i = 0; i < 20; i++) {
+            cardInfoRepository.save(CardInfo.builder()
+                    .user(user)
+                    .number(String.format("4000%012d", i))
+                    .holder("MAX IVANOV")
+                    .expirationDate("12/30")
+                    .build());
+        }
+
+        for (int request = 0; request < 2; request++) {
+            byte[] body = mockMvc.perform(get("/api/users/{id}", user.getId())
+                            .header(HttpHeaders.ACCEPT_ENCODING, "gzip, deflate"))
+                    .andExpect(status().isOk())
+                    .andExpect(content().contentType(MediaType.APPLICATION_JSON))
+                    .andExpect(header().string(HttpHeaders.CONTENT_ENCODING, "gzip"))
+                    .andReturn().getResponse().getContentAsByteArray();
+
+            try (GZIPInputStream json = new GZIPInputStream(new ByteArrayInputStream(body))) {
+                UserResponse response = objectMapper.readValue(json, UserResponse.class);
+                assertThat(response.getEmail()).isEqualTo("max@gmail.com");
+                assertThat(response.getCards()).hasSize(20);
+            }
+        }
+
+        mockMvc.perform(get("/api/users/{id}", user.getId()))
+                .andExpect(status().isOk())
+                .andExpect(header().doesNotExist(HttpHeaders.CONTENT_ENCODING))
+                .andExpect(jsonPath("$.cards.length()").value(20));
+    }
+
+    @Test
+    void getUserById_ShouldReturnCbor_WhenAccepted() throws Exception {
+        CBORMapper cborMapper = new CBORMapper();
+        byte[] created = mockMvc.perform(post("/api/users")
+                        .header(USER_ID_HEADER, AUTH_SUBJECT_ID)
+                        .contentType(MediaType.APPLICATION_CBOR)
+                        .accept(MediaType.APPLICATION_CBOR)
+                        .content(cborMapper.writeValueAsBytes(objectMapper.valueToTree(createUserRequest()))))
+                .andExpect(status().isCreated())
+                .andExpect(content().contentType(MediaType.APPLICATION_CBOR))
+                .andReturn().getResponse().getContentAsByteArray();
+        long id = cborMapper.readTree(created).get("id").asLong();
+
+        byte[] body = mockMvc.perform(get("/api/users/{id}", id)
+                        .accept(MediaType.APPLICATION_CBOR))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_CBOR))
+                .andReturn().getResponse().getContentAsByteArray();
+
+        JsonNode user = cborMapper.readTree(body);
+        assertThat(user.get("email").asText()).isEqualTo("max@gmail.com");
+        assertThat(user.get("birthDate").asText()).isEqualTo("1995-10-17");
+        assertThat(body.length).isLessThan(objectMapper.writeValueAsBytes(user).length);
+    }
+
+    @Test
+    void getUserById_ShouldReturn304_WhenETagMatches() throws Exception {
+        String responseJson = mockMvc.perform(post("/api/users")
+                        .header(USER_ID_HEADER, AUTH_SUBJECT_ID)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(createUserRequest())))
+                .andExpect(status().isCreated())
+                .andReturn().getResponse().getContentAsString();
+
+        UserResponse created = objectMapper.readValue(responseJson, UserResponse.class);
+
+        String etag = mockMvc.perform(get("/api/users/{id}", created.getId()))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", "\"0\""))
+                .andReturn().getResponse().getHeader("ETag");
+
+        mockMvc.perform(get("/api/users/{id}", created.getId())
+                        .header("If-None-Match", etag))
+                .andExpect(status().isNotModified())
+                .andExpect(content().string(""));
+    }
+
+    @Test
+    void updateUser_ShouldReturn412_WhenIfMatchIsStale() throws Exception {
+        String responseJson = mockMvc.perform(post("/api/users")
+                        .header(USER_ID_HEADER, AUTH_SUBJECT_ID)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(createUserRequest())))
+                .andExpect(status().isCreated())
+                .andReturn().getResponse().getContentAsString();
+
+        UserResponse created = objectMapper.readValue(responseJson, UserResponse.class);
+        UserRequest updateRequest = UserRequest.builder()
+                .name("NewName")
+                .surname("NewSurname")
+                .email("max@gmail.com")
+                .birthDate(LocalDate.of(1995, 5, 5))
+                .build();
+
+        mockMvc.perform(put("/api/users/{id}", created.getId())
+                        .header(USER_ID_HEADER, AUTH_SUBJECT_ID)
+                        .header("If-Match", "\"0\"")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(updateRequest)))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", "\"1\""));
+
+        mockMvc.perform(put("/api/users/{id}", created.getId())
+                        .header(USER_ID_HEADER, AUTH_SUBJECT_ID)
+                        .header("If-Match", "\"0\"")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(updateRequest)))
+                .andExpect(status().isPreconditionFailed())
+                .andExpect(jsonPath("$.status").value(412));
+    }
+
     @Test
     void getUserById_ShouldReturn404_WhenUserNotFound() throws Exception {
         long nonExistingId = 1488L;
@@ -154,6 +288,171 @@ public class UserControllerIntegrationTest extends BaseIntegrationTest {
                 .andExpect(jsonPath("$[1].name").value("Bob"));
     }
 
+    @Test
+    void streamAllUsers_ShouldWriteJsonArrayWithCards() throws Exception {
+        User alice = userRepository.save(User.builder()
+                .name("Alice")
+                .surname("Smith")
+                .email("alice@example.com")
+                .birthDate(LocalDate.of(1990, 1, 1))
+                .userCredentialsId(AUTH_SUBJECT_ID)
+                .build());
+        userRepository.save(User.builder()
+                .name("Bob")
+                .surname("Builder")
+                .email("bob@example.com")
+                .birthDate(LocalDate.of(1985, 5, 20))
+                .userCredentialsId(AUTH_SUBJECT_ID)
+                .build());
+        cardInfoRepository.save(CardInfo.builder()
+                .user(alice)
+                .number("1111222233334444")
+                .holder("Alice Smith")
+                .expirationDate("08/27")
+                .build());
+        cardInfoRepository.save(CardInfo.builder()
+                .user(alice)
+                .number("5555666677778888")
+                .holder("Alice Smith")
+                .expirationDate("07/29")
+                .build());
+
+        MvcResult result = mockMvc.perform(get("/api/users/all").param("stream", "true"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_JSON))
+                .andExpect(jsonPath("$.length()").value(2))
+                .andExpect(jsonPath("$[0].name").value("Alice"))
+                .andExpect(jsonPath("$[0].cards.length()").value(2))
+                .andExpect(jsonPath("$[1].name").value("Bob"))
+                .andExpect(jsonPath("$[1].cards.length()").value(0));
+    }
+
+    @Test
+    void getBatch_ShouldStreamDistinctUsersInIdOrder_FromCacheAndDatabase() throws Exception {
+        User alice = userRepository.save(User.builder()
+                .name("Alice")
+                .surname("Smith")
+                .email("alice@example.com")
+                .birthDate(LocalDate.of(1990, 1, 1))
+                .userCredentialsId(AUTH_SUBJECT_ID)
+                .build());
+        User bob = userRepository.save(User.builder()
+                .name("Bob")
+                .surname("Builder")
+                .email("bob@example.com")
+                .birthDate(LocalDate.of(1985, 5, 20))
+                .userCredentialsId(AUTH_SUBJECT_ID)
+                .build());
+        cardInfoRepository.save(CardInfo.builder()
+                .user(alice)
+                .number("1111222233334444")
+                .holder("Alice Smith")
+                .expirationDate("08/27")
+                .build());
+        cardInfoRepository.save(CardInfo.builder()
+                .user(alice)
+                .number("5555666677778888")
+                .holder("Alice Smith")
+                .expirationDate("07/29")
+                .build());
+        mockMvc.perform(get("/api/users/{id}", bob.getId()))
+                .andExpect(status().isOk());
+
+        MvcResult result = mockMvc.perform(post("/api/users/batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(
+                                new long[]{bob.getId(), 999_999L, alice.getId(), bob.getId()})))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_JSON))
+                .andExpect(jsonPath("$.length()").value(2))
+                .andExpect(jsonPath("$[0].name").value("Alice"))
+                .andExpect(jsonPath("$[0].cards.length()").value(2))
+                .andExpect(jsonPath("$[0].cards[0].number").value("1111222233334444"))
+                .andExpect(jsonPath("$[1].name").value("Bob"))
+                .andExpect(jsonPath("$[1].cards.length()").value(0));
+    }
+
+    @Test
+    void getByIds_WithFields_ShouldReturnOnlyThoseProperties() throws Exception {
+        User alice = userRepository.save(User.builder()
+                .name("Alice")
+                .surname("Smith")
+                .email("alice@example.com")
+                .birthDate(LocalDate.of(1990, 1, 1))
+                .userCredentialsId(AUTH_SUBJECT_ID)
+                .build());
+        User bob = userRepository.save(User.builder()
+                .name("Bob")
+                .surname("Builder")
+                .email("bob@example.com")
+                .birthDate(LocalDate.of(1985, 5, 20))
+                .userCredentialsId(AUTH_SUBJECT_ID)
+                .build());
+        cardInfoRepository.save(CardInfo.builder()
+                .user(alice)
+                .number("1111222233334444")
+                .holder("Alice Smith")
+                .expirationDate("08/27")
+                .build());
+
+        mockMvc.perform(get("/api/users")
+                        .param("ids", bob.getId().toString(), alice.getId().toString())
+                        .param("fields", "email,id,birthDate"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(2))
+                .andExpect(jsonPath("$[0].id").value(alice.getId()))
+                .andExpect(jsonPath("$[0].email").value("alice@example.com"))
+                .andExpect(jsonPath("$[0].birthDate").value("1990-01-01"))
+                .andExpect(jsonPath("$[0].name").doesNotExist())
+                .andExpect(jsonPath("$[0].cards").doesNotExist())
+                .andExpect(jsonPath("$[1].email").value("bob@example.com"));
+    }
+
+    @Test
+    void streamAllUsers_WithFieldsIncludingCards_ShouldWriteCards() throws Exception {
+        User alice = userRepository.save(User.builder()
+                .name("Alice")
+                .surname("Smith")
+                .email("alice@example.com")
+                .birthDate(LocalDate.of(1990, 1, 1))
+                .userCredentialsId(AUTH_SUBJECT_ID)
+                .build());
+        cardInfoRepository.save(CardInfo.builder()
+                .user(alice)
+                .number("1111222233334444")
+                .holder("Alice Smith")
+                .expirationDate("08/27")
+                .build());
+
+        MvcResult result = mockMvc.perform(get("/api/users/all")
+                        .param("stream", "true")
+                        .param("fields", "name,cards"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(1))
+                .andExpect(jsonPath("$[0].name").value("Alice"))
+                .andExpect(jsonPath("$[0].cards[0].number").value("1111222233334444"))
+                .andExpect(jsonPath("$[0].id").doesNotExist());
+    }
+
+    @Test
+    void getAll_ShouldReturn400_WhenFieldIsUnknown() throws Exception {
+        mockMvc.perform(get("/api/users/all").param("fields", "id,password"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.message").value("Invalid value of 'fields'"));
+    }
+
     @Test
     void updateUser_ShouldReturn200AndUpdatedUser_WhenValid() throws Exception {
         String createdJson = mockMvc.perform(post("/api/users")
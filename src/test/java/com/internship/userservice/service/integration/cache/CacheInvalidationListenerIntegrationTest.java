@@ -0,0 +1,178 @@
+package com.internship.userservice.service.integration.cache;
+
+import com.internship.userservice.cache.CacheKeys;
+import com.internship.userservice.dto.card.CardInfoRequest;
+import com.internship.userservice.dto.card.CardInfoResponse;
+import com.internship.userservice.dto.user.UserRequest;
+import com.internship.userservice.dto.user.UserResponse;
+import com.internship.userservice.service.CardInfoService;
+import com.internship.userservice.service.UserService;
+import com.internship.userservice.service.integration.BaseIntegrationTest;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.context.jdbc.Sql;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.time.LocalDate;
+import java.util.Objects;
+import java.util.function.BooleanSupplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@Sql(scripts = "classpath:/sql/cleanup.sql", executionPhase = Sql.ExecutionPhase.BEFORE_TEST_METHOD)
+@DirtiesContext
+@TestPropertySource(properties = {
+        "app.cache.invalidation.enabled=true",
+        "app.cache.invalidation.poll-interval=200ms"
+})
+public class CacheInvalidationListenerIntegrationTest extends BaseIntegrationTest {
+
+    private static final long OWNER_AUTH_ID = 400L;
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private CardInfoService cardInfoService;
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private StringRedisTemplate redisTemplate;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    private UserResponse savedUser;
+
+    @BeforeEach
+    void initUser() {
+        savedUser = userService.create(UserRequest.builder()
+                .name("Max")
+                .surname("Ivanov")
+                .birthDate(LocalDate.of(1995, 10, 17))
+                .email("max@gmail.com")
+                .build(), OWNER_AUTH_ID);
+    }
+
+    @Test
+    void directUserUpdate_ShouldEvictUserAndOldEmailEntries() throws InterruptedException {
+        userService.getUserById(savedUser.getId());
+        userService.getUserByEmail("max@gmail.com");
+
+        jdbcTemplate.update("UPDATE users SET name = 'Admin', email = 'admin@gmail.com' WHERE id = ?",
+                savedUser.getId());
+
+        awaitTrue(() -> cache("users").get(savedUser.getId()) == null
+                && cache("usersByEmail").get("max@gmail.com") == null);
+        assertThat(userService.getUserById(savedUser.getId()).getName()).isEqualTo("Admin");
+    }
+
+    @Test
+    void directUserUpdate_ShouldEvictStoredResponseBody() throws Exception {
+        mockMvc.perform(get("/api/users/{id}", savedUser.getId())).andExpect(status().isOk());
+        String bodyKey = CacheKeys.encodedBody(CacheKeys.USERS, savedUser.getId(), savedUser.getVersion());
+        assertThat(redisTemplate.hasKey(bodyKey)).isTrue();
+
+        jdbcTemplate.update("UPDATE users SET name = 'Admin' WHERE id = ?", savedUser.getId());
+
+        awaitTrue(() -> !Boolean.TRUE.equals(redisTemplate.hasKey(bodyKey)));
+        mockMvc.perform(get("/api/users/{id}", savedUser.getId()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.name").value("Admin"));
+    }
+
+    @Test
+    void directCardUpdate_ShouldEvictCardAndOwnerEntries() throws InterruptedException {
+        CardInfoResponse card = cardInfoService.create(CardInfoRequest.builder()
+                .number("1111222233334444")
+                .holder("Max Ivanov")
+                .expirationDate("01/30")
+                .build(), OWNER_AUTH_ID);
+        cardInfoService.getCardById(card.getId());
+        userService.getUserById(savedUser.getId());
+
+        jdbcTemplate.update("UPDATE card_info SET holder = 'ADMIN' WHERE id = ?", card.getId());
+
+        awaitTrue(() -> cache("cards").get(card.getId()) == null
+                && cache("users").get(savedUser.getId()) == null);
+        assertThat(cardInfoService.getCardById(card.getId()).getHolder()).isEqualTo("ADMIN");
+    }
+
+    @Test
+    void serviceCardChange_ShouldSkipOutbox_AndKeepPatchedUserCached() {
+        userService.getUserById(savedUser.getId());
+
+        CardInfoResponse card = cardInfoService.create(CardInfoRequest.builder()
+                .number("5555666677778888")
+                .holder("Max Ivanov")
+                .expirationDate("01/30")
+                .build(), OWNER_AUTH_ID);
+
+        assertThat(jdbcTemplate.queryForObject("SELECT count(*) FROM cache_outbox", Integer.class)).isZero();
+        UserResponse cached = (UserResponse) Objects.requireNonNull(cache("users").get(savedUser.getId())).get();
+        assertThat(Objects.requireNonNull(cached).getCards()).extracting(CardInfoResponse::getId).containsExactly(card.getId());
+    }
+
+    @Test
+    void serviceUserUpdate_ShouldSkipOutbox_AndKeepUpdatedUserCached() throws InterruptedException {
+        userService.getUserById(savedUser.getId());
+
+        userService.updateUserById(savedUser.getId(), UserRequest.builder()
+                .name("Maksim")
+                .surname("Ivanov")
+                .birthDate(LocalDate.of(1995, 10, 17))
+                .email("max@gmail.com")
+                .build(), OWNER_AUTH_ID, null);
+
+        assertThat(jdbcTemplate.queryForObject("SELECT count(*) FROM cache_outbox", Integer.class)).isZero();
+
+        UserResponse other = userService.create(UserRequest.builder()
+                .name("Ivan")
+                .surname("Petrov")
+                .birthDate(LocalDate.of(1990, 1, 1))
+                .email("ivan@gmail.com")
+                .build(), OWNER_AUTH_ID + 1);
+        jdbcTemplate.update("UPDATE users SET name = 'Admin' WHERE id = ?", other.getId());
+        awaitTrue(() -> Objects.equals(0, jdbcTemplate.queryForObject(
+                "SELECT count(*) FROM cache_outbox WHERE processed_at IS NULL", Integer.class)));
+
+        Cache.ValueWrapper cached = cache("users").get(savedUser.getId());
+        assertThat(cached).isNotNull();
+        assertThat(((UserResponse) Objects.requireNonNull(cached.get())).getName()).isEqualTo("Maksim");
+    }
+
+    @Test
+    void processedRows_ShouldBeMarked() throws InterruptedException {
+        jdbcTemplate.update("UPDATE users SET name = 'Admin' WHERE id = ?", savedUser.getId());
+
+        awaitTrue(() -> Objects.equals(0, jdbcTemplate.queryForObject(
+                "SELECT count(*) FROM cache_outbox WHERE processed_at IS NULL", Integer.class)));
+    }
+
+    private Cache cache(String name) {
+        return Objects.requireNonNull(cacheManager.getCache(name));
+    }
+
+    private static void awaitTrue(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5_000;
+        while (!condition.getAsBoolean()) {
+            assertThat(System.currentTimeMillis()).as("condition not met in time").isLessThan(deadline);
+            Thread.sleep(50);
+        }
+    }
+}
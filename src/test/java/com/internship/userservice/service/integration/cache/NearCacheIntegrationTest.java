@@ -0,0 +1,174 @@
+package com.internship.userservice.service.integration.cache;
+
+import com.internship.userservice.cache.CacheKeys;
+import com.internship.userservice.cache.NearCacheStore;
+import com.internship.userservice.config.AppCacheProperties;
+import com.internship.userservice.dto.user.UserRequest;
+import com.internship.userservice.dto.user.UserResponse;
+import com.internship.userservice.service.UserService;
+import com.internship.userservice.service.integration.BaseIntegrationTest;
+import io.lettuce.core.AclSetuserArgs;
+import io.lettuce.core.RedisClient;
+import io.lettuce.core.RedisURI;
+import io.lettuce.core.api.StatefulRedisConnection;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.connection.RedisConnection;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.types.RedisClientInfo;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.context.jdbc.Sql;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.function.BooleanSupplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@Sql(scripts = "classpath:/sql/cleanup.sql", executionPhase = Sql.ExecutionPhase.BEFORE_TEST_METHOD)
+@TestPropertySource(properties = "app.cache.near.enabled=true")
+@DirtiesContext
+public class NearCacheIntegrationTest extends BaseIntegrationTest {
+
+    private static final long OWNER_AUTH_ID = 100L;
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private NearCacheStore nearCacheStore;
+
+    @Autowired
+    private StringRedisTemplate redisTemplate;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private AppCacheProperties cacheProperties;
+
+    @Autowired
+    private ScheduledExecutorService cacheScheduler;
+
+    @Value("${spring.data.redis.host}")
+    private String redisHost;
+
+    @Value("${spring.data.redis.port}")
+    private int redisPort;
+
+    private UserResponse createUser() {
+        return userService.create(UserRequest.builder()
+                .name("Max")
+                .surname("Ivanov")
+                .birthDate(LocalDate.of(1995, 10, 17))
+                .email("max@gmail.com")
+                .build(), OWNER_AUTH_ID);
+    }
+
+    private double gets(String result) {
+        return meterRegistry.get("cache.near.gets").tag("result", result).counter().count();
+    }
+
+    /**
+     * Rewrites the cached entry behind the service's back, as another replica would.
+     */
+    private void renameInRedis(String cacheKey, String name) {
+        String cached = (String) redisTemplate.opsForHash().get(cacheKey, "profile");
+        assertThat(cached).contains("\"Max\"");
+        redisTemplate.opsForHash().put(cacheKey, "profile", cached.replace("\"Max\"", "\"" + name + "\""));
+    }
+
+    /**
+     * The first lookup caches the user in Redis, and the invalidation of that write may
+     * arrive after the next lookup kept a local copy, so lookups repeat until one is local.
+     */
+    private boolean awaitLocalHit(Long id) throws InterruptedException {
+        return await(() -> {
+            double hits = gets("hit");
+            userService.getUserById(id);
+            return gets("hit") > hits;
+        });
+    }
+
+    private static boolean await(BooleanSupplier condition) throws InterruptedException {
+        for (int i = 0; i < 50; i++) {
+            if (condition.getAsBoolean()) {
+                return true;
+            }
+            Thread.sleep(50);
+        }
+        return false;
+    }
+
+    @Test
+    void getUserById_ShouldServeLocalCopy_UntilRedisInvalidatesIt() throws InterruptedException {
+        assertThat(nearCacheStore.isTracking()).isTrue();
+        UserResponse saved = createUser();
+        String cacheKey = CacheKeys.user(saved.getId());
+
+        userService.getUserById(saved.getId());
+        assertThat(awaitLocalHit(saved.getId())).isTrue();
+        assertThat(userService.getUserById(saved.getId()).getName()).isEqualTo("Max");
+
+        renameInRedis(cacheKey, "Maksim");
+
+        assertThat(await(() -> "Maksim".equals(userService.getUserById(saved.getId()).getName()))).isTrue();
+        assertThat(meterRegistry.get("cache.near.invalidations").counter().count()).isPositive();
+    }
+
+    @Test
+    void getUserById_ShouldBypassLocalCopies_WhileTrackingConnectionIsDown() throws InterruptedException {
+        UserResponse saved = createUser();
+        String cacheKey = CacheKeys.user(saved.getId());
+        userService.getUserById(saved.getId());
+        assertThat(awaitLocalHit(saved.getId())).isTrue();
+
+        try (RedisConnection connection = redisTemplate.getRequiredConnectionFactory().getConnection()) {
+            for (RedisClientInfo client : connection.serverCommands().getClientList()) {
+                if (client.get("flags").contains("t")) {
+                    String[] address = client.getAddressPort().split(":");
+                    connection.serverCommands().killClient(address[0], Integer.parseInt(address[1]));
+                }
+            }
+        }
+
+        assertThat(await(() -> nearCacheStore.size() == 0)).isTrue();
+        assertThat(await(nearCacheStore::isTracking)).isTrue();
+
+        assertThat(awaitLocalHit(saved.getId())).isTrue();
+        renameInRedis(cacheKey, "Maksim");
+
+        assertThat(await(() -> "Maksim".equals(userService.getUserById(saved.getId()).getName()))).isTrue();
+    }
+
+    @Test
+    void start_ShouldRetryConnect_UntilRedisAcceptsIt() throws InterruptedException {
+        String username = "near-cache-test";
+        RedisURI uri = RedisURI.builder()
+                .withHost(redisHost)
+                .withPort(redisPort)
+                .withAuthentication(username, "secret".toCharArray())
+                .build();
+        RedisClient admin = RedisClient.create(RedisURI.create(redisHost, redisPort));
+
+        try (StatefulRedisConnection<String, String> connection = admin.connect();
+             NearCacheStore store = new NearCacheStore(uri, List.of(CacheKeys.USERS), cacheProperties.getNear(), cacheScheduler)) {
+            store.start();
+            assertThat(store.isTracking()).isFalse();
+
+            // the user the store authenticates as only exists from now on
+            connection.sync().aclSetuser(username, AclSetuserArgs.Builder.on().addPassword("secret").allKeys().allCommands());
+            try {
+                assertThat(await(store::isTracking)).isTrue();
+            } finally {
+                connection.sync().aclDeluser(username);
+            }
+        } finally {
+            admin.shutdown();
+        }
+    }
+}
@@ -0,0 +1,91 @@
+package com.internship.userservice.service.integration.cache;
+
+import com.internship.userservice.cache.CacheKeys;
+import com.internship.userservice.cache.EncodedBodyCache;
+import com.internship.userservice.cache.RedisCircuitBreaker;
+import com.internship.userservice.dto.user.UserRequest;
+import com.internship.userservice.dto.user.UserResponse;
+import com.internship.userservice.service.UserService;
+import com.internship.userservice.service.integration.BaseIntegrationTest;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.jdbc.Sql;
+
+import java.time.LocalDate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@Sql(scripts = "classpath:/sql/cleanup.sql", executionPhase = Sql.ExecutionPhase.BEFORE_TEST_METHOD)
+@DirtiesContext
+public class RedisCircuitBreakerIntegrationTest extends BaseIntegrationTest {
+
+    private static final long OWNER_AUTH_ID = 100L;
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private RedisCircuitBreaker circuitBreaker;
+
+    @Autowired
+    private StringRedisTemplate redisTemplate;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private EncodedBodyCache encodedBodyCache;
+
+    private UserRequest userRequest(String name) {
+        return UserRequest.builder()
+                .name(name)
+                .surname("Ivanov")
+                .birthDate(LocalDate.of(1995, 10, 17))
+                .email("max@gmail.com")
+                .build();
+    }
+
+    private double state(String state) {
+        return meterRegistry.get("cache.circuit.state").tag("state", state).gauge().value();
+    }
+
+    @Test
+    void getUserById_ShouldBypassRedisWhileOpen_AndNotServeStaleEntryAfterRecovery() throws InterruptedException {
+        UserResponse saved = userService.create(userRequest("Max"), OWNER_AUTH_ID);
+        String cacheKey = CacheKeys.user(saved.getId());
+        userService.getUserById(saved.getId());
+        assertThat(redisTemplate.hasKey(cacheKey)).isTrue();
+
+        for (int i = 0; i < 100 && circuitBreaker.getState() != RedisCircuitBreaker.State.OPEN; i++) {
+            circuitBreaker.onFailure();
+        }
+        assertThat(state("open")).isEqualTo(1.0);
+
+        userService.updateUserById(saved.getId(), userRequest("Maksim"), OWNER_AUTH_ID, null);
+
+        assertThat(userService.getUserById(saved.getId()).getName()).isEqualTo("Maksim");
+        assertThat((String) redisTemplate.opsForHash().get(cacheKey, "profile")).contains("\"Max\"");
+        assertThat(meterRegistry.get("cache.circuit.calls").tag("result", "rejected").counter().count())
+                .isPositive();
+        double rejected = meterRegistry.get("cache.circuit.calls").tag("result", "rejected").counter().count();
+        assertThat(encodedBodyCache.get(CacheKeys.encodedBody("users", saved.getId(), saved.getVersion()))).isNull();
+        assertThat(meterRegistry.get("cache.circuit.calls").tag("result", "rejected").counter().count())
+                .isEqualTo(rejected + 1);
+
+        Thread.sleep(400);
+
+        // the first call after the wait starts clearing the stale cache and is still rejected
+        assertThat(userService.getUserById(saved.getId()).getName()).isEqualTo("Maksim");
+        for (int i = 0; i < 100 && circuitBreaker.getState() == RedisCircuitBreaker.State.OPEN; i++) {
+            Thread.sleep(50);
+        }
+        assertThat(circuitBreaker.getState()).isNotEqualTo(RedisCircuitBreaker.State.OPEN);
+
+        assertThat(userService.getUserById(saved.getId()).getName()).isEqualTo("Maksim");
+        assertThat(state("closed")).isEqualTo(1.0);
+        assertThat((String) redisTemplate.opsForHash().get(cacheKey, "profile")).contains("\"Maksim\"");
+    }
+}
@@ -0,0 +1,170 @@
+package com.internship.userservice.service.integration.cache;
+
+import com.internship.userservice.cache.CacheKeys;
+import com.internship.userservice.cache.DelegatingCache;
+import com.internship.userservice.cache.VersionedRedisCache;
+import com.internship.userservice.dto.user.UserRequest;
+import com.internship.userservice.dto.user.UserResponse;
+import com.internship.userservice.service.UserService;
+import com.internship.userservice.service.integration.BaseIntegrationTest;
+import io.lettuce.core.internal.HostAndPort;
+import io.lettuce.core.resource.DnsResolvers;
+import io.lettuce.core.resource.MappingSocketAddressResolver;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.data.redis.ClientResourcesBuilderCustomizer;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.cache.CacheManager;
+import org.springframework.context.annotation.Bean;
+import org.springframework.data.redis.connection.RedisClusterConnection;
+import org.springframework.data.redis.connection.RedisClusterNode;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.context.jdbc.Sql;
+import org.testcontainers.containers.GenericContainer;
+import org.testcontainers.containers.wait.strategy.Wait;
+import org.testcontainers.utility.DockerImageName;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Runs the cache against a three-node Redis Cluster. The nodes run in one container and
+ * announce themselves as {@code 127.0.0.1:700x}; the client maps those addresses to the
+ * ports published by the container.
+ */
+@Sql(scripts = "classpath:/sql/cleanup.sql", executionPhase = Sql.ExecutionPhase.BEFORE_TEST_METHOD)
+@DirtiesContext
+public class RedisClusterIntegrationTest extends BaseIntegrationTest {
+
+    private static final long OWNER_AUTH_ID = 100L;
+    private static final int[] CLUSTER_PORTS = {7000, 7001, 7002};
+
+    private static final String START_CLUSTER = """
+            for port in 7000 7001 7002; do
+              redis-server --port $port --cluster-enabled yes --cluster-config-file nodes-$port.conf \
+                --save '' --appendonly no --daemonize yes
+            done
+            redis-cli --cluster create 127.0.0.1:7000 127.0.0.1:7001 127.0.0.1:7002 \
+              --cluster-replicas 0 --cluster-yes
+            until redis-cli -p 7000 cluster info | grep -q cluster_state:ok; do sleep 0.1; done
+            echo Cluster ready
+            tail -f /dev/null
+            """;
+
+    private static final GenericContainer<?> REDIS_CLUSTER =
+            new GenericContainer<>(DockerImageName.parse("redis:7.2"))
+                    .withExposedPorts(7000, 7001, 7002)
+                    .withCommand("sh", "-c", START_CLUSTER)
+                    .waitingFor(Wait.forLogMessage(".*Cluster ready.*", 1));
+
+    static {
+        REDIS_CLUSTER.start();
+    }
+
+    @DynamicPropertySource
+    static void configureCluster(DynamicPropertyRegistry registry) {
+        List<String> nodes = new ArrayList<>();
+        for (int port : CLUSTER_PORTS) {
+            nodes.add("127.0.0.1:" + port);
+        }
+        registry.add("spring.data.redis.cluster.nodes", () -> String.join(",", nodes));
+    }
+
+    private static HostAndPort published(HostAndPort announced) {
+        return HostAndPort.of(REDIS_CLUSTER.getHost(), REDIS_CLUSTER.getMappedPort(announced.getPort()));
+    }
+
+    @TestConfiguration
+    static class ClusterAddressMapping {
+
+        @Bean
+        ClientResourcesBuilderCustomizer clusterAddressMapping() {
+            return builder -> builder.socketAddressResolver(
+                    MappingSocketAddressResolver.create(DnsResolvers.UNRESOLVED, RedisClusterIntegrationTest::published));
+        }
+    }
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    @Autowired
+    private StringRedisTemplate redisTemplate;
+
+    private UserResponse createUser(int i) {
+        return userService.create(UserRequest.builder()
+                .name("Max" + i)
+                .surname("Ivanov")
+                .birthDate(LocalDate.of(1995, 10, 17))
+                .email("max" + i + "@gmail.com")
+                .build(), OWNER_AUTH_ID + i);
+    }
+
+    private RedisClusterNode nodeFor(String key) {
+        try (RedisClusterConnection connection = redisTemplate.getRequiredConnectionFactory().getClusterConnection()) {
+            return connection.clusterGetNodeForKey(key.getBytes(StandardCharsets.UTF_8));
+        }
+    }
+
+    private VersionedRedisCache usersCache() {
+        return (VersionedRedisCache) DelegatingCache.unwrap(Objects.requireNonNull(cacheManager.getCache(CacheKeys.USERS)));
+    }
+
+    @Test
+    void deleteUserById_ShouldEvictUserKeysAndSecondaryKeys_AcrossNodes() {
+        UserResponse saved = createUser(1);
+        userService.getUserById(saved.getId());
+        userService.getUserByEmail(saved.getEmail());
+
+        String userKey = CacheKeys.user(saved.getId());
+        String indexKey = CacheKeys.userIndex(saved.getId());
+        String emailKey = CacheKeys.of(CacheKeys.USERS_BY_EMAIL, saved.getEmail());
+        assertThat(redisTemplate.hasKey(userKey)).isTrue();
+        assertThat(redisTemplate.hasKey(indexKey)).isTrue();
+        assertThat(redisTemplate.hasKey(emailKey)).isTrue();
+        assertThat(nodeFor(userKey)).isEqualTo(nodeFor(indexKey));
+
+        userService.deleteUserById(saved.getId(), OWNER_AUTH_ID + 1);
+
+        assertThat(redisTemplate.hasKey(userKey)).isFalse();
+        assertThat(redisTemplate.hasKey(indexKey)).isFalse();
+        assertThat(redisTemplate.hasKey(emailKey)).isFalse();
+    }
+
+    @Test
+    void getAll_ShouldReadEntriesFromEveryNode_AndClearShouldRemoveThem() {
+        List<Long> ids = new ArrayList<>();
+        Set<RedisClusterNode> nodes = new HashSet<>();
+        for (int i = 1; i <= 6; i++) {
+            Long id = createUser(i).getId();
+            userService.getUserById(id);
+            ids.add(id);
+            nodes.add(nodeFor(CacheKeys.user(id)));
+        }
+        assertThat(nodes).hasSizeGreaterThan(1);
+
+        List<Long> requested = new ArrayList<>(ids);
+        requested.add(999L);
+        Map<Object, Object> found = usersCache().getAll(requested);
+
+        assertThat(found.keySet()).containsExactlyElementsOf(ids);
+        assertThat(((UserResponse) found.get(ids.get(2))).getName()).isEqualTo("Max3");
+
+        usersCache().clear();
+
+        assertThat(usersCache().getAll(ids)).isEmpty();
+    }
+}
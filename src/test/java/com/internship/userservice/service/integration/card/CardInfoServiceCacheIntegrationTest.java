@@ -1,5 +1,7 @@
 package com.internship.userservice.service.integration.card;
 
+import com.internship.userservice.cache.CacheKeys;
+import com.internship.userservice.cache.UserCardsCache;
 import com.internship.userservice.dto.card.CardInfoRequest;
 import com.internship.userservice.dto.card.CardInfoResponse;
 import com.internship.userservice.dto.user.UserRequest;
@@ -11,12 +13,14 @@ import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.cache.Cache;
 import org.springframework.cache.CacheManager;
+import org.springframework.data.redis.core.StringRedisTemplate;
 import org.springframework.test.context.jdbc.Sql;
 
 import java.time.LocalDate;
+import java.util.List;
 import java.util.Objects;
 
-import static org.assertj.core.api.AssertionsForClassTypes.assertThat;
+import static org.assertj.core.api.Assertions.assertThat;
 
 @Sql(scripts = "classpath:/sql/cleanup.sql", executionPhase = Sql.ExecutionPhase.BEFORE_TEST_METHOD)
 public class CardInfoServiceCacheIntegrationTest extends BaseIntegrationTest {
@@ -32,8 +36,16 @@ public class CardInfoServiceCacheIntegrationTest extends BaseIntegrationTest {
     @Autowired
     private CacheManager cacheManager;
 
+    @Autowired
+    private UserCardsCache userCardsCache;
+
+    @Autowired
+    private StringRedisTemplate redisTemplate;
+
     private static final String CARDS_CACHE = "cards";
 
+    private Long userId;
+
     @BeforeEach
     void setUp() {
         clearCache();
@@ -43,7 +55,15 @@ public class CardInfoServiceCacheIntegrationTest extends BaseIntegrationTest {
                 .birthDate(LocalDate.of(1995, 10, 17))
                 .email("max@gmail.com")
                 .build();
-        userService.create(user, OWNER_AUTH_ID);
+        userId = userService.create(user, OWNER_AUTH_ID).getId();
+    }
+
+    private CardInfoRequest cardRequest(String number, String holder) {
+        return CardInfoRequest.builder()
+                .number(number)
+                .holder(holder)
+                .expirationDate("01/30")
+                .build();
     }
 
     private void clearCache() {
@@ -91,7 +111,7 @@ public class CardInfoServiceCacheIntegrationTest extends BaseIntegrationTest {
                 .holder("Sveta Svetikova")
                 .expirationDate("12/30")
                 .build();
-        cardInfoService.update(savedCard.getId(), updateRequest, OWNER_AUTH_ID);
+        cardInfoService.update(savedCard.getId(), updateRequest, OWNER_AUTH_ID, null);
 
         Cache.ValueWrapper afterUpdate =
                 Objects.requireNonNull(cacheManager.getCache(CARDS_CACHE)).get(savedCard.getId());
@@ -124,4 +144,34 @@ public class CardInfoServiceCacheIntegrationTest extends BaseIntegrationTest {
         assertThat(Objects.requireNonNull(cacheManager.getCache(CARDS_CACHE)).get(cardId))
                 .isNull();
     }
+
+    @Test
+    void getByUserId_ShouldKeepCardListCached_AndPatchItOnCardChanges() {
+        CardInfoResponse first = cardInfoService.create(cardRequest("1111000011110000", "Max Ivanov"), OWNER_AUTH_ID);
+        assertThat(cardInfoService.getByUserId(userId)).extracting(CardInfoResponse::getId).containsExactly(first.getId());
+        String key = CacheKeys.userCards(userId);
+        assertThat(redisTemplate.opsForHash().hasKey(key, "complete")).isTrue();
+
+        CardInfoResponse second = cardInfoService.create(cardRequest("2222000022220000", "Max Ivanov"), OWNER_AUTH_ID);
+        cardInfoService.update(second.getId(), cardRequest("2222000022220000", "Sveta Svetikova"), OWNER_AUTH_ID, null);
+        cardInfoService.delete(first.getId(), OWNER_AUTH_ID);
+
+        assertThat(redisTemplate.opsForHash().hasKey(key, "complete")).isTrue();
+        List<CardInfoResponse> cached = userCardsCache.get(userId);
+        assertThat(cached).extracting(CardInfoResponse::getId).containsExactly(second.getId());
+        assertThat(cached.get(0).getHolder()).isEqualTo("Sveta Svetikova");
+        assertThat(cardInfoService.getByUserId(userId)).isEqualTo(cached);
+    }
+
+    @Test
+    void fill_ShouldNotStoreList_ReadBeforeLaterCardChange() {
+        long versionBeforeChange = userRepository.findVersionById(userId).orElseThrow();
+        cardInfoService.create(cardRequest("3333000033330000", "Max Ivanov"), OWNER_AUTH_ID);
+
+        userCardsCache.fill(userId, versionBeforeChange, List.of());
+
+        assertThat(userCardsCache.get(userId)).isNull();
+        assertThat(cardInfoService.getByUserId(userId)).hasSize(1);
+        assertThat(userCardsCache.get(userId)).hasSize(1);
+    }
 }
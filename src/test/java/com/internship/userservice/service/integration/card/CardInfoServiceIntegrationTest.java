@@ -76,6 +76,20 @@ public class CardInfoServiceIntegrationTest extends BaseIntegrationTest {
         assertThat(response.getExpirationDate()).isEqualTo("01/30");
     }
 
+    @Test
+    void create_ShouldIncrementOwnerVersion() {
+        CardInfoRequest request = CardInfoRequest.builder()
+                .number("1111222233334444")
+                .holder("Max Ivanov")
+                .expirationDate("01/30")
+                .build();
+
+        cardInfoService.create(request, OWNER_AUTH_ID);
+
+        assertThat(userService.getUserById(savedUser.getId()).getVersion())
+                .isEqualTo(savedUser.getVersion() + 1);
+    }
+
     @Test
     void create_ShouldThrow_WhenCardNumberAlreadyExists() {
         CardInfoRequest request = CardInfoRequest.builder()
@@ -199,7 +213,7 @@ public class CardInfoServiceIntegrationTest extends BaseIntegrationTest {
                 .expirationDate("12/30")
                 .build();
 
-        CardInfoResponse updated = cardInfoService.update(saved.getId(), update, OWNER_AUTH_ID);
+        CardInfoResponse updated = cardInfoService.update(saved.getId(), update, OWNER_AUTH_ID, null);
 
         assertThat(updated.getHolder()).isEqualTo("Sveta Svetikova");
         assertThat(updated.getExpirationDate()).isEqualTo("12/30");
@@ -225,7 +239,7 @@ public class CardInfoServiceIntegrationTest extends BaseIntegrationTest {
                 .expirationDate("12/30")
                 .build();
 
-        assertThatThrownBy(() -> cardInfoService.update(cardToUpdate.getId(), update, OWNER_AUTH_ID))
+        assertThatThrownBy(() -> cardInfoService.update(cardToUpdate.getId(), update, OWNER_AUTH_ID, null))
                 .isInstanceOf(AlreadyExistsException.class)
                 .hasMessageContaining("already exists");
     }
@@ -244,7 +258,7 @@ public class CardInfoServiceIntegrationTest extends BaseIntegrationTest {
                 .expirationDate("02/31")
                 .build();
 
-        assertThatThrownBy(() -> cardInfoService.update(saved.getId(), update, OTHER_AUTH_ID))
+        assertThatThrownBy(() -> cardInfoService.update(saved.getId(), update, OTHER_AUTH_ID, null))
                 .isInstanceOf(org.springframework.security.access.AccessDeniedException.class)
                 .hasMessageContaining("Access denied");
     }
@@ -257,7 +271,7 @@ public class CardInfoServiceIntegrationTest extends BaseIntegrationTest {
                 .expirationDate("01/30")
                 .build();
 
-        assertThatThrownBy(() -> cardInfoService.update(1488L, update, OWNER_AUTH_ID))
+        assertThatThrownBy(() -> cardInfoService.update(1488L, update, OWNER_AUTH_ID, null))
                 .isInstanceOf(NotFoundException.class)
                 .hasMessageContaining("Card id=1488 not found");
     }
@@ -0,0 +1,88 @@
+package com.internship.userservice.service.integration.card;
+
+import com.internship.userservice.dto.card.CardInfoRequest;
+import com.internship.userservice.dto.user.UserRequest;
+import com.internship.userservice.service.CardInfoService;
+import com.internship.userservice.service.UserService;
+import com.internship.userservice.service.integration.BaseIntegrationTest;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.system.CapturedOutput;
+import org.springframework.boot.test.system.OutputCaptureExtension;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.context.jdbc.Sql;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.time.LocalDate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@ExtendWith(OutputCaptureExtension.class)
+@Sql(scripts = "classpath:/sql/cleanup.sql", executionPhase = Sql.ExecutionPhase.BEFORE_TEST_METHOD)
+@TestPropertySource(properties = "management.endpoint.sqllog.access=unrestricted")
+public class CardInfoSqlLogIntegrationTest extends BaseIntegrationTest {
+
+    private static final long OWNER_AUTH_ID = 100L;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private CardInfoService cardInfoService;
+
+    @Autowired
+    private UserService userService;
+
+    @AfterEach
+    void switchOff() throws Exception {
+        mockMvc.perform(post("/actuator/sqllog")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"active\": false, \"sampleRate\": 0.01}"));
+    }
+
+    @Test
+    void create_ShouldLogInsertWithMaskedCardNumber_WhenSwitchedOnAtRuntime(CapturedOutput output) throws Exception {
+        userService.create(UserRequest.builder()
+                .name("Max")
+                .surname("Ivanov")
+                .birthDate(LocalDate.of(1995, 10, 17))
+                .email("max@gmail.com")
+                .build(), OWNER_AUTH_ID);
+
+        mockMvc.perform(post("/actuator/sqllog")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"active\": true, \"sampleRate\": 1.0}"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.active").value(true))
+                .andExpect(jsonPath("$.sampleRate").value(1.0));
+
+        cardInfoService.create(CardInfoRequest.builder()
+                .number("1111222233334444")
+                .holder("Max Ivanov")
+                .expirationDate("01/30")
+                .build(), OWNER_AUTH_ID);
+
+        String insert = awaitLine(output, "insert into card_info");
+        assertThat(insert).startsWith("{").contains("\"durationMs\"", "\"****4444\"");
+        assertThat(insert).doesNotContain("1111222233334444");
+    }
+
+    private static String awaitLine(CapturedOutput output, String sql) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5000;
+        while (System.currentTimeMillis() < deadline) {
+            for (String line : output.getOut().split("\\R")) {
+                if (line.contains(sql)) {
+                    return line;
+                }
+            }
+            Thread.sleep(50);
+        }
+        throw new AssertionError("No SQL log line for " + sql);
+    }
+}
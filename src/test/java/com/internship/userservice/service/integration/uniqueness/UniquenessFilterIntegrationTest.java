@@ -0,0 +1,159 @@
+package com.internship.userservice.service.integration.uniqueness;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.internship.userservice.config.UniquenessFilterProperties;
+import com.internship.userservice.dto.card.CardInfoRequest;
+import com.internship.userservice.dto.user.UserRequest;
+import com.internship.userservice.entity.User;
+import com.internship.userservice.exception.AlreadyExistsException;
+import com.internship.userservice.service.CardInfoService;
+import com.internship.userservice.service.UserService;
+import com.internship.userservice.service.integration.BaseIntegrationTest;
+import com.internship.userservice.uniqueness.UniquenessFilter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.context.jdbc.Sql;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.transaction.CannotCreateTransactionException;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.TransactionStatus;
+
+import java.time.LocalDate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatCode;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@Sql(scripts = "classpath:/sql/cleanup.sql", executionPhase = Sql.ExecutionPhase.BEFORE_TEST_METHOD)
+@DirtiesContext
+@TestPropertySource(properties = "app.uniqueness-filter.enabled=true")
+public class UniquenessFilterIntegrationTest extends BaseIntegrationTest {
+
+    private static final long OWNER_AUTH_ID = 500L;
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private CardInfoService cardInfoService;
+
+    @Autowired
+    private UniquenessFilter uniquenessFilter;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private UniquenessFilterProperties properties;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @BeforeEach
+    void rebuildFilter() {
+        uniquenessFilter.rebuild();
+        assertThat(uniquenessFilter.isReady()).isTrue();
+    }
+
+    private static UserRequest userRequest(String email) {
+        return UserRequest.builder()
+                .name("Max")
+                .surname("Ivanov")
+                .birthDate(LocalDate.of(1995, 10, 17))
+                .email(email)
+                .build();
+    }
+
+    private double checks(String filter, String result) {
+        return meterRegistry.get("uniqueness.filter.checks").tags("filter", filter, "result", result).counter().count();
+    }
+
+    @Test
+    void create_ShouldSkipLookupForNewValues_AndStillRejectDuplicates() {
+        double skippedEmails = checks("email", "skipped");
+        double skippedNumbers = checks("card_number", "skipped");
+
+        userService.create(userRequest("max@gmail.com"), OWNER_AUTH_ID);
+        cardInfoService.create(CardInfoRequest.builder()
+                .number("1111222233334444")
+                .holder("Max Ivanov")
+                .expirationDate("01/30")
+                .build(), OWNER_AUTH_ID);
+
+        assertThat(checks("email", "skipped")).isEqualTo(skippedEmails + 1);
+        assertThat(checks("card_number", "skipped")).isEqualTo(skippedNumbers + 1);
+        assertThatThrownBy(() -> userService.create(userRequest("max@gmail.com"), OWNER_AUTH_ID + 1))
+                .isInstanceOf(AlreadyExistsException.class);
+        assertThat(meterRegistry.get("uniqueness.filter.size").tag("filter", "email").gauge().value()).isPositive();
+    }
+
+    @Test
+    void rebuild_ShouldPickUpValuesWrittenElsewhere() {
+        userRepository.save(User.builder()
+                .name("Max")
+                .surname("Ivanov")
+                .birthDate(LocalDate.of(1995, 10, 17))
+                .email("other@gmail.com")
+                .build());
+
+        uniquenessFilter.rebuild();
+
+        assertThatThrownBy(() -> userService.create(userRequest("other@gmail.com"), OWNER_AUTH_ID))
+                .isInstanceOf(AlreadyExistsException.class);
+    }
+
+    @Test
+    void rebuild_ShouldKeepRunning_WhenNoTransactionCanBeStarted() {
+        PlatformTransactionManager unavailable = new PlatformTransactionManager() {
+            @Override
+            public TransactionStatus getTransaction(TransactionDefinition definition) {
+                throw new CannotCreateTransactionException("pool exhausted");
+            }
+
+            @Override
+            public void commit(TransactionStatus status) {
+            }
+
+            @Override
+            public void rollback(TransactionStatus status) {
+            }
+        };
+        UniquenessFilter filter = new UniquenessFilter(jdbcTemplate, unavailable, properties);
+
+        assertThatCode(filter::rebuild).doesNotThrowAnyException();
+        assertThat(filter.isReady()).isFalse();
+    }
+
+    @Test
+    void createUser_ShouldReturn409_WhenOnlyTheConstraintCatchesTheDuplicate() throws Exception {
+        userRepository.save(User.builder()
+                .name("Max")
+                .surname("Ivanov")
+                .birthDate(LocalDate.of(1995, 10, 17))
+                .email("other@gmail.com")
+                .build());
+
+        mockMvc.perform(post("/api/users")
+                        .header("X-User-Id", OWNER_AUTH_ID)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(userRequest("other@gmail.com"))))
+                .andExpect(status().isConflict())
+                .andExpect(jsonPath("$.message").value("Email or card number is already in use"));
+    }
+}
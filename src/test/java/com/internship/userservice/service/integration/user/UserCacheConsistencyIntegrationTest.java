@@ -0,0 +1,139 @@
+package com.internship.userservice.service.integration.user;
+
+import com.internship.userservice.dto.card.CardInfoRequest;
+import com.internship.userservice.dto.user.UserRequest;
+import com.internship.userservice.dto.user.UserResponse;
+import com.internship.userservice.entity.User;
+import com.internship.userservice.service.CardInfoService;
+import com.internship.userservice.service.UserService;
+import com.internship.userservice.service.integration.BaseIntegrationTest;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.context.jdbc.Sql;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@Sql(scripts = "classpath:/sql/cleanup.sql", executionPhase = Sql.ExecutionPhase.BEFORE_TEST_METHOD)
+@DirtiesContext
+@TestPropertySource(properties = {
+        "app.cache.double-delete.enabled=true",
+        "app.cache.double-delete.delay=200ms"
+})
+public class UserCacheConsistencyIntegrationTest extends BaseIntegrationTest {
+
+    private static final long OWNER_AUTH_ID = 300L;
+    private static final String USERS_CACHE = "users";
+    private static final int WRITES = 60;
+    private static final int READERS = 4;
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private CardInfoService cardInfoService;
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @BeforeEach
+    void clearUserCaches() {
+        Objects.requireNonNull(cacheManager.getCache(USERS_CACHE)).clear();
+        Objects.requireNonNull(cacheManager.getCache("usersByEmail")).clear();
+    }
+
+    @Test
+    void concurrentReadsAndWrites_ShouldLeaveNoStaleEntries() throws Exception {
+        Long userId = userService.create(createUserRequest("Max"), OWNER_AUTH_ID).getId();
+
+        AtomicBoolean reading = new AtomicBoolean(true);
+        ExecutorService pool = Executors.newFixedThreadPool(READERS + 1);
+        List<Future<?>> readers = new ArrayList<>();
+        for (int i = 0; i < READERS; i++) {
+            readers.add(pool.submit(() -> {
+                while (reading.get()) {
+                    userService.getUserById(userId);
+                }
+            }));
+        }
+        Future<?> writer = pool.submit(() -> {
+            for (int i = 0; i < WRITES; i++) {
+                if (i % 5 == 0) {
+                    cardInfoService.create(createCardRequest(i), OWNER_AUTH_ID);
+                } else {
+                    userService.updateUserById(userId, createUserRequest("Name" + i), OWNER_AUTH_ID, null);
+                }
+            }
+        });
+
+        try {
+            writer.get(60, TimeUnit.SECONDS);
+            // readers keep filling the cache past the second delete of the last write
+            Thread.sleep(400);
+        } finally {
+            reading.set(false);
+        }
+        for (Future<?> reader : readers) {
+            reader.get(60, TimeUnit.SECONDS);
+        }
+        pool.shutdown();
+
+        User fromDb = userRepository.findById(userId).orElseThrow();
+        Cache.ValueWrapper cached = Objects.requireNonNull(cacheManager.getCache(USERS_CACHE)).get(userId);
+        assertThat(cached).isNotNull();
+        UserResponse cachedUser = (UserResponse) Objects.requireNonNull(cached.get());
+        assertThat(cachedUser.getVersion()).isEqualTo(fromDb.getVersion());
+        assertThat(cachedUser.getName()).isEqualTo(fromDb.getName());
+    }
+
+    @Test
+    void rolledBackUpdate_ShouldNotReachCache() {
+        Long userId = userService.create(createUserRequest("Max"), OWNER_AUTH_ID).getId();
+        userService.getUserById(userId);
+
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            userService.updateUserById(userId, createUserRequest("RolledBack"), OWNER_AUTH_ID, null);
+            status.setRollbackOnly();
+        });
+
+        Cache.ValueWrapper cached = Objects.requireNonNull(cacheManager.getCache(USERS_CACHE)).get(userId);
+        assertThat(cached).isNotNull();
+        assertThat(((UserResponse) Objects.requireNonNull(cached.get())).getName()).isEqualTo("Max");
+    }
+
+    private UserRequest createUserRequest(String name) {
+        return UserRequest.builder()
+                .name(name)
+                .surname("Ivanov")
+                .birthDate(LocalDate.of(1995, 10, 17))
+                .email("max@gmail.com")
+                .build();
+    }
+
+    private CardInfoRequest createCardRequest(int seq) {
+        return CardInfoRequest.builder()
+                .number(String.format("%016d", 4000_0000_0000_0000L + seq))
+                .holder("Max Ivanov")
+                .expirationDate("01/30")
+                .build();
+    }
+}
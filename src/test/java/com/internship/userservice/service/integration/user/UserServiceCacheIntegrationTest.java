@@ -1,7 +1,10 @@
 package com.internship.userservice.service.integration.user;
 
+import com.internship.userservice.dto.card.CardInfoRequest;
+import com.internship.userservice.dto.card.CardInfoResponse;
 import com.internship.userservice.dto.user.UserRequest;
 import com.internship.userservice.dto.user.UserResponse;
+import com.internship.userservice.service.CardInfoService;
 import com.internship.userservice.service.UserService;
 import com.internship.userservice.service.integration.BaseIntegrationTest;
 import org.junit.jupiter.api.BeforeEach;
@@ -12,9 +15,12 @@ import org.springframework.cache.CacheManager;
 import org.springframework.test.context.jdbc.Sql;
 
 import java.time.LocalDate;
+import java.util.List;
 import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
 
 @Sql(scripts = "classpath:/sql/cleanup.sql", executionPhase = Sql.ExecutionPhase.BEFORE_TEST_METHOD)
 public class UserServiceCacheIntegrationTest extends BaseIntegrationTest {
@@ -24,6 +30,9 @@ public class UserServiceCacheIntegrationTest extends BaseIntegrationTest {
     @Autowired
     private UserService userService;
 
+    @Autowired
+    private CardInfoService cardInfoService;
+
     @Autowired
     private CacheManager cacheManager;
 
@@ -35,6 +44,8 @@ public class UserServiceCacheIntegrationTest extends BaseIntegrationTest {
         if (cache != null) cache.clear();
         Cache byEmail = cacheManager.getCache("usersByEmail");
         if (byEmail != null) byEmail.clear();
+        Cache byCredentialsId = cacheManager.getCache("usersByCredentialsId");
+        if (byCredentialsId != null) byCredentialsId.clear();
     }
 
     @Test
@@ -71,7 +82,7 @@ public class UserServiceCacheIntegrationTest extends BaseIntegrationTest {
                 .birthDate(LocalDate.of(1990, 1, 1))
                 .email("max@gmail.com")
                 .build();
-        userService.updateUserById(userId, update, OWNER_AUTH_ID);
+        userService.updateUserById(userId, update, OWNER_AUTH_ID, null);
 
         Cache.ValueWrapper cachedAfterUpdate =
                 Objects.requireNonNull(cacheManager.getCache(USERS_CACHE)).get(userId);
@@ -98,6 +109,67 @@ public class UserServiceCacheIntegrationTest extends BaseIntegrationTest {
                 .isNull();
     }
 
+    @Test
+    void put_ShouldNotOverwriteNewerVersion() {
+        Cache cache = Objects.requireNonNull(cacheManager.getCache(USERS_CACHE));
+
+        cache.put(1L, UserResponse.builder().id(1L).name("Newer").version(2L).build());
+        cache.put(1L, UserResponse.builder().id(1L).name("Older").version(1L).build());
+
+        UserResponse cached = (UserResponse) Objects.requireNonNull(cache.get(1L)).get();
+        assertThat(cached).isNotNull();
+        assertThat(cached.getName()).isEqualTo("Newer");
+        assertThat(cached.getVersion()).isEqualTo(2L);
+    }
+
+    @Test
+    void retrieve_ShouldReadAndLoadAsynchronously() {
+        Cache cache = Objects.requireNonNull(cacheManager.getCache(USERS_CACHE));
+
+        assertThat(cache.retrieve(1L).join()).isNull();
+        UserResponse loaded = cache.retrieve(1L, () -> CompletableFuture.completedFuture(
+                UserResponse.builder().id(1L).name("Loaded").version(1L).cards(List.of()).build())).join();
+        assertThat(loaded.getName()).isEqualTo("Loaded");
+
+        Cache.ValueWrapper cached = (Cache.ValueWrapper) cache.retrieve(1L).join();
+        assertThat(cached).isNotNull();
+        assertThat(((UserResponse) Objects.requireNonNull(cached.get())).getName()).isEqualTo("Loaded");
+        UserResponse notLoadedAgain = cache.<UserResponse>retrieve(1L, () -> {
+            throw new AssertionError("loaded although cached");
+        }).join();
+        assertThat(notLoadedAgain.getName()).isEqualTo("Loaded");
+    }
+
+    @Test
+    void put_ShouldRejectValuesOtherThanVersionedUsers() {
+        Cache cache = Objects.requireNonNull(cacheManager.getCache(USERS_CACHE));
+
+        assertThatThrownBy(() -> cache.put(1L, "not a user")).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> cache.put(1L, UserResponse.builder().id(1L).build()))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThat(cache.get(1L)).isNull();
+    }
+
+    @Test
+    void cardChanges_ShouldPatchCachedUser_InsteadOfEvictingIt() {
+        Long userId = userService.create(createUserRequest(), OWNER_AUTH_ID).getId();
+        userService.getUserById(userId);
+        Cache cache = Objects.requireNonNull(cacheManager.getCache(USERS_CACHE));
+
+        CardInfoResponse first = cardInfoService.create(cardRequest("1111000011110000", "Max Ivanov"), OWNER_AUTH_ID);
+        CardInfoResponse second = cardInfoService.create(cardRequest("2222000022220000", "Max Ivanov"), OWNER_AUTH_ID);
+        assertThat(cachedUser(cache, userId).getCards()).extracting(CardInfoResponse::getId)
+                .containsExactly(first.getId(), second.getId());
+
+        cardInfoService.update(first.getId(), cardRequest("1111000011110000", "Sveta Svetikova"), OWNER_AUTH_ID, null);
+        cardInfoService.delete(second.getId(), OWNER_AUTH_ID);
+
+        UserResponse cached = cachedUser(cache, userId);
+        assertThat(cached.getCards()).extracting(CardInfoResponse::getHolder).containsExactly("Sveta Svetikova");
+        assertThat(cached.getVersion()).isEqualTo(userRepository.findVersionById(userId).orElseThrow());
+        assertThat(cached.getName()).isEqualTo("Max");
+    }
+
     @Test
     void getUserByEmail_ShouldCacheResult() {
         userService.create(createUserRequest(), OWNER_AUTH_ID);
@@ -112,6 +184,43 @@ public class UserServiceCacheIntegrationTest extends BaseIntegrationTest {
         assertThat(cachedUser.getEmail()).isEqualTo("max@gmail.com");
     }
 
+    @Test
+    void updateUserById_ShouldEvictOldEmailAndCredentialsEntries_WhenEmailChanged() {
+        UserResponse savedUser = userService.create(createUserRequest(), OWNER_AUTH_ID);
+        Long userId = savedUser.getId();
+
+        userService.getUserByEmail("max@gmail.com");
+        userService.getByUserCredentialsId(OWNER_AUTH_ID);
+
+        UserRequest update = UserRequest.builder()
+                .name("Max")
+                .surname("Ivanov")
+                .birthDate(LocalDate.of(1995, 10, 17))
+                .email("new@gmail.com")
+                .build();
+        userService.updateUserById(userId, update, OWNER_AUTH_ID, null);
+
+        assertThat(Objects.requireNonNull(cacheManager.getCache("usersByEmail")).get("max@gmail.com"))
+                .isNull();
+        assertThat(Objects.requireNonNull(cacheManager.getCache("usersByCredentialsId")).get(OWNER_AUTH_ID))
+                .isNull();
+        assertThat(userService.getByUserCredentialsId(OWNER_AUTH_ID).getEmail()).isEqualTo("new@gmail.com");
+    }
+
+    private static UserResponse cachedUser(Cache cache, Long userId) {
+        Cache.ValueWrapper cached = cache.get(userId);
+        assertThat(cached).as("user %s is cached", userId).isNotNull();
+        return (UserResponse) Objects.requireNonNull(cached.get());
+    }
+
+    private static CardInfoRequest cardRequest(String number, String holder) {
+        return CardInfoRequest.builder()
+                .number(number)
+                .holder(holder)
+                .expirationDate("01/30")
+                .build();
+    }
+
     private UserRequest createUserRequest() {
         return UserRequest.builder()
                 .name("Max")
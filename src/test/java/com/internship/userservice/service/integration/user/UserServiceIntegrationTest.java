@@ -10,7 +10,11 @@ import com.internship.userservice.service.UserService;
 import com.internship.userservice.service.integration.BaseIntegrationTest;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.junit.jupiter.api.Test;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.test.context.jdbc.Sql;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.time.LocalDate;
 import java.util.List;
@@ -30,6 +34,9 @@ public class UserServiceIntegrationTest extends BaseIntegrationTest {
     @Autowired
     private UserRepository userRepository;
 
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
     @Test
     void createUser_ShouldPersistUserInDatabase() {
         UserRequest request = createUserRequest();
@@ -159,19 +166,45 @@ public class UserServiceIntegrationTest extends BaseIntegrationTest {
                 .email("max@gmail.com")
                 .build();
 
-        UserResponse updated = userService.updateUserById(savedUser.getId(), updateRequest, OWNER_AUTH_ID);
+        UserResponse updated = userService.updateUserById(savedUser.getId(), updateRequest, OWNER_AUTH_ID, null);
 
         assertThat(updated).isNotNull();
         assertThat(updated.getName()).isEqualTo("Maxim");
         assertThat(updated.getSurname()).isEqualTo("Petrov");
     }
 
+    @Test
+    void updateUserById_ShouldRejectLostUpdate_WhenRowChangedConcurrently() {
+
+        UserResponse savedUser = userService.create(createUserRequest(), OWNER_AUTH_ID);
+
+        UserRequest updateRequest = UserRequest.builder()
+                .name("Maxim")
+                .surname("Petrov")
+                .birthDate(LocalDate.of(1995, 10, 17))
+                .email("max@gmail.com")
+                .build();
+
+        TransactionTemplate slowTx = new TransactionTemplate(transactionManager);
+        TransactionTemplate fastTx = new TransactionTemplate(transactionManager);
+        fastTx.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+
+        assertThatThrownBy(() -> slowTx.executeWithoutResult(status -> {
+            User stale = userRepository.findById(savedUser.getId()).orElseThrow();
+            fastTx.executeWithoutResult(s ->
+                    userService.updateUserById(savedUser.getId(), updateRequest, OWNER_AUTH_ID, null));
+            stale.setName("Stale");
+        })).isInstanceOf(ObjectOptimisticLockingFailureException.class);
+
+        assertThat(userRepository.findById(savedUser.getId()).orElseThrow().getName()).isEqualTo("Maxim");
+    }
+
     @Test
     void updateUserById_ShouldThrowException_WhenUserNotFound() {
 
         UserRequest updateRequest = createUserRequest();
 
-        assertThatThrownBy(() -> userService.updateUserById(1488L, updateRequest, OWNER_AUTH_ID))
+        assertThatThrownBy(() -> userService.updateUserById(1488L, updateRequest, OWNER_AUTH_ID, null))
                 .isInstanceOf(NotFoundException.class)
                 .hasMessageContaining("User id=1488 not found");
     }
@@ -203,7 +236,7 @@ public class UserServiceIntegrationTest extends BaseIntegrationTest {
                 .email("first@gmail.com")
                 .build();
 
-        assertThatThrownBy(() -> userService.updateUserById(savedUser2.getId(), updateRequest, OTHER_AUTH_ID))
+        assertThatThrownBy(() -> userService.updateUserById(savedUser2.getId(), updateRequest, OTHER_AUTH_ID, null))
                 .isInstanceOf(AlreadyExistsException.class)
                 .hasMessageContaining("Email 'first@gmail.com' already in use");
     }
@@ -220,7 +253,7 @@ public class UserServiceIntegrationTest extends BaseIntegrationTest {
                 .email("max@gmail.com")
                 .build();
 
-        assertThatThrownBy(() -> userService.updateUserById(saved.getId(), updateRequest, OTHER_AUTH_ID))
+        assertThatThrownBy(() -> userService.updateUserById(saved.getId(), updateRequest, OTHER_AUTH_ID, null))
                 .isInstanceOf(org.springframework.security.access.AccessDeniedException.class)
                 .hasMessageContaining("Access denied");
     }
@@ -0,0 +1,57 @@
+package com.internship.userservice.service.integration.user;
+
+import com.internship.userservice.dto.user.UserRequest;
+import com.internship.userservice.dto.user.UserResponse;
+import com.internship.userservice.service.UserService;
+import com.internship.userservice.service.integration.BaseIntegrationTest;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.test.context.jdbc.Sql;
+
+import java.time.LocalDate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@Sql(scripts = "classpath:/sql/cleanup.sql", executionPhase = Sql.ExecutionPhase.BEFORE_TEST_METHOD)
+public class UserServiceMetricsIntegrationTest extends BaseIntegrationTest {
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Test
+    void getUserById_ShouldRecordServiceAndCacheMetrics() {
+        UserResponse saved = userService.create(UserRequest.builder()
+                .name("Max")
+                .surname("Ivanov")
+                .birthDate(LocalDate.of(1995, 10, 17))
+                .email("max@gmail.com")
+                .build(), 100L);
+
+        userService.getUserById(saved.getId());
+        userService.getUserById(saved.getId());
+
+        Timer serviceTimer = meterRegistry.find("service.method")
+                .tag("method", "getUserById")
+                .timer();
+        assertThat(serviceTimer).isNotNull();
+        assertThat(serviceTimer.count()).isGreaterThanOrEqualTo(1);
+
+        Timer cacheHits = meterRegistry.find("cache.latency")
+                .tags("cache", "users", "operation", "get", "result", "hit")
+                .timer();
+        assertThat(cacheHits).isNotNull();
+        assertThat(cacheHits.count()).isGreaterThanOrEqualTo(1);
+
+        FunctionCounter hits = meterRegistry.find("cache.gets")
+                .tags("cache", "users", "result", "hit")
+                .functionCounter();
+        assertThat(hits).isNotNull();
+        assertThat(hits.count()).isGreaterThanOrEqualTo(1);
+    }
+}
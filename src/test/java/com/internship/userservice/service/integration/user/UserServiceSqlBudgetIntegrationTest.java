@@ -0,0 +1,136 @@
+package com.internship.userservice.service.integration.user;
+
+import com.internship.userservice.dto.user.UserFields;
+import com.internship.userservice.entity.CardInfo;
+import com.internship.userservice.entity.User;
+import com.internship.userservice.repository.CardInfoRepository;
+import com.internship.userservice.service.UserService;
+import com.internship.userservice.sql.SqlBudget;
+import com.internship.userservice.sql.SqlBudgetExceededException;
+import com.internship.userservice.service.integration.BaseIntegrationTest;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.context.jdbc.Sql;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * The shared test profile only logs budget violations. Here they fail the call, with the
+ * time budget out of the way, so only statement counts are checked. Hibernate statistics
+ * are switched on for the statement and entity load counts.
+ */
+@Sql(scripts = "classpath:/sql/cleanup.sql", executionPhase = Sql.ExecutionPhase.BEFORE_TEST_METHOD)
+@TestPropertySource(properties = {
+        "app.sql-budget.mode=fail",
+        "app.sql-budget.max-duration=1m",
+        "app.metrics.hibernate-statistics=true"
+})
+public class UserServiceSqlBudgetIntegrationTest extends BaseIntegrationTest {
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private CardInfoRepository cardInfoRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private SqlBudget sqlBudget;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private long[] saveUsersWithCards() {
+        long[] ids = new long[5];
+        for (int i = 0; i < ids.length; i++) {
+            User user = userRepository.save(User.builder()
+                    .name("User" + i)
+                    .birthDate(LocalDate.of(1990, 1, 1))
+                    .email("user" + i + "@gmail.com")
+                    .userCredentialsId(100L + i)
+                    .build());
+            cardInfoRepository.save(CardInfo.builder()
+                    .number(String.format("400000000000000%d", i))
+                    .holder("USER " + i)
+                    .expirationDate("12/30")
+                    .user(user)
+                    .build());
+            ids[i] = user.getId();
+        }
+        return ids;
+    }
+
+    private double usersCacheGets() {
+        return meterRegistry.find("cache.gets").tag("cache", "users").functionCounters().stream()
+                .mapToDouble(FunctionCounter::count)
+                .sum();
+    }
+
+    @Test
+    void statementOverBudget_ShouldFailBeforeScopeEnds() {
+        List<Integer> executed = new ArrayList<>();
+
+        // the test profile reports the third execution of a statement as N+1
+        assertThatThrownBy(() -> sqlBudget.measure("loop", () -> {
+            for (int i = 0; i < 5; i++) {
+                jdbcTemplate.queryForObject("SELECT 1", Integer.class);
+                executed.add(i);
+            }
+            return null;
+        })).isInstanceOf(SqlBudgetExceededException.class)
+                .hasMessageContaining("possible N+1, 3 executions");
+        assertThat(executed).hasSize(2);
+    }
+
+    @Test
+    void getAllUsers_ShouldLoadCardsWithoutStatementPerUser() {
+        saveUsersWithCards();
+
+        // fails with SqlBudgetExceededException when cards are loaded one user at a time
+        assertThat(userService.getAllUsers())
+                .hasSize(5)
+                .allSatisfy(user -> assertThat(user.getCards()).hasSize(1));
+    }
+
+    @Test
+    void streamUserFieldsBatch_WithoutCards_ShouldReadUserColumnsOnly() {
+        long[] ids = saveUsersWithCards();
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+        double cacheGets = usersCacheGets();
+
+        List<Map<String, Object>> users = new ArrayList<>();
+        userService.streamUserFieldsBatch(ids, UserFields.valueOf("id,name"), users::add);
+
+        assertThat(users).hasSize(5).allSatisfy(user -> assertThat(user).containsOnlyKeys("id", "name"));
+        // one statement without the card join, which would load users and cards as entities
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+        assertThat(statistics.getEntityLoadCount()).isZero();
+        assertThat(statistics.getCollectionLoadCount()).isZero();
+        // no lookup of the cached aggregates
+        assertThat(usersCacheGets()).isEqualTo(cacheGets);
+
+        userService.streamUserFieldsBatch(ids, UserFields.valueOf("id,cards"), users::add);
+
+        assertThat(statistics.getEntityLoadCount()).isPositive();
+        assertThat(usersCacheGets()).isGreaterThan(cacheGets);
+    }
+}
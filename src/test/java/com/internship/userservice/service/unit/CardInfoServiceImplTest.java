@@ -1,5 +1,9 @@
 package com.internship.userservice.service.unit;
 
+import com.internship.userservice.cache.CacheBatchReader;
+import com.internship.userservice.cache.UserCacheInvalidator;
+import com.internship.userservice.cache.UserCardsCache;
+import com.internship.userservice.config.UniquenessFilterProperties;
 import com.internship.userservice.dto.card.CardInfoRequest;
 import com.internship.userservice.dto.card.CardInfoResponse;
 import com.internship.userservice.entity.CardInfo;
@@ -10,20 +14,25 @@ import com.internship.userservice.mapper.CardInfoMapper;
 import com.internship.userservice.repository.CardInfoRepository;
 import com.internship.userservice.repository.UserRepository;
 import com.internship.userservice.service.impl.CardInfoServiceImpl;
+import com.internship.userservice.uniqueness.UniquenessFilter;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
-import org.springframework.cache.Cache;
-import org.springframework.cache.CacheManager;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
 
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.AssertionsForClassTypes.assertThatThrownBy;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
 import static org.mockito.Mockito.verifyNoMoreInteractions;
 import static org.mockito.Mockito.when;
 
@@ -35,9 +44,9 @@ public class CardInfoServiceImplTest {
     private UserRepository userRepository;
     private CardInfoMapper cardInfoMapper;
     private CardInfoServiceImpl cardInfoService;
-    private CacheManager cacheManager;
-    private Cache usersCache;
-    private Cache usersByEmailCache;
+    private UserCacheInvalidator cacheInvalidator;
+    private UserCardsCache userCardsCache;
+    private CacheBatchReader cacheBatchReader;
 
     @BeforeEach
     void setUp() {
@@ -45,17 +54,24 @@ public class CardInfoServiceImplTest {
         userRepository = mock(UserRepository.class);
         cardInfoMapper = mock(CardInfoMapper.class);
 
-        cacheManager = mock(CacheManager.class);
-        usersCache = mock(Cache.class);
-        usersByEmailCache = mock(Cache.class);
-        when(cacheManager.getCache("users")).thenReturn(usersCache);
-        when(cacheManager.getCache("usersByEmail")).thenReturn(usersByEmailCache);
+        cacheInvalidator = mock(UserCacheInvalidator.class);
+        userCardsCache = mock(UserCardsCache.class);
+        cacheBatchReader = mock(CacheBatchReader.class);
 
         cardInfoService = new CardInfoServiceImpl(
-                cardInfoRepository, userRepository, cardInfoMapper, cacheManager
+                cardInfoRepository, userRepository, cardInfoMapper, cacheInvalidator, userCardsCache,
+                unbuiltUniquenessFilter(), cacheBatchReader
         );
     }
 
+    /**
+     * Never built, so every uniqueness check asks the repository.
+     */
+    private static UniquenessFilter unbuiltUniquenessFilter() {
+        return new UniquenessFilter(mock(JdbcTemplate.class), mock(PlatformTransactionManager.class),
+                new UniquenessFilterProperties());
+    }
+
     @Test
     void create_ShouldCreateCard_WhenDataIsValid() {
         CardInfoRequest request = new CardInfoRequest();
@@ -65,6 +81,7 @@ public class CardInfoServiceImplTest {
 
         User owner = new User();
         owner.setId(1L);
+        owner.setEmail("john@example.com");
         owner.setUserCredentialsId(AUTH_USER_CRED_ID);
 
         CardInfo cardToSave = new CardInfo();
@@ -100,6 +117,7 @@ public class CardInfoServiceImplTest {
         verify(cardInfoMapper).toEntity(request);
         verify(cardInfoRepository).save(cardToSave);
         verify(cardInfoMapper).toDto(saved);
+        verify(cacheInvalidator).evictSecondaryKeys(1L, "john@example.com");
     }
 
     @Test
@@ -123,6 +141,7 @@ public class CardInfoServiceImplTest {
         verify(userRepository).findByUserCredentialsId(AUTH_USER_CRED_ID);
         verify(cardInfoRepository).existsByNumber("1111222233334444");
         verifyNoMoreInteractions(cardInfoMapper, cardInfoRepository);
+        verifyNoInteractions(cacheInvalidator);
     }
 
     @Test
@@ -140,6 +159,7 @@ public class CardInfoServiceImplTest {
 
         verify(userRepository).findByUserCredentialsId(AUTH_USER_CRED_ID);
         verifyNoMoreInteractions(cardInfoRepository, cardInfoMapper);
+        verifyNoInteractions(cacheInvalidator);
     }
 
     @Test
@@ -216,6 +236,8 @@ public class CardInfoServiceImplTest {
         CardInfoResponse r1 = new CardInfoResponse(); r1.setId(10L); r1.setNumber("1111222233334444");
         CardInfoResponse r2 = new CardInfoResponse(); r2.setId(20L); r2.setNumber("4444333322221111");
 
+        when(userCardsCache.get(userId)).thenReturn(null);
+        when(userRepository.findVersionById(userId)).thenReturn(Optional.of(3L));
         when(cardInfoRepository.findByUserId(userId)).thenReturn(cards);
         when(cardInfoMapper.toDtoList(cards)).thenReturn(List.of(r1, r2));
 
@@ -228,6 +250,20 @@ public class CardInfoServiceImplTest {
 
         verify(cardInfoRepository).findByUserId(userId);
         verify(cardInfoMapper).toDtoList(cards);
+        verify(userCardsCache).fill(userId, 3L, List.of(r1, r2));
+    }
+
+    @Test
+    void getByUserId_ShouldReturnCachedCards_WithoutQuerying() {
+        Long userId = 7L;
+        CardInfoResponse r1 = new CardInfoResponse(); r1.setId(10L); r1.setUserId(userId);
+
+        when(userCardsCache.get(userId)).thenReturn(List.of(r1));
+
+        List<CardInfoResponse> result = cardInfoService.getByUserId(userId);
+
+        assertThat(result).containsExactly(r1);
+        verifyNoMoreInteractions(cardInfoRepository, userRepository);
     }
 
     @Test
@@ -236,6 +272,7 @@ public class CardInfoServiceImplTest {
 
         User owner = new User();
         owner.setId(10L);
+        owner.setEmail("john@example.com");
         owner.setUserCredentialsId(AUTH_USER_CRED_ID);
 
         CardInfo existing = new CardInfo();
@@ -262,7 +299,7 @@ public class CardInfoServiceImplTest {
         when(cardInfoRepository.save(existing)).thenReturn(saved);
         when(cardInfoMapper.toDto(saved)).thenReturn(resp);
 
-        CardInfoResponse result = cardInfoService.update(cardId, dto, AUTH_USER_CRED_ID);
+        CardInfoResponse result = cardInfoService.update(cardId, dto, AUTH_USER_CRED_ID, null);
 
         assertThat(result).isNotNull();
         assertThat(result.getNumber()).isEqualTo("4444333322221111");
@@ -272,6 +309,7 @@ public class CardInfoServiceImplTest {
         verify(cardInfoMapper).updateEntity(existing, dto);
         verify(cardInfoRepository).save(existing);
         verify(cardInfoMapper).toDto(saved);
+        verify(cacheInvalidator).evictSecondaryKeys(10L, "john@example.com");
     }
 
     @Test
@@ -280,6 +318,7 @@ public class CardInfoServiceImplTest {
 
         User owner = new User();
         owner.setId(10L);
+        owner.setEmail("john@example.com");
         owner.setUserCredentialsId(AUTH_USER_CRED_ID);
 
         CardInfo existing = new CardInfo();
@@ -305,7 +344,7 @@ public class CardInfoServiceImplTest {
         when(cardInfoRepository.save(existing)).thenReturn(saved);
         when(cardInfoMapper.toDto(saved)).thenReturn(resp);
 
-        CardInfoResponse result = cardInfoService.update(cardId, dto, AUTH_USER_CRED_ID);
+        CardInfoResponse result = cardInfoService.update(cardId, dto, AUTH_USER_CRED_ID, null);
 
         assertThat(result).isNotNull();
         assertThat(result.getId()).isEqualTo(cardId);
@@ -315,6 +354,7 @@ public class CardInfoServiceImplTest {
         verify(cardInfoMapper).updateEntity(existing, dto);
         verify(cardInfoRepository).save(existing);
         verify(cardInfoMapper).toDto(saved);
+        verify(cacheInvalidator).evictSecondaryKeys(10L, "john@example.com");
     }
 
     @Test
@@ -338,7 +378,7 @@ public class CardInfoServiceImplTest {
         when(cardInfoRepository.findById(cardId)).thenReturn(Optional.of(existing));
         when(cardInfoRepository.existsByNumber("4444333322221111")).thenReturn(true);
 
-        assertThatThrownBy(() -> cardInfoService.update(cardId, dto, AUTH_USER_CRED_ID))
+        assertThatThrownBy(() -> cardInfoService.update(cardId, dto, AUTH_USER_CRED_ID, null))
                 .isInstanceOf(AlreadyExistsException.class)
                 .hasMessageContaining("Card number '4444333322221111' already exists");
 
@@ -346,6 +386,7 @@ public class CardInfoServiceImplTest {
         verify(cardInfoRepository).existsByNumber("4444333322221111");
         verify(cardInfoRepository, never()).save(any());
         verifyNoMoreInteractions(cardInfoMapper);
+        verifyNoInteractions(cacheInvalidator);
     }
 
     @Test
@@ -368,7 +409,7 @@ public class CardInfoServiceImplTest {
 
         when(cardInfoRepository.findById(cardId)).thenReturn(Optional.of(existing));
 
-        assertThatThrownBy(() -> cardInfoService.update(cardId, dto, AUTH_USER_CRED_ID))
+        assertThatThrownBy(() -> cardInfoService.update(cardId, dto, AUTH_USER_CRED_ID, null))
                 .isInstanceOf(org.springframework.security.access.AccessDeniedException.class)
                 .hasMessageContaining("Access denied");
 
@@ -376,6 +417,7 @@ public class CardInfoServiceImplTest {
         verify(cardInfoRepository, never()).existsByNumber(any());
         verify(cardInfoRepository, never()).save(any());
         verifyNoMoreInteractions(cardInfoMapper);
+        verifyNoInteractions(cacheInvalidator);
     }
 
     @Test
@@ -389,12 +431,13 @@ public class CardInfoServiceImplTest {
 
         when(cardInfoRepository.findById(cardId)).thenReturn(Optional.empty());
 
-        assertThatThrownBy(() -> cardInfoService.update(cardId, dto, AUTH_USER_CRED_ID))
+        assertThatThrownBy(() -> cardInfoService.update(cardId, dto, AUTH_USER_CRED_ID, null))
                 .isInstanceOf(NotFoundException.class)
                 .hasMessageContaining("Card id=999 not found");
 
         verify(cardInfoRepository).findById(cardId);
         verifyNoMoreInteractions(cardInfoRepository, cardInfoMapper);
+        verifyNoInteractions(cacheInvalidator);
     }
 
     @Test
@@ -408,13 +451,17 @@ public class CardInfoServiceImplTest {
         CardInfo card = new CardInfo();
         card.setId(cardId);
         card.setUser(owner);
+        card.setVersion(2L);
 
         when(cardInfoRepository.findById(cardId)).thenReturn(Optional.of(card));
 
         cardInfoService.delete(cardId, AUTH_USER_CRED_ID);
 
         verify(cardInfoRepository).findById(cardId);
+        verify(userRepository).skipCacheOutbox();
         verify(cardInfoRepository).deleteById(cardId);
+        verify(cacheInvalidator).evictSecondaryKeys(eq(10L), any(), eq(List.of(cardId)));
+        verify(userCardsCache).removeCard(eq(10L), eq(cardId), eq(3L), any());
     }
 
     @Test
@@ -428,6 +475,7 @@ public class CardInfoServiceImplTest {
 
         verify(cardInfoRepository).findById(cardId);
         verify(cardInfoRepository, never()).deleteById(any());
+        verifyNoInteractions(cacheInvalidator);
     }
 
     @Test
@@ -450,5 +498,27 @@ public class CardInfoServiceImplTest {
 
         verify(cardInfoRepository).findById(cardId);
         verify(cardInfoRepository, never()).deleteById(any());
+        verifyNoInteractions(cacheInvalidator);
+    }
+
+    @Test
+    void streamBatch_ShouldLoadOnlyUncachedDistinctIds_AndKeepIdOrder() {
+        CardInfoResponse cached = CardInfoResponse.builder().id(2L).build();
+        CardInfo first = new CardInfo();
+        first.setId(1L);
+        CardInfo third = new CardInfo();
+        third.setId(3L);
+        when(cacheBatchReader.getAll(eq("cards"), any(long[].class), eq(CardInfoResponse.class)))
+                .thenReturn(Map.of(2L, cached));
+        when(cardInfoRepository.findAllByIdArray(new long[]{1L, 3L, 4L})).thenReturn(List.of(first, third));
+        when(cardInfoMapper.toDtoList(List.of(first, third))).thenReturn(List.of(
+                CardInfoResponse.builder().id(1L).build(),
+                CardInfoResponse.builder().id(3L).build()));
+
+        List<Long> written = new ArrayList<>();
+        cardInfoService.streamBatch(new long[]{3L, 1L, 2L, 3L, 4L, 1L}, card -> written.add(card.getId()));
+
+        assertThat(written).containsExactly(1L, 2L, 3L);
+        verify(cacheBatchReader).getAll("cards", new long[]{1L, 2L, 3L, 4L}, CardInfoResponse.class);
     }
 }
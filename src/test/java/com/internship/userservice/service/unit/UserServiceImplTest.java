@@ -1,15 +1,22 @@
 package com.internship.userservice.service.unit;
 
+import com.internship.userservice.cache.CacheBatchReader;
+import com.internship.userservice.cache.UserCacheInvalidator;
+import com.internship.userservice.config.UniquenessFilterProperties;
 import com.internship.userservice.dto.user.UserRequest;
 import com.internship.userservice.dto.user.UserResponse;
 import com.internship.userservice.entity.User;
 import com.internship.userservice.exception.AlreadyExistsException;
 import com.internship.userservice.exception.NotFoundException;
+import com.internship.userservice.exception.PreconditionFailedException;
 import com.internship.userservice.mapper.UserMapper;
 import com.internship.userservice.repository.UserRepository;
 import com.internship.userservice.service.impl.UserServiceImpl;
+import com.internship.userservice.uniqueness.UniquenessFilter;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
 
 import java.time.LocalDate;
 import java.util.List;
@@ -17,9 +24,13 @@ import java.util.Optional;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.AssertionsForClassTypes.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.doNothing;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
 import static org.mockito.Mockito.verifyNoMoreInteractions;
 import static org.mockito.Mockito.when;
 
@@ -27,13 +38,26 @@ public class UserServiceImplTest {
 
     private UserRepository userRepository;
     private UserMapper userMapper;
+    private UserCacheInvalidator cacheInvalidator;
+    private CacheBatchReader cacheBatchReader;
     private UserServiceImpl userService;
 
     @BeforeEach
     void setUp() {
         userRepository = mock(UserRepository.class);
         userMapper = mock(UserMapper.class);
-        userService = new UserServiceImpl(userRepository, userMapper);
+        cacheInvalidator = mock(UserCacheInvalidator.class);
+        cacheBatchReader = mock(CacheBatchReader.class);
+        userService = new UserServiceImpl(userRepository, userMapper, cacheInvalidator, unbuiltUniquenessFilter(),
+                cacheBatchReader);
+    }
+
+    /**
+     * Never built, so every uniqueness check asks the repository.
+     */
+    private static UniquenessFilter unbuiltUniquenessFilter() {
+        return new UniquenessFilter(mock(JdbcTemplate.class), mock(PlatformTransactionManager.class),
+                new UniquenessFilterProperties());
     }
 
     @Test
@@ -88,6 +112,27 @@ public class UserServiceImplTest {
         verifyNoMoreInteractions(userMapper, userRepository);
     }
 
+    @Test
+    void create_ShouldSkipEmailLookup_WhenFilterRulesEmailOut() {
+
+        UniquenessFilter uniquenessFilter = mock(UniquenessFilter.class);
+        userService = new UserServiceImpl(userRepository, userMapper, cacheInvalidator, uniquenessFilter, cacheBatchReader);
+
+        UserRequest request = new UserRequest();
+        request.setEmail("maks@gmail.com");
+        User user = new User();
+        user.setEmail("maks@gmail.com");
+
+        when(uniquenessFilter.emailExists(eq("maks@gmail.com"), any())).thenReturn(false);
+        when(userMapper.toEntity(request)).thenReturn(user);
+        when(userRepository.save(user)).thenReturn(user);
+
+        userService.create(request, 100L);
+
+        verify(userRepository, never()).findByEmail(any());
+        verify(uniquenessFilter).addEmail("maks@gmail.com");
+    }
+
     @Test
     void getUserById_ShouldReturnUser_WhenUserExists() {
 
@@ -266,7 +311,7 @@ public class UserServiceImplTest {
         when(userRepository.save(existingUser)).thenReturn(existingUser);
         when(userMapper.toDto(existingUser)).thenReturn(expectedResponse);
 
-        UserResponse result = userService.updateUserById(userId, updateRequest, 100L);
+        UserResponse result = userService.updateUserById(userId, updateRequest, 100L, null);
 
         assertThat(result).isNotNull();
         assertThat(result.getId()).isEqualTo(userId);
@@ -299,7 +344,7 @@ public class UserServiceImplTest {
         when(userRepository.save(existingUser)).thenReturn(existingUser);
         when(userMapper.toDto(existingUser)).thenReturn(expectedResponse);
 
-        UserResponse result = userService.updateUserById(userId, updateRequest, 100L);
+        UserResponse result = userService.updateUserById(userId, updateRequest, 100L, null);
 
         assertThat(result).isNotNull();
         assertThat(result.getId()).isEqualTo(userId);
@@ -309,6 +354,7 @@ public class UserServiceImplTest {
         verify(userRepository).findByEmail("new@gmail.com");
         verify(userMapper).updateEntity(existingUser, updateRequest);
         verify(userMapper).toDto(existingUser);
+        verify(cacheInvalidator).evictSecondaryKeys(userId, "maks@gmail.com", "new@gmail.com");
     }
 
     @Test
@@ -329,7 +375,7 @@ public class UserServiceImplTest {
         when(userRepository.findById(userId)).thenReturn(Optional.of(existingUser));
         when(userRepository.findByEmail("other@gmail.com")).thenReturn(Optional.of(otherUser));
 
-        assertThatThrownBy(() -> userService.updateUserById(userId, updateRequest, 100L))
+        assertThatThrownBy(() -> userService.updateUserById(userId, updateRequest, 100L, null))
                 .isInstanceOf(AlreadyExistsException.class)
                 .hasMessageContaining("Email 'other@gmail.com' already in use");
 
@@ -351,7 +397,7 @@ public class UserServiceImplTest {
 
         when(userRepository.findById(userId)).thenReturn(Optional.of(existingUser));
 
-        assertThatThrownBy(() -> userService.updateUserById(userId, updateRequest, 100L))
+        assertThatThrownBy(() -> userService.updateUserById(userId, updateRequest, 100L, null))
                 .isInstanceOf(org.springframework.security.access.AccessDeniedException.class)
                 .hasMessageContaining("Access denied");
 
@@ -359,6 +405,28 @@ public class UserServiceImplTest {
         verifyNoMoreInteractions(userRepository, userMapper);
     }
 
+    @Test
+    void updateUserById_ShouldThrowPreconditionFailed_WhenVersionMismatch() {
+        Long userId = 1L;
+        UserRequest updateRequest = new UserRequest();
+        updateRequest.setEmail("maks@gmail.com");
+
+        User existingUser = new User();
+        existingUser.setId(userId);
+        existingUser.setEmail("maks@gmail.com");
+        existingUser.setUserCredentialsId(100L);
+        existingUser.setVersion(3L);
+
+        when(userRepository.findById(userId)).thenReturn(Optional.of(existingUser));
+
+        assertThatThrownBy(() -> userService.updateUserById(userId, updateRequest, 100L, 2L))
+                .isInstanceOf(PreconditionFailedException.class)
+                .hasMessageContaining("current version=3");
+
+        verify(userRepository).findById(userId);
+        verifyNoMoreInteractions(userRepository, userMapper);
+    }
+
     @Test
     void updateUserById_ShouldThrowNotFoundException_WhenUserNotFound() {
         Long userId = 999L;
@@ -367,7 +435,7 @@ public class UserServiceImplTest {
 
         when(userRepository.findById(userId)).thenReturn(Optional.empty());
 
-        assertThatThrownBy(() -> userService.updateUserById(userId, updateRequest, 100L))
+        assertThatThrownBy(() -> userService.updateUserById(userId, updateRequest, 100L, null))
                 .isInstanceOf(NotFoundException.class)
                 .hasMessageContaining("User id=999 not found");
 
@@ -389,7 +457,9 @@ public class UserServiceImplTest {
         userService.deleteUserById(userId, 100L);
 
         verify(userRepository).findById(userId);
+        verify(userRepository).skipCacheOutbox();
         verify(userRepository).delete(existingUser);
+        verify(cacheInvalidator).evictAll(List.of(userId), List.of("maks@gmail.com"), List.of());
     }
 
     @Test
@@ -404,6 +474,7 @@ public class UserServiceImplTest {
 
         verify(userRepository).findById(userId);
         verifyNoMoreInteractions(userRepository);
+        verifyNoInteractions(cacheInvalidator);
     }
 
     @Test
@@ -422,6 +493,7 @@ public class UserServiceImplTest {
 
         verify(userRepository).findById(userId);
         verifyNoMoreInteractions(userRepository);
+        verifyNoInteractions(cacheInvalidator);
     }
 
     @Test
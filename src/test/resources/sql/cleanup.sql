@@ -1,4 +1,5 @@
 TRUNCATE TABLE card_info CASCADE;
 TRUNCATE TABLE users CASCADE;
+TRUNCATE TABLE cache_outbox;
 ALTER SEQUENCE card_info_id_seq RESTART WITH 1;
 ALTER SEQUENCE users_id_seq RESTART WITH 1;
\ No newline at end of file